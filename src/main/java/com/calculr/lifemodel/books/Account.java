@@ -1,8 +1,11 @@
 package com.calculr.lifemodel.books;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 
 import com.calculr.lifemodel.engine.Actor;
+import com.calculr.lifemodel.engine.Footprint;
 import com.calculr.lifemodel.engine.Simulation;
 import com.calculr.lifemodel.finance.Money;
 
@@ -15,6 +18,7 @@ public abstract class Account extends Actor<Account> {
   private final String accountName;
   private final Journal journal;
   private final DailyLedger ledger;
+  private final Collection<Actor<?>> attachedActors = new ArrayList<>();
   
   protected Account(Simulation sim, String accountName) {
     super(sim);
@@ -38,6 +42,16 @@ public abstract class Account extends Actor<Account> {
     return ledger;
   }
 
+  /**
+   * Returns the {@link Footprint} of a task that posts to this account: the account and its
+   * {@link DailyLedger}. Other consumers of its journal, such as the virtual accounts of a
+   * {@link BalanceSheet}, are updated after a parallel lane finishes, so they are not part of
+   * the footprint.
+   */
+  public Footprint getPostingFootprint() {
+    return Footprint.of(this, ledger);
+  }
+
   /**
    * Returns the {@link Journal} of all transactions in this {@link Account}.
    */
@@ -45,6 +59,30 @@ public abstract class Account extends Actor<Account> {
     return journal;
   }
 
+  /**
+   * Posts a signed amount of a {@link Transaction} to the {@link Journal} of this account,
+   * where a positive amount is a deposit. Deposits, withdrawals, and the legs of a
+   * {@link Posting} all pass through this method, so subclasses can observe or suppress them.
+   */
+  protected void post(Transaction transaction, Money amount) {
+    journal.post(transaction, amount);
+  }
+
+  /**
+   * Sets the {@link RetentionPolicy} of the {@link Journal} of this {@link Account}. Older
+   * transactions are summarized without changing any balance.
+   */
+  public void setRetentionPolicy(RetentionPolicy retentionPolicy) {
+    journal.setRetentionPolicy(retentionPolicy);
+  }
+
+  /**
+   * Sets the {@link HistoryPolicy} of the {@link DailyLedger} of this {@link Account}.
+   */
+  public void setHistoryPolicy(HistoryPolicy historyPolicy) {
+    ledger.setHistoryPolicy(historyPolicy);
+  }
+
   /**
    * Returns the current posted balance (the daily balance).
    */
@@ -63,7 +101,28 @@ public abstract class Account extends Actor<Account> {
    * Assigns an {@link ActorFactory} to act on this {@link Account}.
    */
   public <T extends Actor<T>> void actOn(ActorFactory<Account, T> factory) {
-    factory.build(sim, this);
+    attachedActors.add(factory.build(sim, this));
+  }
+  
+  /**
+   * Closes this {@link Account}. The transactions of the current day are posted, and the
+   * {@link DailyLedger} and all actors assigned with {@link #actOn(ActorFactory)} are retired
+   * so that they no longer run for the rest of the simulation. The balances remain readable,
+   * but no further transactions should be added to a closed account.
+   */
+  public void close() {
+    for (Actor<?> actor : attachedActors) {
+      actor.retire();
+    }
+    ledger.retire();
+    retire();
+  }
+  
+  /**
+   * Returns {@code true} if this {@link Account} has been closed.
+   */
+  public boolean isClosed() {
+    return isRetired();
   }
   
 
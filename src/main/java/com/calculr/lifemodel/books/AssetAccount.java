@@ -15,22 +15,24 @@ public class AssetAccount extends Account {
    * Deposits a {@link Transaction} into the {@link Account}.
    */
   public void deposit(Transaction transaction) {
-    getJournal().deposit(transaction);
+    post(transaction, transaction.getAmount());
   }
 
   /**
    * Withdraws a {@link Transaction} from the {@link Account}.
    */
   public void withdraw(Transaction transaction) {
-    getJournal().withdraw(transaction);
+    post(transaction, transaction.getAmount().negate());
   }
   
   /**
    * Withdraws the specified transaction from this {@link AssetAccount} and
-   * applies it as a payment to the {@link LiabilityAccount}.
+   * applies it as a payment to the {@link LiabilityAccount} in a single {@link Posting}.
    */
   public void makePayment(Transaction transaction, LiabilityAccount liability) {
-    withdraw(transaction);
-    liability.payment(transaction);
+    Posting.of(transaction)
+        .withdraw(this, transaction.getAmount())
+        .deposit(liability, transaction.getAmount())
+        .post();
   }
 }
@@ -0,0 +1,229 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.calculr.lifemodel.engine.Actor;
+import com.calculr.lifemodel.engine.QuantileSketch;
+import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.finance.Money;
+
+/**
+ * Collects the distribution of {@link Account} balances per simulated month across many
+ * replicas of a simulation, producing percentile bands (a fan chart) at the end.
+ *
+ * <p>Each tracked balance is added to a {@link QuantileSketch} for its month as the replicas
+ * run, so memory is proportional to the number of accounts and months rather than the number
+ * of replicas. Replicas can share one chart across threads, or record into separate charts
+ * that are later combined with {@link #merge(BalanceFanChart)}.
+ */
+public final class BalanceFanChart {
+  private static final Money ONE_DOLLAR = Money.dollars(1);
+  private static final double DEFAULT_ACCURACY = 0.005;
+
+  private final LocalDate startDate;
+  private final int months;
+  private final double accuracy;
+  private final Map<String, QuantileSketch[]> series = new ConcurrentHashMap<>();
+
+  private BalanceFanChart(LocalDate startDate, int months, double accuracy) {
+    this.startDate = startDate;
+    this.months = months;
+    this.accuracy = accuracy;
+  }
+
+  /**
+   * Constructs a new {@link BalanceFanChart} sampling balances at the start of each month.
+   *
+   * @param startDate the date of the first sample
+   * @param months the number of months sampled after the start date
+   */
+  public static BalanceFanChart create(LocalDate startDate, int months) {
+    return create(startDate, months, DEFAULT_ACCURACY);
+  }
+
+  /**
+   * Constructs a new {@link BalanceFanChart} with the specified relative accuracy.
+   *
+   * @see QuantileSketch#create(double)
+   */
+  public static BalanceFanChart create(LocalDate startDate, int months, double accuracy) {
+    return new BalanceFanChart(startDate, months, accuracy);
+  }
+
+  /**
+   * Tracks the posted balance of the {@link Account} within one replica of the simulation.
+   * Balances are sampled at the start of each month, and therefore reflect the balance at
+   * the end of the previous day.
+   */
+  public void track(Simulation sim, Account account) {
+    new Sampler(sim, sketches(account.getAccountName()), account);
+  }
+
+  /**
+   * Merges the samples collected by another {@link BalanceFanChart} into this one. Each month
+   * of the other chart is copied before it is merged, so only one sketch is locked at a time
+   * and charts can merge into each other concurrently.
+   *
+   * @throws IllegalArgumentException if the charts cover different periods, or the other
+   *     chart is this one
+   */
+  public void merge(BalanceFanChart other) {
+    if (other == this) {
+      throw new IllegalArgumentException("Can not merge a fan chart into itself");
+    }
+    if (!startDate.equals(other.startDate) || months != other.months) {
+      throw new IllegalArgumentException("Can not merge fan charts with different periods");
+    }
+    for (Map.Entry<String, QuantileSketch[]> entry : other.series.entrySet()) {
+      QuantileSketch[] sketches = sketches(entry.getKey());
+      for (int i = 0; i <= months; i++) {
+        QuantileSketch source = entry.getValue()[i];
+        QuantileSketch snapshot = QuantileSketch.create(other.accuracy);
+        synchronized (source) {
+          snapshot.merge(source);
+        }
+        if (snapshot.getCount() == 0) {
+          continue;
+        }
+        synchronized (sketches[i]) {
+          sketches[i].merge(snapshot);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the names of all tracked accounts.
+   */
+  public List<String> getAccountNames() {
+    List<String> names = new ArrayList<>(series.keySet());
+    Collections.sort(names);
+    return names;
+  }
+
+  /**
+   * Returns the percentile bands of an account for each sampled month. Months that have not
+   * been sampled by any replica are omitted.
+   *
+   * @param accountName the name of the tracked {@link Account}
+   * @param quantiles the quantiles reported for each month, e.g. 0.05, 0.5, and 0.95
+   */
+  public List<Band> getBands(String accountName, double... quantiles) {
+    QuantileSketch[] sketches = series.get(accountName);
+    if (sketches == null) {
+      throw new IllegalArgumentException(
+          String.format("Account '%s' is not tracked by this fan chart", accountName));
+    }
+    List<Band> bands = new ArrayList<>(months + 1);
+    for (int i = 0; i <= months; i++) {
+      QuantileSketch sketch = sketches[i];
+      synchronized (sketch) {
+        if (sketch.getCount() == 0) {
+          continue;
+        }
+        Money[] values = new Money[quantiles.length];
+        for (int q = 0; q < quantiles.length; q++) {
+          values[q] = Money.dollars(sketch.getQuantile(quantiles[q]));
+        }
+        bands.add(new Band(startDate.plusMonths(i), sketch.getCount(), quantiles, values));
+      }
+    }
+    return bands;
+  }
+
+  private QuantileSketch[] sketches(String accountName) {
+    return series.computeIfAbsent(accountName, name -> {
+      QuantileSketch[] sketches = new QuantileSketch[months + 1];
+      for (int i = 0; i <= months; i++) {
+        sketches[i] = QuantileSketch.create(accuracy);
+      }
+      return sketches;
+    });
+  }
+
+  /**
+   * The balances at a set of quantiles for a single month.
+   */
+  public static final class Band {
+    private final LocalDate date;
+    private final long replicas;
+    private final double[] quantiles;
+    private final Money[] values;
+
+    private Band(LocalDate date, long replicas, double[] quantiles, Money[] values) {
+      this.date = date;
+      this.replicas = replicas;
+      this.quantiles = quantiles;
+      this.values = values;
+    }
+
+    /**
+     * Returns the date the balances were sampled.
+     */
+    public LocalDate getDate() {
+      return date;
+    }
+
+    /**
+     * Returns the number of replicas that contributed a balance to this band.
+     */
+    public long getReplicas() {
+      return replicas;
+    }
+
+    /**
+     * Returns the balance at the i-th requested quantile.
+     */
+    public Money getValue(int i) {
+      return values[i];
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder();
+      builder.append(String.format("%12s|", date));
+      for (int i = 0; i < quantiles.length; i++) {
+        builder.append(String.format(" P%02.0f %12s|", quantiles[i] * 100, values[i]));
+      }
+      return builder.toString();
+    }
+  }
+
+  /**
+   * An {@link Actor} that samples the balance of an account at the start of each month.
+   */
+  private class Sampler extends Actor<Sampler> {
+    private final QuantileSketch[] sketches;
+    private final Account account;
+    private int month = 0;
+
+    Sampler(Simulation sim, QuantileSketch[] sketches, Account account) {
+      super(sim);
+      this.sketches = sketches;
+      this.account = account;
+    }
+
+    @Override
+    public void onRegister(LocalDate date) {
+      onSchedule()
+          .starting(startDate)
+          .runMonthly()
+          .stopAfter(months + 1)
+          .atStartOfDay()
+          .schedule(context -> context.getActor().sample());
+    }
+
+    private void sample() {
+      double balance = Money.ratio(account.getPostedBalance(), ONE_DOLLAR);
+      QuantileSketch sketch = sketches[month++];
+      synchronized (sketch) {
+        sketch.add(balance);
+      }
+    }
+  }
+}
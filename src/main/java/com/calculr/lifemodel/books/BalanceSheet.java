@@ -112,11 +112,7 @@ public final class BalanceSheet extends Actor<BalanceSheet> {
   public AssetAccount createDummyAccount() {
     return new AssetAccount(sim, "Dummy") {
       @Override
-      public void deposit(Transaction transaction) {
-        return;
-      }
-      @Override
-      public void withdraw(Transaction transaction) {
+      protected void post(Transaction transaction, Money amount) {
         return;
       }
     };
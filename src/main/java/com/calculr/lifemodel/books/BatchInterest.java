@@ -0,0 +1,178 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.calculr.lifemodel.engine.Actor;
+import com.calculr.lifemodel.engine.Footprint;
+import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.engine.TaskContext;
+import com.calculr.lifemodel.finance.InterestKernel;
+import com.calculr.lifemodel.finance.Money;
+
+/**
+ * Pays monthly interest on a group of accounts in one task, instead of one {@link Interest}
+ * actor per account.
+ *
+ * <p>The posted balances of the asset accounts and of the liability accounts are gathered into
+ * one array each, the interest of every account is computed by the {@link InterestKernel} of its
+ * kind, and the non-zero amounts are posted as the lines of a single interest
+ * {@link Transaction}, whose line items reach the ledgers shared by the accounts in one
+ * delivery. Each account receives the same interest as with the monthly balance method of
+ * {@link Interest}.
+ */
+public final class BatchInterest extends Actor<BatchInterest> {
+  private final Simulation sim;
+  private final Slice assets = new Slice();
+  private final Slice liabilities = new Slice();
+  private Footprint footprint;
+
+  private BatchInterest(Simulation sim) {
+    super(sim);
+    this.sim = sim;
+  }
+
+  /**
+   * Constructs a new, empty {@link BatchInterest} paying interest one month after it is
+   * registered, and monthly thereafter.
+   */
+  public static BatchInterest create(Simulation sim) {
+    return new BatchInterest(sim);
+  }
+
+  /**
+   * Adds an asset or liability account earning the specified annual rate.
+   */
+  public BatchInterest add(Account account, double annualRate) {
+    if (account instanceof AssetAccount) {
+      assets.add(account, annualRate / 12);
+    } else if (account instanceof LiabilityAccount) {
+      liabilities.add(account, annualRate / 12);
+    } else {
+      throw new IllegalArgumentException(
+          "Account must be an asset or liability for an interest calculation");
+    }
+    footprint = null;
+    return this;
+  }
+
+  /**
+   * Returns the number of accounts in the batch.
+   */
+  public int size() {
+    return assets.size + liabilities.size;
+  }
+
+  /**
+   * Returns the union of the footprints of the accounts, built once after accounts are added.
+   */
+  @Override
+  public Footprint getFootprint() {
+    if (footprint == null) {
+      List<Footprint> footprints = new ArrayList<>(size() + 1);
+      footprints.add(Footprint.of(this));
+      assets.addFootprints(footprints);
+      liabilities.addFootprints(footprints);
+      footprint = Footprint.union(footprints);
+    }
+    return footprint;
+  }
+
+  @Override
+  public void onRegister(LocalDate date) {
+    onSchedule()
+        .starting(date.plusMonths(1))
+        .runMonthly()
+        .atStartOfDay()
+        .schedule(BatchInterest::accrue);
+  }
+
+  private static void accrue(TaskContext<BatchInterest> context) {
+    context.getActor().accrue(context.getDate());
+  }
+
+  private void accrue(LocalDate date) {
+    long[] assetInterest = assets.interest(false);
+    long[] liabilityInterest = liabilities.interest(true);
+    long total = assets.total(assetInterest) + liabilities.total(liabilityInterest);
+    if (total == 0) {
+      return;
+    }
+    Transaction transaction = Transaction.create(sim, date, "interest",
+        Money.fromPrimitive(total));
+    // The ledgers shared by the accounts, such as those of virtual accounts, are updated once.
+    List<Journal> journals = new ArrayList<>(size());
+    try {
+      assets.post(transaction, assetInterest, journals);
+      liabilities.post(transaction, liabilityInterest, journals);
+    } finally {
+      Journal.releaseAll(journals);
+    }
+  }
+
+  /**
+   * The accounts of one kind with their monthly rates, in parallel arrays.
+   */
+  private static final class Slice {
+    private Account[] accounts = new Account[16];
+    private double[] monthlyRates = new double[16];
+    private int size;
+
+    void add(Account account, double monthlyRate) {
+      if (size == accounts.length) {
+        accounts = Arrays.copyOf(accounts, size * 2);
+        monthlyRates = Arrays.copyOf(monthlyRates, size * 2);
+      }
+      accounts[size] = account;
+      monthlyRates[size] = monthlyRate;
+      size++;
+    }
+
+    void addFootprints(List<Footprint> footprints) {
+      for (int i = 0; i < size; i++) {
+        footprints.add(accounts[i].getPostingFootprint());
+      }
+    }
+
+    long[] interest(boolean liability) {
+      long[] balances = new long[size];
+      for (int i = 0; i < size; i++) {
+        balances[i] = accounts[i].getPostedBalance().toPrimitive();
+      }
+      // The interest overwrites the balances, which are no longer needed.
+      if (liability) {
+        InterestKernel.liabilities(balances, monthlyRates, balances, size);
+      } else {
+        InterestKernel.assets(balances, monthlyRates, balances, size);
+      }
+      for (int i = 0; i < size; i++) {
+        if (accounts[i].isClosed()) {
+          balances[i] = 0;
+        }
+      }
+      return balances;
+    }
+
+    long total(long[] interest) {
+      long total = 0;
+      for (int i = 0; i < size; i++) {
+        total += Math.abs(interest[i]);
+      }
+      return total;
+    }
+
+    void post(Transaction transaction, long[] interest, List<Journal> journals) {
+      for (int i = 0; i < size; i++) {
+        if (interest[i] != 0) {
+          Journal journal = accounts[i].getJournal();
+          if (journal.hold()) {
+            journals.add(journal);
+          }
+          accounts[i].post(transaction, Money.fromPrimitive(interest[i]));
+        }
+      }
+    }
+  }
+}
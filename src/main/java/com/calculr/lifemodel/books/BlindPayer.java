@@ -27,6 +27,11 @@ public class BlindPayer extends Payer {
     });
   }
 
+  @Override
+  public AssetAccount getDeterministicAccount() {
+    return bankAccount;
+  }
+
   @Override
   public void onRegister(LocalDate date) {
     // TODO Auto-generated method stub
@@ -4,6 +4,7 @@ import static java.time.temporal.ChronoUnit.DAYS;
 
 import java.time.LocalDate;
 
+import com.calculr.lifemodel.engine.Outcome;
 import com.calculr.lifemodel.engine.Simulation;
 import com.calculr.lifemodel.finance.Bill;
 import com.calculr.lifemodel.finance.FinanceException;
@@ -15,14 +16,19 @@ import com.calculr.lifemodel.finance.Payer;
  * A {@link LiabilityAccount} simulating a credit card.
  */
 public class CreditCardAccount extends LiabilityAccount implements Payee {
+  /** The kind of {@link Outcome} reported when a purchase is declined. */
+  public static final String CREDIT_LIMIT_EXCEEDED = "Credit limit exceeded";
+
   private final Payer payer;
   private final Money creditLimit;
   private final double interestRate;
   private final Money startingBalance;
   private final Money minimumPayment;
   private final double minimumPaymentRate;
+  private final boolean averageDailyBalance;
   
   private Money periodBalance = Money.zero();
+  private Money statementCumulativeBalance = Money.zero();
 
   CreditCardAccount(CreditCardAccountBuilder builder) {
     super(builder.sim, builder.accountName);
@@ -32,6 +38,7 @@ public class CreditCardAccount extends LiabilityAccount implements Payee {
     this.startingBalance = builder.startingBalance;
     this.minimumPayment = builder.minimumPayment;
     this.minimumPaymentRate = builder.minimumPaymentRate;
+    this.averageDailyBalance = builder.averageDailyBalance;
   }
 
   static CreditCardAccountBuilder newBuilder(Simulation sim, String accountName, Payer payer,
@@ -48,6 +55,7 @@ public class CreditCardAccount extends LiabilityAccount implements Payee {
     private Money startingBalance = Money.zero();
     private double minimumPaymentRate = 0.02;
     private Money minimumPayment = Money.dollars(35);
+    private boolean averageDailyBalance = false;
     
     private CreditCardAccountBuilder(Simulation sim, String accountName, Payer payer,
         Money creditLimit, double interestRate) {
@@ -72,6 +80,15 @@ public class CreditCardAccount extends LiabilityAccount implements Payee {
       this.startingBalance = balance;
       return this;
     }
+
+    /**
+     * Charges interest on the average daily balance of the statement cycle at a daily rate,
+     * instead of the annual rate on the balance at the statement date.
+     */
+    public CreditCardAccountBuilder useAverageDailyBalance() {
+      this.averageDailyBalance = true;
+      return this;
+    }
     
     public CreditCardAccount build() {
       return new CreditCardAccount(this);
@@ -79,17 +96,29 @@ public class CreditCardAccount extends LiabilityAccount implements Payee {
   }
 
   @Override 
-  public void payment(Transaction transaction) {
-    super.payment(transaction);
-    periodBalance = Money.min(Money.zero(), periodBalance.add(transaction.getAmount()));    
+  protected void post(Transaction transaction, Money amount) {
+    super.post(transaction, amount);
+    if (amount.sign() > 0) {
+      // Payments, including those posted directly from another account, reduce the balance
+      // owed for the period.
+      periodBalance = Money.min(Money.zero(), periodBalance.add(amount));
+    }
   }
   
+  /**
+   * Applies a purchase to the credit card. If the purchase exceeds the credit limit, it is
+   * declined and reported as a {@link #CREDIT_LIMIT_EXCEEDED} outcome to the simulation.
+   */
   @Override
   public void purchase(Transaction transaction) {
     if (creditLimit.add(getBalance().add(transaction.getAmount().negate())).sign() >= 0) {
       super.purchase(transaction);
     } else {
-      throw new CreditLimitExceeded("On credit card '%s', credit limit of %s exceeded with purchase of %s", getAccountName(), creditLimit, transaction);
+      String format = "On credit card '%s', credit limit of %s exceeded with purchase of %s";
+      sim.report(
+          Outcome.of(transaction.getDate(), CREDIT_LIMIT_EXCEEDED, getAccountName(), format,
+              getAccountName(), creditLimit, transaction),
+          () -> new CreditLimitExceeded(format, getAccountName(), creditLimit, transaction));
     }
   }
   
@@ -97,16 +126,21 @@ public class CreditCardAccount extends LiabilityAccount implements Payee {
   public void onRegister(LocalDate date) {
     super.onRegister(date);
     if (startingBalance.sign() != 0) {
-      Transaction transaction = Transaction.create(date, "Initial balance",
+      Transaction transaction = Transaction.create(sim, date, "Initial balance",
           startingBalance.negate());
       scheduleImmediately(context -> purchase(transaction));
     }
     
     LocalDate closingDate = date.plusMonths(1).minusDays(1);
+    statementCumulativeBalance = getLedger().getCumulativeBalance(date);
     onSchedule().startingIn((int) DAYS.between(date, closingDate))
         .runMonthly()
         .schedule(context -> {
            periodBalance = getPostedBalance();
+           // The sum of the daily balances of the cycle, used for average daily balance.
+           Money cumulativeBalance = getLedger().getCumulativeBalance(context.getDate());
+           Money cycleBalance = cumulativeBalance.sub(statementCumulativeBalance);
+           statementCumulativeBalance = cumulativeBalance;
            if (periodBalance.sign() < 0) {
              // If we owe money on the credit card
              LocalDate d = context.getDate();
@@ -115,9 +149,13 @@ public class CreditCardAccount extends LiabilityAccount implements Payee {
              schedule(d.plusDays(gracePeriod + 1), innerContext -> {
                if (periodBalance.sign() < 0) {
                  // If there is still a balance, we can add interest to the remaining balance.
-                Transaction transaction = new Transaction(innerContext.getDate(),
-                    "Interest charged", periodBalance.scale(interestRate).negate());
-                purchase(transaction);
+                 Money interest = averageDailyBalance
+                     ? cycleBalance.scale(interestRate / 365).negate()
+                     : periodBalance.scale(interestRate).negate();
+                 if (interest.sign() > 0) {
+                   purchase(new Transaction(sim, innerContext.getDate(), "Interest charged",
+                       interest));
+                 }
                }
              });
            }         
@@ -145,7 +183,12 @@ public class CreditCardAccount extends LiabilityAccount implements Payee {
 
   @Override
   public Money getTotalLiability() {
-    return getPostedBalance();
+    return getPostedBalance().negate();
+  }
+
+  @Override
+  public double getInterestRate() {
+    return interestRate;
   }
 
   @Override
@@ -157,7 +200,7 @@ public class CreditCardAccount extends LiabilityAccount implements Payee {
     private static final long serialVersionUID = 1L;
 
     CreditLimitExceeded(String msg, Object... args) {
-      super(msg, args);
+      super(true, msg, args);
     }
   }
 }
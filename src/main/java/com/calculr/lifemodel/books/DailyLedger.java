@@ -6,10 +6,23 @@ import java.util.Collection;
 import java.util.function.Consumer;
 
 import com.calculr.lifemodel.engine.Actor;
+import com.calculr.lifemodel.engine.Footprint;
 import com.calculr.lifemodel.engine.Simulation;
 import com.calculr.lifemodel.engine.TaskContext;
 import com.calculr.lifemodel.finance.Money;
 
+/**
+ * A ledger of the daily balance of an {@link Account}.
+ *
+ * <p>Line items are posted into the balance at the end of each day that receives them. Days
+ * without any line items are not visited, so a quiet account costs nothing until its next
+ * transaction, and the simulation can skip directly to the next date with scheduled work.
+ * The balance of each posted day is kept in a {@link LedgerHistory}, whose resolution is set
+ * by a {@link HistoryPolicy}.
+ *
+ * <p>The ledger also keeps a running sum of the end of day balances, so that the average
+ * daily balance over any period can be computed from the sums at its start and end.
+ */
 public class DailyLedger extends Actor<DailyLedger> implements Consumer<LineItem> {
 
   public static DailyLedger create(Simulation simulation) {
@@ -18,21 +31,23 @@ public class DailyLedger extends Actor<DailyLedger> implements Consumer<LineItem
   
   private Money balance = Money.zero();
   private final Collection<LineItem> items;
-  private final Collection<LedgerEntry> entries;  
+  private final LedgerHistory history;
+  private boolean accrualScheduled = false;
+  // The sum of the end of day balances of every day before the last posted day.
+  private long balanceDaysBefore = 0;
+  private long lastPostedDay = Long.MIN_VALUE;
   
   private DailyLedger(Simulation simulation) {
     super(simulation);
     items = new ArrayList<>();
-    entries = new ArrayList<>();
+    history = new LedgerHistory();
+    // Accruals only touch the ledger itself, so ledgers close their days in parallel.
+    setFootprint(Footprint.of(this));
   }
   
   @Override
   public void onRegister(LocalDate date) {
-    onSchedule()
-        .startingToday()
-        .runDaily()
-        .atEndOfDay()
-        .schedule(DailyLedger::accrual);
+    // Accruals are scheduled as line items arrive.
   }
   
   /**
@@ -44,6 +59,21 @@ public class DailyLedger extends Actor<DailyLedger> implements Consumer<LineItem
     return this;
   }
   
+  /**
+   * Sets the {@link HistoryPolicy} of the balance history of this ledger.
+   */
+  public DailyLedger setHistoryPolicy(HistoryPolicy policy) {
+    history.setPolicy(policy);
+    return this;
+  }
+
+  /**
+   * Returns the history of the posted balances of this ledger.
+   */
+  public LedgerHistory getHistory() {
+    return history;
+  }
+
   /**
    * Returns the latest computed daily balance.
    */
@@ -51,6 +81,27 @@ public class DailyLedger extends Actor<DailyLedger> implements Consumer<LineItem
     return balance;
   }
   
+  /**
+   * Returns the sum of the end of day balances of every day before the specified date. The
+   * average daily balance over a period is the difference of the sums at its end and start
+   * divided by its number of days. The sum is computed in constant time from the last posted
+   * day, so earlier dates are not available.
+   *
+   * @throws IllegalArgumentException if the date is before the last posted day
+   */
+  public Money getCumulativeBalance(LocalDate date) {
+    long day = date.toEpochDay();
+    if (lastPostedDay == Long.MIN_VALUE) {
+      return Money.zero();
+    }
+    if (day < lastPostedDay) {
+      throw new IllegalArgumentException(String.format(
+          "Cumulative balance on %s is before the last posted day %s", date,
+          LocalDate.ofEpochDay(lastPostedDay)));
+    }
+    return Money.fromPrimitive(balanceDaysBefore + (day - lastPostedDay) * balance.toPrimitive());
+  }
+
   /**
    * Returns the balance after including all unposted transactions (i.e. those from the same day).
    */
@@ -62,38 +113,48 @@ public class DailyLedger extends Actor<DailyLedger> implements Consumer<LineItem
     return unposted;
   }
   
-  static class LedgerEntry {
-    private final LocalDate date;
-    private final Money change;
-    private final Money balance;
-    
-    LedgerEntry(LocalDate date, Money change, Money balance) {
-      this.date = date;
-      this.change = change;
-      this.balance = balance;
-    }
-    
-    @Override
-    public String toString() {
-      return String.format("%12s|%12s|%12s\n", date, change, balance); 
-    }
-  }
-  
   private static void accrual(TaskContext<DailyLedger> context) {
-    LocalDate date = context.getDate();
     DailyLedger ledger = context.getActor();
+    ledger.accrualScheduled = false;
+    ledger.post(context.getDate());
+  }
+  
+  /**
+   * Posts all unposted items into the balance as of the specified date. Only dates with
+   * line items are recorded in the history.
+   */
+  private void post(LocalDate date) {
     Money runningTotal = Money.zero();
-    for (LineItem item : ledger.items) {
+    for (LineItem item : items) {
       runningTotal = runningTotal.add(item.getAmount());
     }
-    ledger.balance = ledger.balance.add(runningTotal);
-    ledger.entries.add(new LedgerEntry(date, runningTotal, ledger.balance));
-    ledger.items.clear();    
+    long day = date.toEpochDay();
+    if (lastPostedDay != Long.MIN_VALUE) {
+      // Every day since the last posted day closed with the previous balance.
+      balanceDaysBefore += (day - lastPostedDay) * balance.toPrimitive();
+    }
+    lastPostedDay = day;
+    balance = balance.add(runningTotal);
+    // Items that arrive after the day was posted are combined into the day's row.
+    history.record(date, runningTotal.toPrimitive(), balance.toPrimitive());
+    items.clear();    
+  }
+  
+  @Override
+  protected void onRetire(LocalDate date) {
+    // Post the remaining items since the daily accrual will no longer run.
+    if (!items.isEmpty()) {
+      post(date);
+    }
   }
 
   @Override
   public void accept(LineItem t) {
     items.add(t); 
+    if (!accrualScheduled) {
+      accrualScheduled = true;
+      scheduleEndOfCurrentDay(DailyLedger::accrual);
+    }
   }
   
   @Override
@@ -101,8 +162,9 @@ public class DailyLedger extends Actor<DailyLedger> implements Consumer<LineItem
     StringBuilder builder = new StringBuilder();
     builder.append(String.format("%12s|%12s|%12s\n", "date", "change", "balance"));
     builder.append("------------+------------+------------\n");
-    for (LedgerEntry entry : entries) {
-      builder.append(entry);
+    for (int i = 0; i < history.size(); i++) {
+      builder.append(String.format("%12s|%12s|%12s\n", history.getDate(i),
+          history.getNetChange(i), history.getClose(i)));
     }
     return builder.toString();
   }
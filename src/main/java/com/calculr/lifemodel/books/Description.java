@@ -0,0 +1,45 @@
+package com.calculr.lifemodel.books;
+
+/**
+ * An interned description of a {@link Transaction}, identified by a small integer code within
+ * its {@link DescriptionDictionary}.
+ *
+ * <p>A description is either fixed text or a template with a single argument, such as
+ * {@code "%s Payment"} and the name of a payee. Templates are only formatted when the text is
+ * first requested, so transactions that are never printed never build their description.
+ */
+public final class Description {
+  private final int code;
+  private final String template;
+  private final String argument;
+  private String text;
+
+  Description(int code, String template, String argument) {
+    this.code = code;
+    this.template = template;
+    this.argument = argument;
+    this.text = argument == null ? template : null;
+  }
+
+  /**
+   * Returns the code of this description, unique within its {@link DescriptionDictionary}.
+   */
+  public int getCode() {
+    return code;
+  }
+
+  /**
+   * Returns the text of this description, formatting the template on first use.
+   */
+  public String getText() {
+    if (text == null) {
+      text = String.format(template, argument);
+    }
+    return text;
+  }
+
+  @Override
+  public String toString() {
+    return getText();
+  }
+}
@@ -0,0 +1,112 @@
+package com.calculr.lifemodel.books;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.calculr.lifemodel.engine.Outbox;
+import com.calculr.lifemodel.engine.Simulation;
+
+/**
+ * The interned {@link Description} objects of a {@link Simulation}.
+ *
+ * <p>Each distinct description is created once and shared by every {@link Transaction} that
+ * uses it. Like record identifiers, codes are assigned in the order descriptions are first
+ * used, so they are deterministic for a given simulation unless tasks run in parallel. The
+ * dictionary is only locked while a parallel lane is running.
+ */
+public final class DescriptionDictionary {
+  private final List<Description> descriptions = new ArrayList<>();
+  private final Map<String, Description> fixed = new HashMap<>();
+  private final Map<String, Map<String, Description>> templated = new HashMap<>();
+
+  private DescriptionDictionary() {
+  }
+
+  /**
+   * Returns the {@link DescriptionDictionary} of the {@link Simulation}, creating it on first
+   * use.
+   */
+  public static DescriptionDictionary of(Simulation sim) {
+    return sim.getComponent(DescriptionDictionary.class, s -> new DescriptionDictionary());
+  }
+
+  /**
+   * Returns the {@link Description} of fixed text.
+   */
+  public Description intern(String text) {
+    if (Outbox.current() != null) {
+      synchronized (this) {
+        return internFixed(text);
+      }
+    }
+    return internFixed(text);
+  }
+
+  /**
+   * Returns the {@link Description} formatted from a template with a single {@code %s}
+   * argument. The text is not formatted until it is requested.
+   */
+  public Description intern(String template, String argument) {
+    if (Outbox.current() != null) {
+      synchronized (this) {
+        return internTemplated(template, argument);
+      }
+    }
+    return internTemplated(template, argument);
+  }
+
+  /**
+   * Returns the {@link Description} with the specified code.
+   */
+  public Description get(int code) {
+    if (Outbox.current() != null) {
+      synchronized (this) {
+        return descriptions.get(code);
+      }
+    }
+    return descriptions.get(code);
+  }
+
+  /**
+   * Returns the number of distinct descriptions.
+   */
+  public int size() {
+    if (Outbox.current() != null) {
+      synchronized (this) {
+        return descriptions.size();
+      }
+    }
+    return descriptions.size();
+  }
+
+  private Description internFixed(String text) {
+    Description description = fixed.get(text);
+    if (description == null) {
+      description = add(text, null);
+      fixed.put(text, description);
+    }
+    return description;
+  }
+
+  private Description internTemplated(String template, String argument) {
+    Map<String, Description> byArgument = templated.get(template);
+    if (byArgument == null) {
+      byArgument = new HashMap<>();
+      templated.put(template, byArgument);
+    }
+    Description description = byArgument.get(argument);
+    if (description == null) {
+      description = add(template, argument);
+      byArgument.put(argument, description);
+    }
+    return description;
+  }
+
+  private Description add(String template, String argument) {
+    Description description = new Description(descriptions.size(), template, argument);
+    descriptions.add(description);
+    return description;
+  }
+}
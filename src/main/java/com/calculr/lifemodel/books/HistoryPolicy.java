@@ -0,0 +1,73 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+
+/**
+ * Determines the resolution of the balance history kept by a {@link DailyLedger}.
+ *
+ * <p>Each day with a change is kept for a window of recent days. Older days are folded into
+ * weekly or monthly periods that keep the opening, closing, minimum, and maximum balance and
+ * the net change over the period, so the size of the history grows with the number of
+ * periods rather than the number of days.
+ */
+public final class HistoryPolicy {
+  private static final HistoryPolicy KEEP_ALL = new HistoryPolicy(-1, null);
+
+  /** The period that days older than the daily window are folded into. */
+  public enum Resolution {
+    WEEKLY,
+    MONTHLY
+  }
+
+  private final int dailyDays;
+  private final Resolution resolution;
+
+  private HistoryPolicy(int dailyDays, Resolution resolution) {
+    this.dailyDays = dailyDays;
+    this.resolution = resolution;
+  }
+
+  /**
+   * Returns a {@link HistoryPolicy} that keeps every day with a change.
+   */
+  public static HistoryPolicy keepAll() {
+    return KEEP_ALL;
+  }
+
+  /**
+   * Returns a {@link HistoryPolicy} that keeps each day with a change for a number of days,
+   * folding older days into periods of the specified resolution.
+   */
+  public static HistoryPolicy keepDaily(int dailyDays, Resolution resolution) {
+    if (dailyDays < 0) {
+      throw new IllegalArgumentException("The number of daily days can not be negative");
+    }
+    return new HistoryPolicy(dailyDays, resolution);
+  }
+
+  /**
+   * Returns {@code true} if every day is kept.
+   */
+  public boolean keepsAll() {
+    return resolution == null;
+  }
+
+  /**
+   * Returns the earliest epoch day kept in the daily window as of the specified epoch day.
+   */
+  long getCutoff(long epochDay) {
+    return epochDay - dailyDays;
+  }
+
+  /**
+   * Returns the epoch day that begins the period containing the specified epoch day. Weeks
+   * begin on Monday.
+   */
+  long getPeriodStart(long epochDay) {
+    if (resolution == Resolution.WEEKLY) {
+      // The epoch began on a Thursday, three days after a Monday.
+      return epochDay - Math.floorMod(epochDay + 3, 7);
+    }
+    return LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+  }
+}
@@ -7,14 +7,32 @@ import com.calculr.lifemodel.engine.Simulation;
  * An {@link ActorFactory} that deposits or withdraws interest to an {@link Account}.
  */
 public class Interest implements ActorFactory<Account, InterestActor> {
+
+  /**
+   * The balance that interest is computed on each month.
+   */
+  public enum Method {
+    /** A twelfth of the annual rate applied to the posted balance on the day of payment. */
+    MONTHLY_BALANCE,
+
+    /** A daily rate of the annual rate applied to the balance of each day of the month. */
+    AVERAGE_DAILY_BALANCE
+  }
+
   private final double rate;
+  private final Method method;
   
   public Interest(double rate) {
+    this(rate, Method.MONTHLY_BALANCE);
+  }
+
+  public Interest(double rate, Method method) {
     this.rate = rate;
+    this.method = method;
   }
   
   @Override
   public Actor<InterestActor> build(Simulation sim, Account entity) {
-    return new InterestActor(sim, entity, rate);
+    return new InterestActor(sim, entity, rate, method);
   }
 }
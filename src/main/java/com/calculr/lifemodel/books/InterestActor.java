@@ -2,10 +2,12 @@ package com.calculr.lifemodel.books;
 
 import java.time.LocalDate;
 
+import com.calculr.lifemodel.books.Interest.Method;
 import com.calculr.lifemodel.engine.Actor;
 import com.calculr.lifemodel.engine.Task;
 import com.calculr.lifemodel.engine.Simulation;
 import com.calculr.lifemodel.engine.TaskContext;
+import com.calculr.lifemodel.finance.Money;
 
 /**
  * An {@link Actor} that deposits interest into an {@link AssetAccount}.
@@ -13,17 +15,74 @@ import com.calculr.lifemodel.engine.TaskContext;
 public class InterestActor extends Actor<InterestActor> {
   private final Account account;
   private final double interestRate;
+  private final Method method;
   
-  InterestActor(Simulation simulation, Account account, double interestRate) {
+  InterestActor(Simulation simulation, Account account, double interestRate, Method method) {
     super(simulation);
     this.account = account;
     this.interestRate = interestRate;
+    this.method = method;
+    setFootprint(account.getPostingFootprint());
   }
 
   @Override
   public void onRegister(LocalDate date) {
-    onSchedule().starting(date.plusMonths(1)).runMonthly().atStartOfDay()
-        .schedule(new InterestTask(interestRate / 12));
+    Task<InterestActor> task = method == Method.AVERAGE_DAILY_BALANCE
+        ? new AverageDailyBalanceTask(interestRate / 365,
+            account.getLedger().getCumulativeBalance(date))
+        : new InterestTask(interestRate / 12);
+    onSchedule().starting(date.plusMonths(1)).runMonthly().atStartOfDay().schedule(task);
+  }
+
+  /**
+   * Pays interest on the sum of the daily balances since the previous payment, read from the
+   * running sum of the {@link DailyLedger} instead of visiting each day.
+   */
+  private static class AverageDailyBalanceTask implements Task<InterestActor> {
+    private final double dailyRate;
+    private Money periodStart;
+
+    AverageDailyBalanceTask(double dailyRate, Money periodStart) {
+      this.dailyRate = dailyRate;
+      this.periodStart = periodStart;
+    }
+
+    @Override
+    public void run(TaskContext<InterestActor> context) {
+      Simulation sim = context.getSimulation();
+      LocalDate date = context.getDate();
+      Account account = context.getActor().account;
+      Money periodEnd = account.getLedger().getCumulativeBalance(date);
+      Money interest = periodEnd.sub(periodStart).scale(dailyRate);
+      periodStart = periodEnd;
+      if (interest.sign() == 0) {
+        return;
+      }
+      Transaction transaction = Transaction.create(sim, date, "interest",
+          interest.sign() > 0 ? interest : interest.negate());
+      if (account instanceof AssetAccount) {
+        AssetAccount asset = (AssetAccount) account;
+        if (interest.sign() > 0) {
+          asset.deposit(transaction);
+        } else {
+          asset.withdraw(transaction);
+        }
+      } else if (account instanceof LiabilityAccount) {
+        // As with the monthly balance method, interest is charged on what is owed at a
+        // positive rate, and credited on an overpaid balance at a negative rate.
+        LiabilityAccount liability = (LiabilityAccount) account;
+        if (interest.sign() < 0) {
+          if (dailyRate > 0) {
+            liability.purchase(transaction);
+          } else {
+            liability.payment(transaction);
+          }
+        }
+      } else {
+        throw new IllegalArgumentException(
+            "Account must be an asset or liability for an interest calculation");
+      }
+    }
   }
   
   private static class InterestTask implements Task<InterestActor> {
@@ -35,16 +94,17 @@ public class InterestActor extends Actor<InterestActor> {
     
     @Override
     public void run(TaskContext<InterestActor> context) {
+      Simulation sim = context.getSimulation();
       LocalDate date = context.getDate();
       Account account = context.getActor().account;
       if (account instanceof AssetAccount) {
         AssetAccount asset = (AssetAccount) account;
         if (monthlyRate > 0) {
-          Transaction transaction = Transaction.create(date, "interest",
+          Transaction transaction = Transaction.create(sim, date, "interest",
               account.getPostedBalance().scale(monthlyRate));
           asset.deposit(transaction);
         } else {
-          Transaction transaction = Transaction.create(date, "interest",
+          Transaction transaction = Transaction.create(sim, date, "interest",
               account.getPostedBalance().scale(-monthlyRate));
           asset.withdraw(transaction);
         }
@@ -52,13 +112,13 @@ public class InterestActor extends Actor<InterestActor> {
         LiabilityAccount liability = (LiabilityAccount) account;
         if (monthlyRate > 0) {
           if (account.getPostedBalance().sign() < 0) {
-            Transaction transaction = Transaction.create(date, "interest",
+            Transaction transaction = Transaction.create(sim, date, "interest",
                 account.getPostedBalance().scale(monthlyRate).negate());
             liability.purchase(transaction);
           }
         } else {
           if (account.getPostedBalance().sign() > 0) {
-            Transaction transaction = Transaction.create(date, "interest",
+            Transaction transaction = Transaction.create(sim, date, "interest",
                 account.getPostedBalance().scale(-monthlyRate));
             liability.payment(transaction);
           }
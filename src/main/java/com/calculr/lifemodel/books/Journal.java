@@ -1,23 +1,47 @@
 package com.calculr.lifemodel.books;
 
+import java.time.LocalDate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Consumer;
 
+import com.calculr.lifemodel.engine.Outbox;
 import com.calculr.lifemodel.finance.Money;
 
 /**
  * A Journal is a time order entry of {@link Transaction Transactions}.
+ *
+ * <p>By default every line item is kept. A {@link RetentionPolicy} can limit the detail to
+ * recent line items, rolling older ones into summaries as new items are added, and folding the
+ * oldest summaries into a total carried forward.
  */
 public class Journal {
 
-  private final Collection<LineItem> items;
+  private final List<LineItem> items;
   private final Collection<Consumer<LineItem>> consumers;
+  private final Map<Summary, Summary> carriedForward;
+  private final ArrayDeque<Summary> summaries;
+  private final Map<Summary, Summary> openSummaries;
+  private int summaryPeriods = 0;
+  private RetentionPolicy retentionPolicy = RetentionPolicy.keepAll();
+  private LocalDate retainedThrough = LocalDate.MIN;
+  private LocalDate openPeriod = LocalDate.MIN;
+  // The line items added while a posting holds their delivery, or null.
+  private List<LineItem> held;
   
   Journal() {    
     items = new ArrayList<>();
     consumers = new HashSet<>();
+    carriedForward = new LinkedHashMap<>();
+    summaries = new ArrayDeque<>();
+    openSummaries = new HashMap<>();
   }
   
   /**
@@ -31,7 +55,7 @@ public class Journal {
    * Deposits a {@link Transaction} in this {@link Journal}.
    */
   public Journal deposit(Transaction transaction) {
-    add(new DepositLineItem(transaction));
+    add(new DepositLineItem(transaction, transaction.getAmount()));
     return this;
   }
 
@@ -39,10 +63,63 @@ public class Journal {
    * Withdraws a {@link Transaction} from this {@link Journal}.
    */
   public Journal withdraw(Transaction transaction) {
-    add(new WithdrawalLineItem(transaction));
+    add(new WithdrawalLineItem(transaction, transaction.getAmount().negate()));
     return this;
   }
 
+  /**
+   * Adds a signed amount of a {@link Transaction} to this {@link Journal}, as a deposit if
+   * the amount is positive and as a withdrawal otherwise.
+   */
+  Journal post(Transaction transaction, Money amount) {
+    if (amount.sign() > 0) {
+      add(new DepositLineItem(transaction, amount));
+    } else {
+      add(new WithdrawalLineItem(transaction, amount));
+    }
+    return this;
+  }
+
+  /**
+   * Sets the {@link RetentionPolicy} of the line items of this {@link Journal}. The policy is
+   * applied as new items are added.
+   */
+  public Journal setRetentionPolicy(RetentionPolicy retentionPolicy) {
+    this.retentionPolicy = retentionPolicy;
+    return this;
+  }
+
+  /**
+   * Returns the total of all line items, including those rolled into summaries.
+   */
+  public Money getBalance() {
+    Money balance = Money.zero();
+    for (Summary summary : carriedForward.values()) {
+      balance = balance.add(summary.amount);
+    }
+    for (Summary summary : summaries) {
+      balance = balance.add(summary.amount);
+    }
+    for (LineItem item : items) {
+      balance = balance.add(item.getAmount());
+    }
+    return balance;
+  }
+
+  /**
+   * Returns the number of line items kept in detail.
+   */
+  int getDetailCount() {
+    return items.size();
+  }
+
+  /**
+   * Returns the number of summaries, including those carried forward.
+   */
+  int getSummaryCount() {
+    return carriedForward.size() + summaries.size();
+  }
+
   /**
    * Adds a new consumer of {@line LineItem} objects that will accept each new added transaction.
    */
@@ -57,21 +134,191 @@ public class Journal {
     consumers.remove(consumer);
   }
   
+  /**
+   * Holds the delivery of new line items to the consumers until {@link #release()}, so that a
+   * {@link Posting} can deliver the items of all of its legs together. Returns {@code false} if
+   * the journal is already held.
+   */
+  boolean hold() {
+    if (held != null) {
+      return false;
+    }
+    held = new ArrayList<>(1);
+    return true;
+  }
+
+  /**
+   * Stops holding the delivery of new line items, returning those added since
+   * {@link #hold()}.
+   */
+  List<LineItem> release() {
+    List<LineItem> released = held;
+    held = null;
+    return released;
+  }
+
+  Collection<Consumer<LineItem>> getConsumers() {
+    return consumers;
+  }
+
+  /**
+   * Releases the held journals and delivers their items, so that a consumer shared by several
+   * of them receives all of its items in one delivery.
+   */
+  static void releaseAll(List<Journal> journals) {
+    Map<Consumer<LineItem>, List<LineItem>> deliveries = new LinkedHashMap<>();
+    for (Journal journal : journals) {
+      List<LineItem> items = journal.release();
+      if (!items.isEmpty()) {
+        for (Consumer<LineItem> consumer : journal.getConsumers()) {
+          deliveries.computeIfAbsent(consumer, c -> new ArrayList<>(2)).addAll(items);
+        }
+      }
+    }
+    Outbox outbox = Outbox.current();
+    for (Map.Entry<Consumer<LineItem>, List<LineItem>> delivery : deliveries.entrySet()) {
+      deliver(delivery.getKey(), delivery.getValue(), outbox);
+    }
+  }
+
+  /**
+   * Delivers line items to a consumer. Shared consumers, such as the ledgers of virtual
+   * accounts, receive the items together once the parallel lane has finished.
+   */
+  static void deliver(Consumer<LineItem> consumer, List<LineItem> items, Outbox outbox) {
+    if (outbox != null && !outbox.owns(consumer)) {
+      outbox.defer(() -> items.forEach(consumer));
+    } else {
+      items.forEach(consumer);
+    }
+  }
+
   private void add(LineItem item) {
     items.add(item);
-    for (Consumer<LineItem> consumer : consumers) {
-      consumer.accept(item);
+    if (held != null) {
+      held.add(item);
+    } else {
+      Outbox outbox = Outbox.current();
+      for (Consumer<LineItem> consumer : consumers) {
+        if (outbox != null && !outbox.owns(consumer)) {
+          // Shared consumers receive the item once the parallel lane has finished.
+          outbox.defer(() -> consumer.accept(item));
+        } else {
+          consumer.accept(item);
+        }
+      }
+    }
+    LocalDate date = item.getTransaction().getDate();
+    if (!retentionPolicy.keepsAll() && date.isAfter(retainedThrough)) {
+      // Retention is applied at most once per day, when the first item of the day arrives.
+      retainedThrough = date;
+      rollUp(retentionPolicy.getCutoff(date));
+    }
+  }
+
+  /**
+   * Rolls all leading line items dated before the cutoff into summaries.
+   */
+  private void rollUp(LocalDate cutoff) {
+    int count = 0;
+    while (count < items.size() && items.get(count).getTransaction().getDate().isBefore(cutoff)) {
+      LineItem item = items.get(count++);
+      Transaction transaction = item.getTransaction();
+      LocalDate period = retentionPolicy.getPeriod(transaction.getDate());
+      if (!period.equals(openPeriod)) {
+        openPeriod = period;
+        openSummaries.clear();
+        summaryPeriods++;
+        if (summaryPeriods > retentionPolicy.getSummaryPeriods()) {
+          carryForwardOldestPeriod();
+        }
+      }
+      Summary key = new Summary(period, transaction.getInternedDescription(),
+          item instanceof DepositLineItem);
+      Summary summary = openSummaries.get(key);
+      if (summary == null) {
+        summary = key;
+        openSummaries.put(key, summary);
+        summaries.add(summary);
+      }
+      summary.count++;
+      summary.amount = summary.amount.add(item.getAmount());
+    }
+    if (count > 0) {
+      items.subList(0, count).clear();
+    }
+  }
+
+  /**
+   * Folds the summaries of the oldest period into the totals carried forward.
+   */
+  private void carryForwardOldestPeriod() {
+    LocalDate oldest = summaries.getFirst().period;
+    while (!summaries.isEmpty() && summaries.getFirst().period.equals(oldest)) {
+      Summary summary = summaries.removeFirst();
+      Summary carried = carriedForward.computeIfAbsent(
+          new Summary(LocalDate.MIN, summary.description, summary.deposit), key -> key);
+      carried.count += summary.count;
+      carried.amount = carried.amount.add(summary.amount);
+    }
+    summaryPeriods--;
+  }
+
+  /**
+   * The total of the line items with the same description and direction within a period, or
+   * before every period kept when the period is {@link LocalDate#MIN}.
+   */
+  private class Summary {
+    private final LocalDate period;
+    private final Description description;
+    private final boolean deposit;
+    private int count = 0;
+    private Money amount = Money.zero();
+
+    Summary(LocalDate period, Description description, boolean deposit) {
+      this.period = period;
+      this.description = description;
+      this.deposit = deposit;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(period, description.getCode(), deposit);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Summary)) {
+        return false;
+      }
+      Summary other = (Summary) obj;
+      return period.equals(other.period) && description == other.description
+          && deposit == other.deposit;
+    }
+
+    @Override
+    public String toString() {
+      String id = count + "x";
+      String label = period.equals(LocalDate.MIN)
+          ? "earlier" : retentionPolicy.getPeriodLabel(period);
+      if (deposit) {
+        return String.format("%6s|%12s|%30s|%12s|\n", id, label, description, amount);
+      }
+      return String.format("%6s|%12s|%30s|%12s|%12s\n", id, label, description, "", amount);
     }
   }
 
   private static class DepositLineItem extends LineItem {
-    private DepositLineItem(Transaction transaction) {
+    private final Money amount;
+
+    private DepositLineItem(Transaction transaction, Money amount) {
       super(transaction);
+      this.amount = amount;
     }
 
     @Override
     public Money getAmount() {
-      return getTransaction().getAmount();
+      return amount;
     }
     
     @Override
@@ -82,13 +329,16 @@ public class Journal {
   }
 
   private static class WithdrawalLineItem extends LineItem {
-    private WithdrawalLineItem(Transaction transaction) {
+    private final Money amount;
+
+    private WithdrawalLineItem(Transaction transaction, Money amount) {
       super(transaction);
+      this.amount = amount;
     }
 
     @Override
     public Money getAmount() {
-      return getTransaction().getAmount().negate();
+      return amount;
     }
     
     @Override
@@ -105,6 +355,12 @@ public class Journal {
         "deposits", "withdrawals"));
     builder
         .append("------+------------+------------------------------+------------+------------\n");
+    for (Summary summary : carriedForward.values()) {
+      builder.append(summary);
+    }
+    for (Summary summary : summaries) {
+      builder.append(summary);
+    }
     for (LineItem item : items) {
       builder.append(item);
     }
@@ -0,0 +1,184 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.calculr.lifemodel.finance.Money;
+
+/**
+ * The balance history of a {@link DailyLedger}, packed into primitive arrays.
+ *
+ * <p>The history is a sequence of rows in date order. Periods folded by the
+ * {@link HistoryPolicy} come first, followed by each recent day with a change. Every row
+ * reports the opening, closing, minimum, and maximum balance and the net change over its
+ * period; the balance is constant between rows.
+ */
+public final class LedgerHistory {
+  // Fields of a folded period, packed in a single array.
+  private static final int START = 0;
+  private static final int OPEN = 1;
+  private static final int CLOSE = 2;
+  private static final int MIN = 3;
+  private static final int MAX = 4;
+  private static final int NET = 5;
+  private static final int PERIOD_FIELDS = 6;
+
+  // Fields of a day in the daily window, packed in a single array.
+  private static final int DAY = 0;
+  private static final int CHANGE = 1;
+  private static final int BALANCE = 2;
+  private static final int DAY_FIELDS = 3;
+
+  private HistoryPolicy policy = HistoryPolicy.keepAll();
+  private long[] periods = new long[PERIOD_FIELDS * 4];
+  private int periodCount = 0;
+  private long[] days = new long[DAY_FIELDS * 16];
+  private int firstDay = 0;
+  private int endDay = 0;
+
+  LedgerHistory() {
+  }
+
+  void setPolicy(HistoryPolicy policy) {
+    this.policy = policy;
+  }
+
+  /**
+   * Records the change and closing balance of a date. Changes on the latest recorded date are
+   * combined into its row.
+   */
+  void record(LocalDate date, long change, long balance) {
+    long epochDay = date.toEpochDay();
+    if (endDay > firstDay && days[(endDay - 1) * DAY_FIELDS + DAY] == epochDay) {
+      int last = (endDay - 1) * DAY_FIELDS;
+      days[last + CHANGE] += change;
+      days[last + BALANCE] = balance;
+    } else {
+      appendDay(epochDay, change, balance);
+    }
+    if (!policy.keepsAll()) {
+      long cutoff = policy.getCutoff(epochDay);
+      while (firstDay < endDay && days[firstDay * DAY_FIELDS + DAY] < cutoff) {
+        int i = firstDay++ * DAY_FIELDS;
+        fold(days[i + DAY], days[i + CHANGE], days[i + BALANCE]);
+      }
+    }
+  }
+
+  private void appendDay(long epochDay, long change, long balance) {
+    if (endDay * DAY_FIELDS == days.length) {
+      int count = endDay - firstDay;
+      if (firstDay > count) {
+        // Reuse the space of the days that have been folded.
+        System.arraycopy(days, firstDay * DAY_FIELDS, days, 0, count * DAY_FIELDS);
+      } else {
+        long[] larger = new long[days.length * 2];
+        System.arraycopy(days, firstDay * DAY_FIELDS, larger, 0, count * DAY_FIELDS);
+        days = larger;
+      }
+      firstDay = 0;
+      endDay = count;
+    }
+    int i = endDay++ * DAY_FIELDS;
+    days[i + DAY] = epochDay;
+    days[i + CHANGE] = change;
+    days[i + BALANCE] = balance;
+  }
+
+  private void fold(long epochDay, long change, long balance) {
+    long start = policy.getPeriodStart(epochDay);
+    int last = (periodCount - 1) * PERIOD_FIELDS;
+    if (periodCount > 0 && periods[last + START] == start) {
+      periods[last + CLOSE] = balance;
+      periods[last + MIN] = Math.min(periods[last + MIN], balance);
+      periods[last + MAX] = Math.max(periods[last + MAX], balance);
+      periods[last + NET] += change;
+      return;
+    }
+    if ((periodCount + 1) * PERIOD_FIELDS > periods.length) {
+      periods = Arrays.copyOf(periods, periods.length * 2);
+    }
+    int i = periodCount++ * PERIOD_FIELDS;
+    long open = balance - change;
+    periods[i + START] = start;
+    periods[i + OPEN] = open;
+    periods[i + CLOSE] = balance;
+    periods[i + MIN] = Math.min(open, balance);
+    periods[i + MAX] = Math.max(open, balance);
+    periods[i + NET] = change;
+  }
+
+  /**
+   * Returns the number of rows in the history.
+   */
+  public int size() {
+    return periodCount + endDay - firstDay;
+  }
+
+  /**
+   * Returns {@code true} if the i-th row is a folded period rather than a single day.
+   */
+  public boolean isPeriod(int i) {
+    return i < periodCount;
+  }
+
+  /**
+   * Returns the first date of the i-th row.
+   */
+  public LocalDate getDate(int i) {
+    return LocalDate.ofEpochDay(isPeriod(i) ? period(i, START) : day(i, DAY));
+  }
+
+  /**
+   * Returns the balance before the changes of the i-th row.
+   */
+  public Money getOpen(int i) {
+    return Money.fromPrimitive(open(i));
+  }
+
+  /**
+   * Returns the balance at the end of the i-th row.
+   */
+  public Money getClose(int i) {
+    return Money.fromPrimitive(close(i));
+  }
+
+  /**
+   * Returns the lowest end of day balance within the i-th row, including its opening balance.
+   */
+  public Money getMin(int i) {
+    return Money.fromPrimitive(isPeriod(i) ? period(i, MIN) : Math.min(open(i), close(i)));
+  }
+
+  /**
+   * Returns the highest end of day balance within the i-th row, including its opening balance.
+   */
+  public Money getMax(int i) {
+    return Money.fromPrimitive(isPeriod(i) ? period(i, MAX) : Math.max(open(i), close(i)));
+  }
+
+  /**
+   * Returns the net change of the balance over the i-th row.
+   */
+  public Money getNetChange(int i) {
+    return Money.fromPrimitive(isPeriod(i) ? period(i, NET) : day(i, CHANGE));
+  }
+
+  private long open(int i) {
+    return isPeriod(i) ? period(i, OPEN) : day(i, BALANCE) - day(i, CHANGE);
+  }
+
+  private long close(int i) {
+    return isPeriod(i) ? period(i, CLOSE) : day(i, BALANCE);
+  }
+
+  private long period(int i, int field) {
+    return periods[i * PERIOD_FIELDS + field];
+  }
+
+  private long day(int i, int field) {
+    Objects.checkIndex(i, size());
+    return days[(firstDay + i - periodCount) * DAY_FIELDS + field];
+  }
+}
@@ -15,7 +15,7 @@ public class LiabilityAccount extends Account {
    * Deposits a {@link Transaction} into the {@link Account} to pay back the account.
    */
   public void payment(Transaction transaction) {
-    getJournal().deposit(transaction);
+    post(transaction, transaction.getAmount());
   }
 
   /**
@@ -23,7 +23,7 @@ public class LiabilityAccount extends Account {
    * deduction from the account.
    */
   public void purchase(Transaction transaction) {
-    getJournal().withdraw(transaction);
+    post(transaction, transaction.getAmount().negate());
   }
   
   /**
@@ -3,7 +3,9 @@ package com.calculr.lifemodel.books;
 import java.time.LocalDate;
 
 import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.finance.AmortizationSchedule;
 import com.calculr.lifemodel.finance.Bill;
+import com.calculr.lifemodel.finance.CompoundingTables;
 import com.calculr.lifemodel.finance.Money;
 import com.calculr.lifemodel.finance.MoneyMetric;
 import com.calculr.lifemodel.finance.Payee;
@@ -25,22 +27,35 @@ public class Mortgage implements Payee {
   private final LiabilityAccount loan;
   private final VirtualAccount equity;
   private final Money payment;
+  private final Money extraPayment;
+  private final double rate;
   private final MoneyMetric totalPaymentMetric;
+  private final Description paymentDescription;
+  private final Description principalDescription;
+  private AmortizationSchedule schedule;
+  private int nextScheduledPayment = 0;
   
   private Mortgage(Simulation sim, String name, AssetAccount asset, LiabilityAccount loan,
-      VirtualAccount equity, Money payment, MoneyMetric totalPayment) {
+      VirtualAccount equity, Money payment, Money extraPayment, double rate,
+      MoneyMetric totalPayment) {
     this.sim = sim;
     this.name = name;
     this.asset = asset;
     this.loan = loan;
     this.equity = equity;
     this.payment = payment;
+    this.extraPayment = extraPayment;
+    this.rate = rate;
     this.totalPaymentMetric = totalPayment;
+    DescriptionDictionary descriptions = DescriptionDictionary.of(sim);
+    this.paymentDescription = descriptions.intern("%s Payment", name);
+    this.principalDescription = descriptions.intern("%s Principal", name);
   }
   
   /**
    * Computes the amortization calculation for a loan assuming equal monthly
-   * payments over the lifetime of the loan.
+   * payments over the lifetime of the loan. The compounding factors are shared
+   * through {@link CompoundingTables}.
    * 
    * @param principal
    *          the amount of the mortgage
@@ -52,8 +67,7 @@ public class Mortgage implements Payee {
    */
   public static Money amortizationPayment(Money principal, int years, double rate) {
     int n = years * 12; // monthly payments
-    double totalInterest = Math.pow(1 + rate/12, n);
-    return principal.scale((rate/12) * totalInterest/(totalInterest - 1));
+    return principal.scale(CompoundingTables.get(rate/12, n).getAmortizationFactor());
   }
   
   /**
@@ -77,6 +91,14 @@ public class Mortgage implements Payee {
     return equity;
   }
   
+  /**
+   * Returns the closed-form {@link AmortizationSchedule} used to pay the loan, or
+   * {@code null} if the payments are simulated.
+   */
+  public AmortizationSchedule getSchedule() {
+    return schedule;
+  }
+  
   /**
    * Returns the L2V rate of the loan, calculated as the total of the
    * outstanding loan over the value of the asset.
@@ -107,6 +129,8 @@ public class Mortgage implements Payee {
     private double rate = 0.04;
     private double originationRateDifference = 0;
     private Money originationFee = Money.zero();
+    private Money extraPayment = Money.zero();
+    private boolean analytic = false;
 
     MortgageBuilder(Simulation sim, BalanceSheet sheet, Payer payer, String name, Money salePrice) {
       this.sim = sim;
@@ -152,22 +176,57 @@ public class Mortgage implements Payee {
       return this;
     }
     
+    /**
+     * Sets a fixed amount paid each month in addition to the amortized payment.
+     */
+    public MortgageBuilder setExtraPayment(Money extraPayment) {
+      this.extraPayment = extraPayment;
+      return this;
+    }
+    
+    /**
+     * Pays the loan from its closed-form {@link AmortizationSchedule} instead of simulating a
+     * {@link Bill} and the interest each month. Each month posts a single payment from the
+     * payer's account and the principal portion to the loan, so the balances and the total
+     * payment metric follow the schedule without the billing cycle. The payer must be
+     * deterministic, such as a {@link BlindPayer}.
+     *
+     * <p>Both the schedule and a simulated loan accrue interest monthly from the closing date,
+     * so the two agree to within rounding whenever the mortgage is built.
+     */
+    public MortgageBuilder useAnalyticSchedule() {
+      this.analytic = true;
+      return this;
+    }
+    
     public Mortgage build() {
       AssetAccount asset = sheet.createAssetAccount(name + " Asset");
-      Transaction mortgatgeAsset = Transaction.create(closingDate,
-          "Tangible Asset <" + name + ">", salePrice);
-      asset.schedule(closingDate, date -> asset.deposit(mortgatgeAsset));
+      DescriptionDictionary descriptions = DescriptionDictionary.of(sim);
+      Transaction mortgatgeAsset = Transaction.create(sim, closingDate,
+          descriptions.intern("Tangible Asset <%s>", name), salePrice);
       
+      if (analytic && payer.getDeterministicAccount() == null) {
+        throw new IllegalStateException(String.format(
+            "Mortgage <%s> requires a deterministic payer for an analytic schedule", name));
+      }
       LiabilityAccount loan = sheet.createLiabilityAccount(name + " Loan");
-      loan.schedule(closingDate, date -> loan.purchase(mortgatgeAsset));
-      loan.actOn(new Interest(rate + originationRateDifference));
+      // The property and the loan that buys it are recorded as one balanced entry.
+      loan.schedule(closingDate, context -> Posting.of(mortgatgeAsset)
+          .deposit(asset, salePrice)
+          .withdraw(loan, salePrice)
+          .post());
+      if (!analytic) {
+        // Interest accrues monthly from the closing date, the first period of the schedule.
+        Interest interest = new Interest(rate + originationRateDifference);
+        loan.schedule(closingDate, context -> loan.actOn(interest));
+      }
       
       VirtualAccount equity = sheet.createVirtualAccount(name + " Equity", asset, loan);
       MoneyMetric totalPayment = MoneyMetric.sum("Mortgage <" + name + "> total payment");
       
       if (downPayment.sign() > 0) {
-        Transaction transaction = Transaction.create(closingDate,
-            "Mortgage <" + name + "> Down Payment", downPayment);
+        Transaction transaction = Transaction.create(sim, closingDate,
+            descriptions.intern("Mortgage <%s> Down Payment", name), downPayment);
         downPaymentAccount.schedule(closingDate,
             context -> {
               downPaymentAccount.makePayment(transaction, loan);
@@ -176,40 +235,78 @@ public class Mortgage implements Payee {
       }
 
       if (closingCosts.sign() > 0) {
-        Transaction transaction = Transaction.create(closingDate,
-            "Mortgage <" + name + "> Closing Costs", closingCosts);
+        Transaction transaction = Transaction.create(sim, closingDate,
+            descriptions.intern("Mortgage <%s> Closing Costs", name), closingCosts);
         downPaymentAccount.schedule(closingDate,
             context -> {
+              // Closing costs are paid to third parties, so they do not reduce the loan.
               downPaymentAccount.withdraw(transaction);
-              downPaymentAccount.makePayment(transaction, loan);
               context.updateMetric(totalPayment, closingCosts);
             });
       }
       if (originationFee.sign() > 0) {
-        Transaction transaction = Transaction.create(closingDate,
-            "Mortgage <" + name + "> Origination Fee", originationFee);
+        Transaction transaction = Transaction.create(sim, closingDate,
+            descriptions.intern("Mortgage <%s> Origination Fee", name), originationFee);
         downPaymentAccount.schedule(closingDate,
             context -> {
               downPaymentAccount.withdraw(transaction);
-              downPaymentAccount.makePayment(transaction, loan);
               context.updateMetric(totalPayment, originationFee);
-            });        
+            });
       }
       
       Money paymentAmount = amortizationPayment(salePrice.add(downPayment.negate()), years, rate + originationRateDifference); 
       MoneyMetric monthlyPayment = MoneyMetric.first("Mortgage <" + name + "> monthly payment");
       sim.update(monthlyPayment, paymentAmount);
-      Mortgage mortgage = new Mortgage(sim, name, asset, loan, equity, paymentAmount, totalPayment);
+      Mortgage mortgage = new Mortgage(sim, name, asset, loan, equity, paymentAmount,
+          extraPayment, rate + originationRateDifference, totalPayment);
+      
+      if (analytic) {
+        // Only the down payment is paid into the loan at closing.
+        Money balance = salePrice.sub(downPayment);
+        mortgage.schedule = AmortizationSchedule.create(balance,
+            (rate + originationRateDifference) / 12, years * 12, paymentAmount.add(extraPayment));
+        if (mortgage.schedule.size() > 0) {
+          loan.onSchedule()
+              .starting(closingDate.plusMonths(1))
+              .runMonthly()
+              .stopAfter(mortgage.schedule.size())
+              .schedule(context -> mortgage.payScheduled(context.getDate(),
+                  payer.getDeterministicAccount()));
+        }
+        return mortgage;
+      }
       
       loan.onSchedule()
           .starting(closingDate.plusMonths(1))
           .runMonthly()
           .stopWhen(() -> loan.getBalance().isAtLeast(Money.zero()))
-          .schedule(context -> Bill.issue(sim, mortgage, payer, 20 /* days */));
+          .schedule(context -> {
+            if (loan.getBalance().isAtLeast(Money.zero())) {
+              // The loan has been paid off, so it no longer needs to accrue interest or post.
+              loan.close();
+            } else {
+              Bill.issue(sim, mortgage, payer, 20 /* days */);
+            }
+          });
       return mortgage;
     }
   }
 
+  /**
+   * Posts the next payment of the {@link AmortizationSchedule}, closing the loan after the
+   * final payment.
+   */
+  private void payScheduled(LocalDate date, AssetAccount account) {
+    int i = nextScheduledPayment++;
+    Money amount = schedule.getPayment(i);
+    account.withdraw(Transaction.create(sim, date, paymentDescription, amount));
+    loan.payment(Transaction.create(sim, date, principalDescription, schedule.getPrincipal(i)));
+    sim.update(totalPaymentMetric, amount);
+    if (nextScheduledPayment == schedule.size()) {
+      loan.close();
+    }
+  }
+
   @Override
   public String getName() {
     return name;
@@ -225,7 +322,15 @@ public class Mortgage implements Payee {
 
   @Override
   public Money getPeriodPayment() {
-    return getMinimumPayment();
+    if (getTotalLiability().isAtLeast(payment.add(extraPayment))) {
+      return payment.add(extraPayment);
+    }
+    return getTotalLiability();
+  }
+
+  @Override
+  public double getInterestRate() {
+    return rate;
   }
 
   @Override
@@ -0,0 +1,153 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.finance.Money;
+
+/**
+ * A balanced, multi-leg entry between {@link Account Accounts}.
+ *
+ * <p>Each leg is a deposit into or withdrawal from the journal of an account, and the legs of
+ * a posting must sum to zero, so that money moved between accounts is never created or lost
+ * part way through. All legs share a single {@link Transaction}, legs on the same account are
+ * combined, and nothing is applied until {@link #post()} has checked the balance and every
+ * account. Legs on a {@link VirtualAccount} or a closed account are rejected.
+ *
+ * <p>The line items of all legs are delivered to the consumers of the journals together once
+ * every leg has been posted. A consumer shared by several legs, such as the ledger of a
+ * virtual account, receives all of its items in one delivery.
+ */
+public final class Posting {
+  private final Simulation sim;
+  private final LocalDate date;
+  private final Description description;
+  private Transaction transaction;
+  private final List<Account> accounts = new ArrayList<>(2);
+  private final List<Money> amounts = new ArrayList<>(2);
+
+  private Posting(Simulation sim, LocalDate date, Description description,
+      Transaction transaction) {
+    this.sim = sim;
+    this.date = date;
+    this.description = description;
+    this.transaction = transaction;
+  }
+
+  /**
+   * Constructs a new {@link Posting}. Its {@link Transaction} is created when it is posted,
+   * with the total deposited by its legs as the amount.
+   */
+  public static Posting create(Simulation sim, LocalDate date, String description) {
+    return create(sim, date, DescriptionDictionary.of(sim).intern(description));
+  }
+
+  /**
+   * Constructs a new {@link Posting} with an interned {@link Description}.
+   */
+  public static Posting create(Simulation sim, LocalDate date, Description description) {
+    return new Posting(sim, date, description, null);
+  }
+
+  /**
+   * Constructs a new {@link Posting} of an existing {@link Transaction}.
+   */
+  public static Posting of(Transaction transaction) {
+    return new Posting(null, transaction.getDate(), null, transaction);
+  }
+
+  /**
+   * Adds a leg depositing the amount into the account. For a {@link LiabilityAccount}, a
+   * deposit is a payment.
+   *
+   * @throws IllegalArgumentException if the account is virtual or closed
+   */
+  public Posting deposit(Account account, Money amount) {
+    return leg(account, amount);
+  }
+
+  /**
+   * Adds a leg withdrawing the amount from the account. For a {@link LiabilityAccount}, a
+   * withdrawal is a purchase.
+   *
+   * @throws IllegalArgumentException if the account is virtual or closed
+   */
+  public Posting withdraw(Account account, Money amount) {
+    return leg(account, amount.negate());
+  }
+
+  private Posting leg(Account account, Money amount) {
+    checkPostable(account);
+    int i = accounts.indexOf(account);
+    if (i < 0) {
+      accounts.add(account);
+      amounts.add(amount);
+    } else {
+      amounts.set(i, amounts.get(i).add(amount));
+    }
+    return this;
+  }
+
+  /**
+   * Checks that the legs sum to zero and applies each of them to its account, then delivers
+   * the new line items to the consumers of the journals.
+   *
+   * @return the {@link Transaction} shared by the legs
+   * @throws IllegalStateException if the legs do not balance or have already been posted
+   * @throws IllegalArgumentException if an account was closed after its leg was added
+   */
+  public Transaction post() {
+    Money total = Money.zero();
+    Money deposited = Money.zero();
+    for (Money amount : amounts) {
+      total = total.add(amount);
+      if (amount.sign() > 0) {
+        deposited = deposited.add(amount);
+      }
+    }
+    if (total.sign() != 0) {
+      throw new IllegalStateException(
+          String.format("Posting on %s does not balance: the legs sum to %s", date, total));
+    }
+    if (accounts.isEmpty()) {
+      throw new IllegalStateException("Posting has already been posted or has no legs");
+    }
+    // An account may have closed since its leg was added, and no leg is applied unless all are.
+    for (Account account : accounts) {
+      checkPostable(account);
+    }
+    if (transaction == null) {
+      transaction = new Transaction(sim, date, description, deposited);
+    }
+    List<Journal> journals = new ArrayList<>(accounts.size());
+    try {
+      for (int i = 0; i < accounts.size(); i++) {
+        if (amounts.get(i).sign() != 0) {
+          Journal journal = accounts.get(i).getJournal();
+          journal.hold();
+          journals.add(journal);
+          accounts.get(i).post(transaction, amounts.get(i));
+        }
+      }
+    } finally {
+      Journal.releaseAll(journals);
+    }
+    accounts.clear();
+    amounts.clear();
+    return transaction;
+  }
+
+  private static void checkPostable(Account account) {
+    if (account instanceof VirtualAccount) {
+      throw new IllegalArgumentException(
+          String.format("Can not post to virtual account '%s'", account.getAccountName()));
+    }
+    if (account.isClosed()) {
+      throw new IllegalArgumentException(
+          String.format("Can not post to closed account '%s'", account.getAccountName()));
+    }
+  }
+
+}
@@ -2,36 +2,50 @@ package com.calculr.lifemodel.books;
 
 import java.util.Objects;
 
+import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.engine.Simulator;
+
 /**
  * A object that can contain arbitrary data but is uniquified by an identifier.
+ *
+ * <p>Identifiers are allocated from a sequence owned by the {@link Simulation}, so they are
+ * deterministic for a given simulation regardless of other simulations running concurrently.
  */
 public abstract class Record {
+  /** The number of low bits of the global identifier holding the simulation sequence. */
+  private static final int SEQUENCE_BITS = Long.SIZE - 1 - Simulator.ID_BITS;
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
 
-  private static long maxId = 0;
-  private final long id;
+  private final long globalId;
   
-  protected Record() {
-    id = createUniqueIdentifier();
+  protected Record(Simulation sim) {
+    long sequence = sim.nextRecordId();
+    if (sequence > SEQUENCE_MASK) {
+      throw new IllegalStateException(String.format(
+          "Simulation %d has assigned more than %d record identifiers", sim.getSimulationId(),
+          SEQUENCE_MASK));
+    }
+    globalId = (sim.getSimulationId() << SEQUENCE_BITS) | sequence;
   }
   
   /**
-   * Returns a guaranteed unique identifier. 
+   * Returns the identifier for the {@link Record}, unique within its {@link Simulation}.
    */
-  private synchronized static final long createUniqueIdentifier() {
-    maxId++;
-    return maxId;
+  public final long getId() {
+    return globalId & SEQUENCE_MASK;
   }
-  
+
   /**
-   * Returns the unique identifier for the {@link Record}.
+   * Returns an identifier for the {@link Record} that is unique across simulations, combining
+   * the simulation identifier with the identifier from {@link #getId()}.
    */
-  public final long getId() {
-    return id;
+  public final long getGlobalId() {
+    return globalId;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(id);
+    return Objects.hashCode(globalId);
   }
 
   @Override
@@ -43,13 +57,13 @@ public abstract class Record {
     if (getClass() != obj.getClass())
       return false;
     Record other = (Record) obj;
-    if (id != other.id)
+    if (globalId != other.globalId)
       return false;
     return true;
   }
   
   @Override
   public String toString() {
-    return getClass().getSimpleName() + "#" + id;
+    return getClass().getSimpleName() + "#" + getId();
   }
 }
@@ -0,0 +1,108 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+
+/**
+ * Determines how long a {@link Journal} keeps the detail of each {@link LineItem}.
+ *
+ * <p>Line items older than the detail window are rolled into summaries of the items with the
+ * same description and direction within a day or a month. Only the most recent summary periods
+ * are kept; older summaries are folded into a single total per description and direction.
+ * Summaries keep the exact total of their items, so the balance of the journal is unchanged
+ * while its size is bounded by the activity within the window and the summary periods.
+ */
+public final class RetentionPolicy {
+  /** The number of summary periods kept unless set by {@link #keepDays(int, Rollup, int)}. */
+  public static final int DEFAULT_SUMMARY_PERIODS = 12;
+
+  private static final RetentionPolicy KEEP_ALL = new RetentionPolicy(-1, null, 0);
+
+  /** The period that older line items are summarized over. */
+  public enum Rollup {
+    DAILY,
+    MONTHLY
+  }
+
+  private final int detailDays;
+  private final Rollup rollup;
+  private final int summaryPeriods;
+
+  private RetentionPolicy(int detailDays, Rollup rollup, int summaryPeriods) {
+    this.detailDays = detailDays;
+    this.rollup = rollup;
+    this.summaryPeriods = summaryPeriods;
+  }
+
+  /**
+   * Returns a {@link RetentionPolicy} that keeps the detail of every line item.
+   */
+  public static RetentionPolicy keepAll() {
+    return KEEP_ALL;
+  }
+
+  /**
+   * Returns a {@link RetentionPolicy} that keeps the detail of line items for a number of
+   * days, rolling older items into summaries of the last {@link #DEFAULT_SUMMARY_PERIODS}
+   * periods.
+   *
+   * @param detailDays the number of days before the current date that keep full detail
+   * @param rollup the period of the summaries of older line items
+   */
+  public static RetentionPolicy keepDays(int detailDays, Rollup rollup) {
+    return keepDays(detailDays, rollup, DEFAULT_SUMMARY_PERIODS);
+  }
+
+  /**
+   * Returns a {@link RetentionPolicy} that keeps the detail of line items for a number of
+   * days, rolling older items into summaries of the specified number of recent periods.
+   *
+   * @param detailDays the number of days before the current date that keep full detail
+   * @param rollup the period of the summaries of older line items
+   * @param summaryPeriods the number of periods of summaries kept before they are folded into
+   *     a single total
+   */
+  public static RetentionPolicy keepDays(int detailDays, Rollup rollup, int summaryPeriods) {
+    if (detailDays < 0) {
+      throw new IllegalArgumentException("The number of detail days can not be negative");
+    }
+    if (summaryPeriods < 1) {
+      throw new IllegalArgumentException("At least one summary period must be kept");
+    }
+    return new RetentionPolicy(detailDays, rollup, summaryPeriods);
+  }
+
+  /**
+   * Returns {@code true} if the detail of every line item is kept.
+   */
+  public boolean keepsAll() {
+    return rollup == null;
+  }
+
+  /**
+   * Returns the number of summary periods kept before they are folded into a single total.
+   */
+  int getSummaryPeriods() {
+    return summaryPeriods;
+  }
+
+  /**
+   * Returns the earliest date that keeps full detail as of the specified date.
+   */
+  LocalDate getCutoff(LocalDate date) {
+    return date.minusDays(detailDays);
+  }
+
+  /**
+   * Returns the first date of the summary period containing the specified date.
+   */
+  LocalDate getPeriod(LocalDate date) {
+    return rollup == Rollup.MONTHLY ? date.withDayOfMonth(1) : date;
+  }
+
+  /**
+   * Returns the label of the summary period starting on the specified date.
+   */
+  String getPeriodLabel(LocalDate period) {
+    return rollup == Rollup.MONTHLY ? period.toString().substring(0, 7) : period.toString();
+  }
+}
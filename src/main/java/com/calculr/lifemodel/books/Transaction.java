@@ -2,28 +2,46 @@ package com.calculr.lifemodel.books;
 
 import java.time.LocalDate;
 
+import com.calculr.lifemodel.engine.Simulation;
 import com.calculr.lifemodel.finance.Money;
 
 /**
  * A transaction is one financial payment or exchange of an asset for funds.
+ *
+ * <p>Descriptions are interned in the {@link DescriptionDictionary} of the simulation, so
+ * transactions with the same description share a single {@link Description}.
  */
 public class Transaction extends Record {
   private final LocalDate date;
-  private final String description;
+  private final Description description;
   private final Money amount;
   
-  Transaction(LocalDate date, String description, Money amount) {
-    super();
+  Transaction(Simulation sim, LocalDate date, String description, Money amount) {
+    this(sim, date, DescriptionDictionary.of(sim).intern(description), amount);
+  }
+
+  Transaction(Simulation sim, LocalDate date, Description description, Money amount) {
+    super(sim);
     this.date = date;
     this.description = description;
     this.amount = amount;
   }
 
   /**
-   * Constructs a new {@link Transaction}.
+   * Constructs a new {@link Transaction} identified within the {@link Simulation}.
    */
-  public static Transaction create(LocalDate date, String description, Money amount) {
-    return new Transaction(date, description, amount);
+  public static Transaction create(Simulation sim, LocalDate date, String description,
+      Money amount) {
+    return new Transaction(sim, date, description, amount);
+  }
+
+  /**
+   * Constructs a new {@link Transaction} with a {@link Description} interned in the
+   * {@link DescriptionDictionary} of the {@link Simulation}.
+   */
+  public static Transaction create(Simulation sim, LocalDate date, Description description,
+      Money amount) {
+    return new Transaction(sim, date, description, amount);
   }
   
   /**
@@ -37,9 +55,23 @@ public class Transaction extends Record {
    * Returns the description.
    */
   public String getDescription() {
+    return description.getText();
+  }
+
+  /**
+   * Returns the interned {@link Description}.
+   */
+  Description getInternedDescription() {
     return description;
   }
 
+  /**
+   * Returns the code of the description in the {@link DescriptionDictionary}.
+   */
+  public int getDescriptionCode() {
+    return description.getCode();
+  }
+
   /**
    * Returns the amount.
    */
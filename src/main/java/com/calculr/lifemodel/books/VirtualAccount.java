@@ -1,6 +1,7 @@
 package com.calculr.lifemodel.books;
 
 import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.finance.Money;
 
 /**
  * A Virtual account is an {@link Account} that can not be directly deposited or
@@ -20,4 +21,10 @@ public class VirtualAccount extends Account {
   public void linkTo(Account other) {
     other.getJournal().registerLineItemConsumer(getLedger());
   }
+
+  @Override
+  protected void post(Transaction transaction, Money amount) {
+    throw new IllegalArgumentException(
+        String.format("Can not post to virtual account '%s'", getAccountName()));
+  }
 }
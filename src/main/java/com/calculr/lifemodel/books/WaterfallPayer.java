@@ -0,0 +1,211 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.engine.TaskContext;
+import com.calculr.lifemodel.finance.Bill;
+import com.calculr.lifemodel.finance.Money;
+import com.calculr.lifemodel.finance.Payee;
+import com.calculr.lifemodel.finance.Payer;
+
+/**
+ * A {@link Payer} that settles every open {@link Bill} in a single pass on each payment day.
+ *
+ * <p>Bills are collected as they arrive, and a settlement runs a number of days before the
+ * earliest of them is due. Each settlement gathers every outstanding bill, including those due
+ * later, and ranks them by the {@link Strategy}. The cash available in the bank account is
+ * allocated down the ranking: first to the minimum payment of each bill, then to the remainder
+ * of each period payment. A bill whose minimum can not be covered is not paid. Extra payments
+ * are part of the period payment of the {@link Payee}, such as
+ * {@link Mortgage.MortgageBuilder#setExtraPayment(Money)}.
+ */
+public class WaterfallPayer extends Payer {
+
+  /**
+   * The order in which bills receive the cash left after their minimum payments.
+   */
+  public enum Strategy {
+    /** Pays the minimums, then the bills with the earliest due date. */
+    MINIMUMS_FIRST,
+
+    /** Pays the minimums, then the bills with the highest interest rate. */
+    AVALANCHE,
+
+    /** Pays the minimums, then the bills with the smallest total liability. */
+    SNOWBALL
+  }
+
+  private final Simulation sim;
+  private final AssetAccount bankAccount;
+  private final int daysBeforeDueDate;
+  private final Comparator<Claim> ranking;
+  private final List<Claim> open = new ArrayList<>();
+  private final NavigableSet<LocalDate> settlementDates = new TreeSet<>();
+  private long sequence = 0;
+
+  WaterfallPayer(WaterfallPayerBuilder builder) {
+    super(builder.sim);
+    this.sim = builder.sim;
+    this.bankAccount = builder.bankAccount;
+    this.daysBeforeDueDate = builder.daysBeforeDueDate;
+    this.ranking = ranking(builder.strategy);
+  }
+
+  public static WaterfallPayerBuilder newBuilder(Simulation sim, AssetAccount bankAccount) {
+    return new WaterfallPayerBuilder(sim, bankAccount);
+  }
+
+  /**
+   * Builds a {@link WaterfallPayer} paying bills from a single bank account.
+   */
+  public static class WaterfallPayerBuilder {
+    private final Simulation sim;
+    private final AssetAccount bankAccount;
+    private Strategy strategy = Strategy.MINIMUMS_FIRST;
+    private int daysBeforeDueDate = 1;
+
+    private WaterfallPayerBuilder(Simulation sim, AssetAccount bankAccount) {
+      this.sim = sim;
+      this.bankAccount = bankAccount;
+    }
+
+    public WaterfallPayerBuilder setStrategy(Strategy strategy) {
+      this.strategy = strategy;
+      return this;
+    }
+
+    /**
+     * Sets the number of days before the due date that bills are paid.
+     */
+    public WaterfallPayerBuilder setDaysBeforeDueDate(int days) {
+      if (days < 0) {
+        throw new IllegalArgumentException("Bills can not be paid after their due date");
+      }
+      this.daysBeforeDueDate = days;
+      return this;
+    }
+
+    public WaterfallPayer build() {
+      return new WaterfallPayer(this);
+    }
+  }
+
+  @Override
+  public void onBill(Payee payee, Bill bill) {
+    LocalDate payDate = bill.getDueDate().minusDays(daysBeforeDueDate);
+    if (payDate.isBefore(sim.getCurrentDate())) {
+      payDate = sim.getCurrentDate();
+    }
+    open.add(new Claim(bill, sequence++));
+    // A pending settlement on or before the pay date settles the bill with the others.
+    if (settlementDates.isEmpty() || payDate.isBefore(settlementDates.first())) {
+      settlementDates.add(payDate);
+      schedule(payDate, WaterfallPayer::settle);
+    }
+  }
+
+  @Override
+  public void onRegister(LocalDate date) {
+    // Settlements are scheduled as bills arrive.
+  }
+
+  private static void settle(TaskContext<Payer> context) {
+    WaterfallPayer payer = (WaterfallPayer) context.getActor();
+    payer.settlementDates.remove(context.getDate());
+    payer.settle(context.getDate());
+  }
+
+  /**
+   * Allocates the available cash to all outstanding bills and pays them. A later settlement
+   * finds no bills if an earlier one on the same day or before has paid them already.
+   */
+  private void settle(LocalDate date) {
+    if (open.isEmpty()) {
+      return;
+    }
+    PriorityQueue<Claim> heap = new PriorityQueue<>(ranking);
+    for (Claim claim : open) {
+      claim.prepare();
+      heap.add(claim);
+    }
+    open.clear();
+    Claim[] ranked = new Claim[heap.size()];
+    for (int i = 0; i < ranked.length; i++) {
+      ranked[i] = heap.poll();
+    }
+
+    Money available = bankAccount.getPostedBalance();
+    for (Claim claim : ranked) {
+      if (claim.target.sign() > 0 && available.isAtLeast(claim.minimum)) {
+        claim.amount = claim.minimum;
+        available = available.sub(claim.minimum);
+      }
+    }
+    for (Claim claim : ranked) {
+      if (claim.amount != null && available.sign() > 0) {
+        Money remainder = Money.min(claim.target.sub(claim.amount), available);
+        claim.amount = claim.amount.add(remainder);
+        available = available.sub(remainder);
+      }
+    }
+    for (Claim claim : ranked) {
+      if (claim.amount != null && claim.amount.sign() > 0) {
+        claim.bill.pay(bankAccount, claim.amount);
+      }
+    }
+  }
+
+  private static Comparator<Claim> ranking(Strategy strategy) {
+    Comparator<Claim> byDueDate = Comparator.comparing(claim -> claim.bill.getDueDate());
+    Comparator<Claim> primary;
+    switch (strategy) {
+      case AVALANCHE:
+        primary = Comparator.<Claim>comparingDouble(claim -> claim.rate).reversed()
+            .thenComparing(byDueDate);
+        break;
+      case SNOWBALL:
+        primary = ((Comparator<Claim>) (a, b) -> a.liability.sub(b.liability).sign())
+            .thenComparing(byDueDate);
+        break;
+      default:
+        primary = byDueDate;
+    }
+    return primary.thenComparingLong(claim -> claim.sequence);
+  }
+
+  /**
+   * An open {@link Bill} and its allocation on the day it is settled.
+   */
+  private static class Claim {
+    private final Bill bill;
+    private final long sequence;
+    private double rate;
+    private Money liability;
+    private Money target;
+    private Money minimum;
+    private Money amount;
+
+    Claim(Bill bill, long sequence) {
+      this.bill = bill;
+      this.sequence = sequence;
+    }
+
+    void prepare() {
+      rate = bill.getPayee().getInterestRate();
+      liability = bill.getTotalLiability();
+      target = bill.getPeriodPayment();
+      if (target.isAtLeast(liability)) {
+        // Never pay more than the total owed.
+        target = liability;
+      }
+      minimum = Money.min(bill.getMinimumPayment(), target);
+    }
+  }
+}
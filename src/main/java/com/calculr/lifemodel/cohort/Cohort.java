@@ -0,0 +1,255 @@
+package com.calculr.lifemodel.cohort;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.calculr.lifemodel.engine.Actor;
+import com.calculr.lifemodel.engine.Footprint;
+import com.calculr.lifemodel.engine.QuantileSketch;
+import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.finance.Money;
+
+/**
+ * A population of structurally identical households, stored as columns instead of one
+ * {@link com.calculr.lifemodel.books.BalanceSheet} per household.
+ *
+ * <p>Each household is a row. Balances are kept as primitive {@link Money} amounts in
+ * {@code long[]} columns, and rates in {@code double[]} columns, so a million households take a
+ * few megabytes per column. Recurring behavior is written once as a {@link
+ * com.calculr.lifemodel.engine.Task Task} over the whole cohort, such as the rules of
+ * {@link CohortRules}, and scheduled like the task of any other {@link Actor}. A rule updates
+ * every row in a single loop over the columns.
+ *
+ * <p>Unlike an account, a column has no journal or posting delay: a balance reflects every rule
+ * that has run, and rules that should see the balance at the end of the previous day are
+ * scheduled at the start of the day.
+ */
+public final class Cohort extends Actor<Cohort> {
+
+  /**
+   * The kind of a balance column, which determines how interest is applied to it.
+   */
+  public enum Kind {
+    /** A balance that is owned by the household, such as a savings account. */
+    ASSET,
+
+    /** A balance that is owed by the household, negative while money is owed. */
+    LIABILITY,
+
+    /** An amount that is not a balance, such as the payment of each household. */
+    AMOUNT
+  }
+
+  private final String name;
+  private final int size;
+  private final Map<String, long[]> balances;
+  private final Map<String, Kind> kinds;
+  private final Map<String, double[]> rates;
+
+  private Cohort(Simulation sim, CohortBuilder builder) {
+    super(sim);
+    this.name = builder.name;
+    this.size = builder.size;
+    this.balances = new LinkedHashMap<>();
+    this.kinds = new LinkedHashMap<>();
+    this.rates = new LinkedHashMap<>();
+    for (Map.Entry<String, Kind> column : builder.kinds.entrySet()) {
+      balances.put(column.getKey(), new long[size]);
+      kinds.put(column.getKey(), column.getValue());
+    }
+    for (Map.Entry<String, Double> column : builder.rates.entrySet()) {
+      double[] values = new double[size];
+      Arrays.fill(values, column.getValue());
+      rates.put(column.getKey(), values);
+    }
+    // Rules only touch the columns of the cohort, so cohorts run in parallel lanes.
+    setFootprint(Footprint.of(this));
+  }
+
+  /**
+   * Starts building a new {@link Cohort} of the specified number of households.
+   */
+  public static CohortBuilder newBuilder(Simulation sim, String name, int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("A cohort can not have a negative size");
+    }
+    return new CohortBuilder(sim, name, size);
+  }
+
+  @Override
+  public void onRegister(LocalDate date) {
+    // Rules are scheduled by the model.
+  }
+
+  /**
+   * Returns the name of this cohort.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the number of households in this cohort.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the live balance column, holding the primitive amount of each household. Rules
+   * update the array in place.
+   *
+   * @throws IllegalArgumentException if the cohort has no such balance column
+   */
+  public long[] getBalances(String column) {
+    long[] values = balances.get(column);
+    if (values == null) {
+      throw new IllegalArgumentException(
+          String.format("Cohort '%s' has no balance column '%s'", name, column));
+    }
+    return values;
+  }
+
+  /**
+   * Returns the {@link Kind} of a balance column.
+   */
+  public Kind getKind(String column) {
+    getBalances(column);
+    return kinds.get(column);
+  }
+
+  /**
+   * Returns the live rate column, holding the annual rate of each household.
+   *
+   * @throws IllegalArgumentException if the cohort has no such rate column
+   */
+  public double[] getRates(String column) {
+    double[] values = rates.get(column);
+    if (values == null) {
+      throw new IllegalArgumentException(
+          String.format("Cohort '%s' has no rate column '%s'", name, column));
+    }
+    return values;
+  }
+
+  /**
+   * Sets the annual rate of one household.
+   */
+  public void setRate(String column, int row, double rate) {
+    getRates(column)[row] = rate;
+  }
+
+  /**
+   * Returns the balance of one household.
+   */
+  public Money getBalance(String column, int row) {
+    return Money.fromPrimitive(getBalances(column)[row]);
+  }
+
+  /**
+   * Sets the balance of one household.
+   */
+  public void setBalance(String column, int row, Money amount) {
+    getBalances(column)[row] = amount.toPrimitive();
+  }
+
+  /**
+   * Sets the balance of every household.
+   */
+  public void fillBalance(String column, Money amount) {
+    Arrays.fill(getBalances(column), amount.toPrimitive());
+  }
+
+  /**
+   * Returns the sum of a balance column over all households.
+   */
+  public Money sum(String column) {
+    long total = 0;
+    for (long value : getBalances(column)) {
+      total += value;
+    }
+    return Money.fromPrimitive(total);
+  }
+
+  /**
+   * Returns the distribution of a balance column over all households, in dollars.
+   *
+   * @see QuantileSketch#create(double)
+   */
+  public QuantileSketch summarize(String column, double accuracy) {
+    QuantileSketch sketch = QuantileSketch.create(accuracy);
+    double dollar = Money.dollars(1).toPrimitive();
+    for (long value : getBalances(column)) {
+      sketch.add(value / dollar);
+    }
+    return sketch;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Cohort <%s> of %d households", name, size);
+  }
+
+  public static class CohortBuilder {
+    private final Simulation sim;
+    private final String name;
+    private final int size;
+    private final Map<String, Kind> kinds = new LinkedHashMap<>();
+    private final Map<String, Double> rates = new LinkedHashMap<>();
+
+    CohortBuilder(Simulation sim, String name, int size) {
+      this.sim = sim;
+      this.name = name;
+      this.size = size;
+    }
+
+    /**
+     * Adds a balance column of an asset, starting at zero for every household.
+     */
+    public CohortBuilder addAsset(String column) {
+      return addBalance(column, Kind.ASSET);
+    }
+
+    /**
+     * Adds a balance column of a liability, starting at zero for every household.
+     */
+    public CohortBuilder addLiability(String column) {
+      return addBalance(column, Kind.LIABILITY);
+    }
+
+    /**
+     * Adds a column of amounts that are not balances, starting at zero for every household.
+     * Amount columns are read and written like balance columns.
+     */
+    public CohortBuilder addAmount(String column) {
+      return addBalance(column, Kind.AMOUNT);
+    }
+
+    /**
+     * Adds a column of annual rates, starting at the same rate for every household.
+     */
+    public CohortBuilder addRate(String column, double rate) {
+      if (rates.containsKey(column)) {
+        throw new IllegalArgumentException(
+            String.format("Rate column '%s' is already defined", column));
+      }
+      rates.put(column, rate);
+      return this;
+    }
+
+    private CohortBuilder addBalance(String column, Kind kind) {
+      if (kinds.containsKey(column)) {
+        throw new IllegalArgumentException(
+            String.format("Balance column '%s' is already defined", column));
+      }
+      kinds.put(column, kind);
+      return this;
+    }
+
+    public Cohort build() {
+      return new Cohort(sim, this);
+    }
+  }
+}
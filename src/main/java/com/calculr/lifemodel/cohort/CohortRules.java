@@ -0,0 +1,124 @@
+package com.calculr.lifemodel.cohort;
+
+import com.calculr.lifemodel.engine.Task;
+import com.calculr.lifemodel.finance.InterestKernel;
+import com.calculr.lifemodel.finance.Money;
+
+/**
+ * Common recurring rules of a {@link Cohort}, each applied to every household in one loop.
+ *
+ * <p>Amounts are rounded exactly as the corresponding {@link Money} operations and account
+ * actors round them, so a cohort row follows the same balance as a household built from
+ * accounts.
+ */
+public final class CohortRules {
+
+  private CohortRules() {
+  }
+
+  /**
+   * Deposits the same amount into a balance column of every household.
+   */
+  public static Task<Cohort> deposit(String column, Money amount) {
+    long value = amount.toPrimitive();
+    return context -> {
+      long[] balances = context.getActor().getBalances(column);
+      for (int i = 0; i < balances.length; i++) {
+        balances[i] += value;
+      }
+    };
+  }
+
+  /**
+   * Withdraws the same amount from a balance column of every household.
+   */
+  public static Task<Cohort> withdraw(String column, Money amount) {
+    return deposit(column, amount.negate());
+  }
+
+  /**
+   * Moves the same amount from one balance column to another in every household, such as a
+   * payment from checking towards a loan.
+   */
+  public static Task<Cohort> transfer(String from, String to, Money amount) {
+    long value = amount.toPrimitive();
+    return context -> {
+      long[] source = context.getActor().getBalances(from);
+      long[] target = context.getActor().getBalances(to);
+      for (int i = 0; i < source.length; i++) {
+        source[i] -= value;
+        target[i] += value;
+      }
+    };
+  }
+
+  /**
+   * Moves each household's amount from one balance column to another, for the households
+   * selected by the mask.
+   */
+  public static Task<Cohort> transfer(String from, String to, String amountColumn, Mask mask) {
+    return context -> {
+      Cohort cohort = context.getActor();
+      long[] source = cohort.getBalances(from);
+      long[] target = cohort.getBalances(to);
+      long[] amounts = cohort.getBalances(amountColumn);
+      for (int i = 0; i < source.length; i++) {
+        if (mask.test(cohort, i)) {
+          source[i] -= amounts[i];
+          target[i] += amounts[i];
+        }
+      }
+    };
+  }
+
+  /**
+   * Pays each household's amount from a balance column towards a liability, paying no more than
+   * is owed. Households whose liability is paid off make no payment.
+   */
+  public static Task<Cohort> payDown(String from, String liability, String amountColumn) {
+    return context -> {
+      Cohort cohort = context.getActor();
+      long[] source = cohort.getBalances(from);
+      long[] owed = cohort.getBalances(liability);
+      long[] amounts = cohort.getBalances(amountColumn);
+      for (int i = 0; i < source.length; i++) {
+        if (owed[i] < 0) {
+          long payment = Math.min(amounts[i], -owed[i]);
+          source[i] -= payment;
+          owed[i] += payment;
+        }
+      }
+    };
+  }
+
+  /**
+   * Applies one period of interest to a balance column, at each household's annual rate
+   * divided by the number of periods per year.
+   *
+   * <p>As with the interest of an account, an asset earns interest on its balance at a
+   * positive rate and pays it at a negative rate. A liability is only charged interest while
+   * money is owed at a positive rate, and only receives a payment of interest while it is
+   * overpaid at a negative rate.
+   */
+  public static Task<Cohort> compound(String column, String rateColumn, int periodsPerYear) {
+    if (periodsPerYear < 1) {
+      throw new IllegalArgumentException("There must be at least one period per year");
+    }
+    return context -> {
+      Cohort cohort = context.getActor();
+      long[] balances = cohort.getBalances(column);
+      double[] rates = cohort.getRates(rateColumn);
+      Cohort.Kind kind = cohort.getKind(column);
+      if (kind == Cohort.Kind.AMOUNT) {
+        throw new IllegalArgumentException(
+            String.format("Column '%s' is not a balance and does not earn interest", column));
+      }
+      // The same kernels as the interest of accounts, so both round and sign alike.
+      if (kind == Cohort.Kind.ASSET) {
+        InterestKernel.compoundAssets(balances, rates, periodsPerYear, balances.length);
+      } else {
+        InterestKernel.compoundLiabilities(balances, rates, periodsPerYear, balances.length);
+      }
+    };
+  }
+}
@@ -0,0 +1,63 @@
+package com.calculr.lifemodel.cohort;
+
+/**
+ * Selects the households of a {@link Cohort} that a rule applies to, so that households whose
+ * behavior diverges, such as variants of a sweep that paid off a loan at different times, can
+ * still share one rule per group.
+ */
+public interface Mask {
+
+  /**
+   * Returns {@code true} if the rule applies to the household in the row.
+   */
+  boolean test(Cohort cohort, int row);
+
+  /**
+   * Returns a mask selecting the households not selected by this mask.
+   */
+  default Mask not() {
+    return (cohort, row) -> !test(cohort, row);
+  }
+
+  /**
+   * Returns a mask selecting the households selected by both masks.
+   */
+  default Mask and(Mask other) {
+    return (cohort, row) -> test(cohort, row) && other.test(cohort, row);
+  }
+
+  /**
+   * Returns a mask selecting every household.
+   */
+  static Mask all() {
+    return (cohort, row) -> true;
+  }
+
+  /**
+   * Returns a mask selecting the households in the specified rows.
+   */
+  static Mask rows(int... rows) {
+    return (cohort, row) -> {
+      for (int selected : rows) {
+        if (selected == row) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  /**
+   * Returns a mask selecting the households with a positive balance in the column.
+   */
+  static Mask positive(String column) {
+    return (cohort, row) -> cohort.getBalances(column)[row] > 0;
+  }
+
+  /**
+   * Returns a mask selecting the households that owe money in a liability column.
+   */
+  static Mask owing(String column) {
+    return (cohort, row) -> cohort.getBalances(column)[row] < 0;
+  }
+}
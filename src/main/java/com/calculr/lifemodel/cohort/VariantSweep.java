@@ -0,0 +1,112 @@
+package com.calculr.lifemodel.cohort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.calculr.lifemodel.finance.Money;
+
+/**
+ * Runs several variants of one model in lockstep, as the rows of a single {@link Cohort}.
+ *
+ * <p>Variants that share the same schedule of events and only differ in numeric parameters,
+ * such as the rate and fees of a loan, do not need a simulation each. Each variant is a row,
+ * its parameters are the values of its row in amount and rate columns, and every scheduled rule
+ * runs once for all of them. Where the variants diverge, for example once one of them has paid
+ * off its loan, rules select the rows they apply to with a {@link Mask}.
+ */
+public final class VariantSweep {
+  private final Cohort cohort;
+  private final List<String> names;
+
+  private VariantSweep(Cohort cohort, List<String> names) {
+    this.cohort = cohort;
+    this.names = names;
+  }
+
+  /**
+   * Constructs a new {@link VariantSweep} naming the rows of the cohort, one variant per row.
+   *
+   * @throws IllegalArgumentException if the number of names differs from the size of the cohort
+   */
+  public static VariantSweep of(Cohort cohort, String... names) {
+    if (names.length != cohort.size()) {
+      throw new IllegalArgumentException(String.format(
+          "Cohort '%s' has %d rows for %d variants", cohort.getName(), cohort.size(),
+          names.length));
+    }
+    List<String> list = new ArrayList<>(names.length);
+    Collections.addAll(list, names);
+    return new VariantSweep(cohort, Collections.unmodifiableList(list));
+  }
+
+  /**
+   * Returns the {@link Cohort} holding the variants, used to schedule their rules.
+   */
+  public Cohort getCohort() {
+    return cohort;
+  }
+
+  /**
+   * Returns the names of the variants, in the order of their rows.
+   */
+  public List<String> getVariantNames() {
+    return names;
+  }
+
+  /**
+   * Returns the row of the named variant.
+   *
+   * @throws IllegalArgumentException if there is no such variant
+   */
+  public int getRow(String variant) {
+    int row = names.indexOf(variant);
+    if (row < 0) {
+      throw new IllegalArgumentException(String.format("There is no variant '%s'", variant));
+    }
+    return row;
+  }
+
+  /**
+   * Returns the balance or amount of a column for the named variant.
+   */
+  public Money get(String variant, String column) {
+    return cohort.getBalance(column, getRow(variant));
+  }
+
+  /**
+   * Sets the balance or amount of a column for the named variant.
+   */
+  public VariantSweep set(String variant, String column, Money amount) {
+    cohort.setBalance(column, getRow(variant), amount);
+    return this;
+  }
+
+  /**
+   * Sets the annual rate of a column for the named variant.
+   */
+  public VariantSweep setRate(String variant, String column, double rate) {
+    cohort.setRate(column, getRow(variant), rate);
+    return this;
+  }
+
+  /**
+   * Returns a table of the specified columns, one line per variant.
+   */
+  public String toString(String... columns) {
+    StringBuilder builder = new StringBuilder();
+    builder.append(String.format("%-40s", "variant"));
+    for (String column : columns) {
+      builder.append(String.format("|%16s", column));
+    }
+    builder.append('\n');
+    for (int row = 0; row < names.size(); row++) {
+      builder.append(String.format("%-40s", names.get(row)));
+      for (String column : columns) {
+        builder.append(String.format("|%16s", cohort.getBalance(column, row)));
+      }
+      builder.append('\n');
+    }
+    return builder.toString();
+  }
+}
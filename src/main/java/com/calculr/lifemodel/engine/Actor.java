@@ -28,12 +28,19 @@ public abstract class Actor<T extends Actor<T>> {
      * The state is registered and enabled, and all tasks invoked by this state
      * will be executed.
      */
-    ENABLED
+    ENABLED,
+    
+    /**
+     * The actor has been retired. Its pending tasks are skipped and no new tasks can be
+     * scheduled.
+     */
+    RETIRED
   }
   private State state = State.REGISTERED;
   
   private final Simulation simulation;
-  
+  private Footprint footprint;
+
   @SuppressWarnings("unchecked")
   protected Actor(Simulation simulation) {
     this.simulation = simulation;
@@ -44,40 +51,90 @@ public abstract class Actor<T extends Actor<T>> {
   /**
    * Schedules a {@link Task} to execute on the specified date.
    */
-  public void schedule(LocalDate date, Task<T> task) {
-    scheduleInternal(date, task, TimeOfDay.WITHIN_DAY);
+  public ScheduleHandle schedule(LocalDate date, Task<T> task) {
+    return scheduleInternal(date, task, TimeOfDay.WITHIN_DAY);
   }
 
   /**
    * Schedules a {@link Task} to execute at the start of the specified date.
    */
-  public void scheduleStartOfDay(LocalDate date, Task<T> task) {
-    scheduleInternal(date, task, TimeOfDay.START_OF_DAY);
+  public ScheduleHandle scheduleStartOfDay(LocalDate date, Task<T> task) {
+    return scheduleInternal(date, task, TimeOfDay.START_OF_DAY);
   }
 
   /**
    * Schedules a {@link Task} to execute at the end of the specified date.
    */
-  public void scheduleEndOfDay(LocalDate date, Task<T> task) {
-    scheduleInternal(date, task, TimeOfDay.END_OF_DAY);
+  public ScheduleHandle scheduleEndOfDay(LocalDate date, Task<T> task) {
+    return scheduleInternal(date, task, TimeOfDay.END_OF_DAY);
+  }
+
+  /**
+   * Schedules a {@link Task} to execute at the end of the current date. If the end of the
+   * day is already running, the task executes immediately instead.
+   */
+  protected ScheduleHandle scheduleEndOfCurrentDay(Task<T> task) {
+    if (simulation.getScheduler().getCurrentTimeOfDay() == TimeOfDay.END_OF_DAY) {
+      return scheduleImmediately(task);
+    }
+    return scheduleInternal(simulation.getCurrentDate(), task, TimeOfDay.END_OF_DAY);
   }
 
   /**
    * Schedules a {@link Task} to execute immediately.
    */
-  protected void scheduleImmediately(Task<T> task) {
-    scheduleInternal(simulation.getCurrentDate(), task, TimeOfDay.IMMEDIATELY);
+  protected ScheduleHandle scheduleImmediately(Task<T> task) {
+    return scheduleInternal(simulation.getCurrentDate(), task, TimeOfDay.IMMEDIATELY);
   }
   
-  void scheduleInternal(LocalDate date, Task<T> task, TimeOfDay timeOfDay) {
-    if (state == State.UNREGISTERED) {
-      throw new SchedulerException("Actor '%s' can not be scheduled if it's not registered.",
-          this);      
+  ScheduleHandle scheduleInternal(LocalDate date, Task<T> task, TimeOfDay timeOfDay) {
+    switch (state) {
+      case UNREGISTERED -> throw new SchedulerException(
+          "Actor '%s' can not be scheduled if it's not registered.", this);
+      case RETIRED -> {
+        return ScheduleHandle.CANCELLED;
+      }
+      default -> state = State.ENABLED;
     }
-    state = State.ENABLED;
     @SuppressWarnings("unchecked")
     T actor = (T) this;
-    simulation.getScheduler().scheduleFromActor(date, timeOfDay, actor, task);    
+    return simulation.getScheduler().scheduleFromActor(date, timeOfDay, actor, task);    
+  }
+  
+  /**
+   * Retires this {@link Actor}. All of its pending tasks, including recurring tasks, are
+   * skipped when they are reached and any later attempt to schedule a task is ignored.
+   */
+  public void retire() {
+    if (state != State.RETIRED) {
+      state = State.RETIRED;
+      onRetire(simulation.getCurrentDate());
+    }
+  }
+  
+  /**
+   * Returns {@code true} if this {@link Actor} has been retired.
+   */
+  public boolean isRetired() {
+    return state == State.RETIRED;
+  }
+
+  /**
+   * Declares the objects that the tasks of this {@link Actor} read or write, allowing them to
+   * run concurrently with tasks of other actors when the simulation runs in parallel.
+   *
+   * @see Simulator#setParallelism(int)
+   */
+  public void setFootprint(Footprint footprint) {
+    this.footprint = footprint;
+  }
+
+  /**
+   * Returns the declared {@link Footprint} of this {@link Actor}, or {@code null} if its tasks
+   * may touch anything and must run alone.
+   */
+  public Footprint getFootprint() {
+    return footprint;
   }
   
   private static class ScheduleSpec {
@@ -214,9 +271,11 @@ public abstract class Actor<T extends Actor<T>> {
       this.spec = spec;
     }
 
-    public void schedule(Task<T> task) {   
-      scheduleInternal(spec.starting.start(spec.startingDate), new RepeatingTask<>(task, spec),
-          spec.timeOfDay);
+    public ScheduleHandle schedule(Task<T> task) {   
+      RepeatingTask<T> repeatingTask = new RepeatingTask<>(task, spec);
+      repeatingTask.pending = scheduleInternal(spec.starting.start(spec.startingDate),
+          repeatingTask, spec.timeOfDay);
+      return repeatingTask;
     }
     
 //    public void schedule(SimpleTask task) {
@@ -225,9 +284,11 @@ public abstract class Actor<T extends Actor<T>> {
 //    }
   }
   
-  static class RepeatingTask<T extends Actor<T>> implements Task<T> {
+  static class RepeatingTask<T extends Actor<T>> implements Task<T>, ScheduleHandle {
     private final Task<T> task;
     private final ScheduleSpec spec;
+    private ScheduleHandle pending = ScheduleHandle.CANCELLED;
+    private boolean cancelled;
     
     RepeatingTask(Task<T> task, ScheduleSpec spec) {
       this.task = task;
@@ -238,14 +299,26 @@ public abstract class Actor<T extends Actor<T>> {
     public void run(TaskContext<T> context) {      
       // Run this iteration.
       task.run(context);
-      if (spec.repeating.isEmpty()) {
+      if (spec.repeating.isEmpty() || cancelled) {
         return;
       }
       LocalDate date = context.getDate();
       if (!spec.completing.isComplete(date)) {
-        context.getActor().scheduleInternal(spec.repeating.get().next(date), this, spec.timeOfDay);
+        pending = context.getActor().scheduleInternal(spec.repeating.get().next(date), this,
+            spec.timeOfDay);
       }
     }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      pending.cancel();
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
   }
   
   /**
@@ -259,4 +332,11 @@ public abstract class Actor<T extends Actor<T>> {
    * Invokes any code that should run at the moment the {@link Actor} is registered.
    */
   public abstract void onRegister(LocalDate date);
+  
+  /**
+   * Invokes any code that should run at the moment the {@link Actor} is retired.
+   */
+  protected void onRetire(LocalDate date) {
+    // Nothing to release by default.
+  }
 }
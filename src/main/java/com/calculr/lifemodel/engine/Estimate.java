@@ -0,0 +1,54 @@
+package com.calculr.lifemodel.engine;
+
+/**
+ * The estimate of the expected value of a metric over the replicas of a
+ * {@link MonteCarloExperiment}, with its standard error.
+ */
+public final class Estimate {
+  private final double mean;
+  private final double standardError;
+  private final int replicas;
+
+  private Estimate(double mean, double standardError, int replicas) {
+    this.mean = mean;
+    this.standardError = standardError;
+    this.replicas = replicas;
+  }
+
+  /**
+   * Constructs a new {@link Estimate}.
+   *
+   * @param mean the estimated expected value
+   * @param standardError the standard error of the estimate
+   * @param replicas the number of replicas the estimate is based on
+   */
+  public static Estimate of(double mean, double standardError, int replicas) {
+    return new Estimate(mean, standardError, replicas);
+  }
+
+  /**
+   * Returns the estimated expected value. Money metrics are estimated in dollars.
+   */
+  public double getMean() {
+    return mean;
+  }
+
+  /**
+   * Returns the standard error of the estimate, in the units of the mean.
+   */
+  public double getStandardError() {
+    return standardError;
+  }
+
+  /**
+   * Returns the number of replicas the estimate is based on.
+   */
+  public int getReplicas() {
+    return replicas;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%,.2f +/- %,.2f (%d replicas)", mean, standardError, replicas);
+  }
+}
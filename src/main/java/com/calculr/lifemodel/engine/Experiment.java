@@ -11,6 +11,7 @@ import java.util.Set;
 
 public class Experiment {
   private Collection<Trial> trials;
+  private OutcomePolicy outcomePolicy = OutcomePolicy.THROW;
   
   Experiment(Collection<Trial> trials) {
     this.trials = trials;
@@ -20,6 +21,14 @@ public class Experiment {
     return new Experiment(Arrays.asList(trials));
   }
   
+  /**
+   * Sets the {@link OutcomePolicy} of the simulation of each {@link Trial}.
+   */
+  public Experiment setOutcomePolicy(OutcomePolicy policy) {
+    this.outcomePolicy = policy;
+    return this;
+  }
+  
   /**
    * Executes each of the specified trials, returning a summarized result at the
    * end.
@@ -30,9 +39,11 @@ public class Experiment {
    */
   public void run(LocalDate start) {
     Map<String, Collection<Metric<?>>> trialMetrics = new LinkedHashMap<>();
+    Map<String, Map<String, Long>> trialOutcomes = new LinkedHashMap<>();
     Set<String> metricNames = new HashSet<>();
+    long trialId = 0;
     for (Trial trial : trials) {
-      Simulation sim = Simulator.create(start);
+      Simulation sim = Simulator.create(start, ++trialId).setOutcomePolicy(outcomePolicy);
       System.out.println("Running Trial <" + trial.getTrialName() + ">");
       trial.run(start, sim);
       Collection<Metric<?>> metrics = sim.getMetrics();
@@ -40,6 +51,7 @@ public class Experiment {
         metricNames.add(metric.getName());
       }
       trialMetrics.put(trial.getTrialName(), metrics);
+      trialOutcomes.put(trial.getTrialName(), sim.getOutcomeCounts());
     }
     
     for (Entry<String, Collection<Metric<?>>> entry : trialMetrics.entrySet()) {
@@ -47,6 +59,9 @@ public class Experiment {
       for (Metric<?> metric : entry.getValue()) {
         System.out.println("  " + metric);
       }
+      for (Entry<String, Long> outcome : trialOutcomes.get(entry.getKey()).entrySet()) {
+        System.out.println("  Outcome " + outcome.getKey() + ": " + outcome.getValue());
+      }
     }
   }
 }
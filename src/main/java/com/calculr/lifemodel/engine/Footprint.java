@@ -0,0 +1,83 @@
+package com.calculr.lifemodel.engine;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * The set of objects that the tasks of an {@link Actor} read or write, such as accounts and
+ * their ledgers.
+ *
+ * <p>When a {@link Simulator} runs with a parallelism greater than one, tasks of the same lane
+ * whose actors declare disjoint footprints run concurrently, while tasks that share an object
+ * keep the order of the lane. An actor without a footprint conflicts with every other task and
+ * always runs alone. Objects are compared by identity.
+ */
+public final class Footprint {
+  private final Set<Object> resources;
+
+  private Footprint(Set<Object> resources) {
+    this.resources = resources;
+  }
+
+  /**
+   * Constructs a new {@link Footprint} of the specified objects.
+   */
+  public static Footprint of(Object... resources) {
+    Set<Object> set = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Object resource : resources) {
+      if (resource == null) {
+        throw new IllegalArgumentException("A footprint can not contain null");
+      }
+      set.add(resource);
+    }
+    return new Footprint(set);
+  }
+
+  /**
+   * Constructs a new {@link Footprint} containing the objects of every footprint, building a
+   * single set rather than one per footprint as repeated calls to {@link #with} would.
+   */
+  public static Footprint union(Iterable<Footprint> footprints) {
+    Set<Object> set = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Footprint footprint : footprints) {
+      set.addAll(footprint.resources);
+    }
+    return new Footprint(set);
+  }
+
+  /**
+   * Returns a new {@link Footprint} containing the objects of both footprints.
+   */
+  public Footprint with(Footprint other) {
+    Set<Object> set = Collections.newSetFromMap(new IdentityHashMap<>());
+    set.addAll(resources);
+    set.addAll(other.resources);
+    return new Footprint(set);
+  }
+
+  /**
+   * Returns {@code true} if the object is part of this footprint.
+   */
+  public boolean contains(Object resource) {
+    return resources.contains(resource);
+  }
+
+  /**
+   * Returns {@code true} if this footprint shares any object with another footprint.
+   */
+  public boolean conflictsWith(Footprint other) {
+    Set<Object> smaller = resources.size() <= other.resources.size() ? resources : other.resources;
+    Footprint larger = smaller == resources ? other : this;
+    for (Object resource : smaller) {
+      if (larger.contains(resource)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  Iterable<Object> getResources() {
+    return resources;
+  }
+}
@@ -0,0 +1,322 @@
+package com.calculr.lifemodel.engine;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.calculr.lifemodel.finance.Money;
+
+/**
+ * Runs replicas of a stochastic {@link Trial} and estimates the expected value of each of its
+ * metrics, with the standard error of the estimate.
+ *
+ * <p>Each replica runs in its own {@link Simulation}, whose {@link RandomStream} is chosen by
+ * the experiment. Plain sampling gives each replica independent numbers, and the standard error
+ * falls with the square root of the number of replicas. Variance reduction reaches the same
+ * standard error with fewer replicas:
+ * <ul>
+ * <li>Antithetic variates pair each replica with one drawing the negated gaussian numbers, which
+ * cancels the part of a metric that is linear in its inputs.
+ * <li>Stratified sampling places the first draw of each replica in one of equally likely strata,
+ * which removes the variance between strata. Trials should draw their most influential input
+ * first.
+ * <li>A control variate is a second metric with a known expected value, such as a payment
+ * computed analytically from the same draws. The estimate is corrected by the deviation of the
+ * control from its expected value.
+ * <li>Quasi-random sampling gives each replica a point of a scrambled {@link SobolSequence}
+ * instead of independent numbers, which converges much faster for metrics that are smooth in
+ * their inputs. The replicas are split among independent scramblings, whose means give the
+ * standard error.
+ * </ul>
+ */
+public final class MonteCarloExperiment {
+
+  /**
+   * The way the random numbers of the replicas are drawn.
+   */
+  public enum Sampling {
+    /** Each replica draws independent numbers. */
+    PLAIN,
+
+    /** Pairs of replicas draw the same numbers, negated in the second replica. */
+    ANTITHETIC,
+
+    /** The first draw of each replica falls in one of equally likely strata. */
+    STRATIFIED,
+
+    /** Each replica takes a point of one of several scrambled Sobol sequences. */
+    QUASI_RANDOM
+  }
+
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  private final Trial trial;
+  private final int replicas;
+  private final Map<String, ControlVariate> controls = new LinkedHashMap<>();
+  private OutcomePolicy outcomePolicy = OutcomePolicy.THROW;
+  private Sampling sampling = Sampling.PLAIN;
+  private int strata = 1;
+  private int scramblings = 1;
+  private long seed;
+
+  private MonteCarloExperiment(Trial trial, int replicas) {
+    this.trial = trial;
+    this.replicas = replicas;
+  }
+
+  /**
+   * Constructs a new {@link MonteCarloExperiment} running the specified number of replicas of a
+   * trial.
+   */
+  public static MonteCarloExperiment create(Trial trial, int replicas) {
+    if (replicas < 2) {
+      throw new IllegalArgumentException("An estimate needs at least two replicas");
+    }
+    return new MonteCarloExperiment(trial, replicas);
+  }
+
+  /**
+   * Sets the seed from which the random numbers of every replica are derived.
+   */
+  public MonteCarloExperiment setSeed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Sets the {@link OutcomePolicy} of the simulation of each replica.
+   */
+  public MonteCarloExperiment setOutcomePolicy(OutcomePolicy policy) {
+    this.outcomePolicy = policy;
+    return this;
+  }
+
+  /**
+   * Runs the replicas in antithetic pairs.
+   *
+   * @throws IllegalArgumentException if the number of replicas is odd, or less than four
+   */
+  public MonteCarloExperiment useAntitheticVariates() {
+    if (replicas % 2 != 0 || replicas < 4) {
+      throw new IllegalArgumentException(
+          "Antithetic variates need an even number of replicas, at least four");
+    }
+    this.sampling = Sampling.ANTITHETIC;
+    this.strata = 1;
+    return this;
+  }
+
+  /**
+   * Stratifies the first draw of the replicas into the specified number of strata.
+   *
+   * @throws IllegalArgumentException unless each stratum has the same number of replicas, and
+   *     at least two
+   */
+  public MonteCarloExperiment useStratifiedSampling(int strata) {
+    if (strata < 1 || replicas % strata != 0 || replicas / strata < 2) {
+      throw new IllegalArgumentException(String.format(
+          "%d replicas can not be split into %d strata of at least two", replicas, strata));
+    }
+    this.sampling = Sampling.STRATIFIED;
+    this.strata = strata;
+    return this;
+  }
+
+  /**
+   * Draws the replicas from the specified number of independently scrambled Sobol sequences,
+   * each giving the same number of replicas, preferably a power of two.
+   *
+   * @throws IllegalArgumentException unless each scrambling has the same number of replicas,
+   *     and there are at least two scramblings
+   */
+  public MonteCarloExperiment useQuasiRandom(int scramblings) {
+    if (scramblings < 2 || replicas % scramblings != 0) {
+      throw new IllegalArgumentException(String.format(
+          "%d replicas can not be split into %d scramblings", replicas, scramblings));
+    }
+    this.sampling = Sampling.QUASI_RANDOM;
+    this.scramblings = scramblings;
+    return this;
+  }
+
+  /**
+   * Corrects the estimate of a metric by a control metric of the same replicas, whose expected
+   * value is known. Money metrics are in dollars.
+   */
+  public MonteCarloExperiment addControlVariate(String metric, String control, double expected) {
+    controls.put(metric, new ControlVariate(control, expected));
+    return this;
+  }
+
+  /**
+   * Returns the {@link Sampling} of the replicas.
+   */
+  public Sampling getSampling() {
+    return sampling;
+  }
+
+  /**
+   * Runs every replica, returning the estimate of each numeric metric reported by all of them,
+   * by metric name.
+   *
+   * @param start the start date of the simulation of each replica
+   * @throws IllegalStateException if control variates are combined with stratified sampling
+   */
+  public Map<String, Estimate> run(LocalDate start) {
+    if (sampling == Sampling.STRATIFIED && !controls.isEmpty()) {
+      throw new IllegalStateException(
+          "Control variates can not be combined with stratified sampling");
+    }
+    SobolSequence[] sequences = new SobolSequence[scramblings];
+    for (int i = 0; i < scramblings; i++) {
+      sequences[i] = SobolSequence.scrambled(seed + i * GOLDEN_GAMMA);
+    }
+    Map<String, double[]> values = new LinkedHashMap<>();
+    for (int replica = 0; replica < replicas; replica++) {
+      Simulation sim = Simulator.create(start, replica + 1).setOutcomePolicy(outcomePolicy);
+      RandomStream stream = createStream(replica, sequences);
+      sim.getComponent(RandomStream.class, s -> stream);
+      trial.run(start, sim);
+      for (Metric<?> metric : sim.getMetrics()) {
+        double[] metricValues = values.computeIfAbsent(metric.getName(), name -> {
+          double[] missing = new double[replicas];
+          Arrays.fill(missing, Double.NaN);
+          return missing;
+        });
+        metricValues[replica] = toDouble(metric.getValue());
+      }
+    }
+
+    Map<String, Estimate> estimates = new LinkedHashMap<>();
+    for (Map.Entry<String, double[]> entry : values.entrySet()) {
+      if (Arrays.stream(entry.getValue()).anyMatch(Double::isNaN)) {
+        continue;
+      }
+      ControlVariate control = controls.get(entry.getKey());
+      if (control == null) {
+        estimates.put(entry.getKey(), estimate(entry.getValue()));
+      } else {
+        double[] controlValues = values.get(control.metric);
+        if (controlValues == null || Arrays.stream(controlValues).anyMatch(Double::isNaN)) {
+          throw new IllegalStateException(String.format(
+              "Control metric '%s' was not reported by every replica", control.metric));
+        }
+        estimates.put(entry.getKey(),
+            estimate(entry.getValue(), controlValues, control.expected));
+      }
+    }
+    return estimates;
+  }
+
+  private RandomStream createStream(int replica, SobolSequence[] sequences) {
+    switch (sampling) {
+      case QUASI_RANDOM:
+        int points = replicas / scramblings;
+        return RandomStream.sobol(sequences[replica / points], replica % points);
+      case ANTITHETIC:
+        long pairSeed = seed + (replica / 2) * GOLDEN_GAMMA;
+        return replica % 2 == 0
+            ? RandomStream.seeded(pairSeed) : RandomStream.antithetic(pairSeed);
+      case STRATIFIED:
+        return RandomStream.stratified(seed + replica * GOLDEN_GAMMA, replica % strata, strata);
+      default:
+        return RandomStream.seeded(seed + replica * GOLDEN_GAMMA);
+    }
+  }
+
+  private static double toDouble(Object value) {
+    if (value instanceof Money) {
+      return ((Money) value).toPrimitive() / (double) Money.dollars(1).toPrimitive();
+    } else if (value instanceof Number) {
+      return ((Number) value).doubleValue();
+    }
+    return Double.NaN;
+  }
+
+  private Estimate estimate(double[] values) {
+    if (sampling == Sampling.STRATIFIED) {
+      // Strata are equally likely, so the estimate is the mean of the means of the strata.
+      int perStratum = replicas / strata;
+      double mean = 0;
+      double variance = 0;
+      for (int stratum = 0; stratum < strata; stratum++) {
+        double[] stratumValues = new double[perStratum];
+        for (int i = 0; i < perStratum; i++) {
+          stratumValues[i] = values[i * strata + stratum];
+        }
+        mean += mean(stratumValues) / strata;
+        variance += variance(stratumValues) / perStratum / ((double) strata * strata);
+      }
+      return Estimate.of(mean, Math.sqrt(variance), replicas);
+    }
+    double[] units = independentUnits(values);
+    return Estimate.of(mean(units), Math.sqrt(variance(units) / units.length), replicas);
+  }
+
+  private Estimate estimate(double[] values, double[] controlValues, double expected) {
+    double[] units = independentUnits(values);
+    double[] controlUnits = independentUnits(controlValues);
+    double controlVariance = variance(controlUnits);
+    double beta = controlVariance == 0 ? 0 : covariance(units, controlUnits) / controlVariance;
+    double[] corrected = new double[units.length];
+    for (int i = 0; i < units.length; i++) {
+      corrected[i] = units[i] - beta * (controlUnits[i] - expected);
+    }
+    // One more degree of freedom is spent estimating the coefficient of the control.
+    double residual = variance(corrected) * (units.length - 1) / Math.max(1, units.length - 2);
+    return Estimate.of(mean(corrected), Math.sqrt(residual / units.length), replicas);
+  }
+
+  /**
+   * Returns the independent observations of the replicas: the mean of each antithetic pair, the
+   * mean of each scrambling, or each replica.
+   */
+  private double[] independentUnits(double[] values) {
+    int groupSize;
+    if (sampling == Sampling.ANTITHETIC) {
+      groupSize = 2;
+    } else if (sampling == Sampling.QUASI_RANDOM) {
+      groupSize = replicas / scramblings;
+    } else {
+      return values;
+    }
+    double[] groups = new double[values.length / groupSize];
+    for (int i = 0; i < groups.length; i++) {
+      groups[i] = mean(Arrays.copyOfRange(values, i * groupSize, (i + 1) * groupSize));
+    }
+    return groups;
+  }
+
+  private static double mean(double[] values) {
+    double sum = 0;
+    for (double value : values) {
+      sum += value;
+    }
+    return sum / values.length;
+  }
+
+  private static double variance(double[] values) {
+    return covariance(values, values);
+  }
+
+  private static double covariance(double[] x, double[] y) {
+    double meanX = mean(x);
+    double meanY = mean(y);
+    double sum = 0;
+    for (int i = 0; i < x.length; i++) {
+      sum += (x[i] - meanX) * (y[i] - meanY);
+    }
+    return sum / (x.length - 1);
+  }
+
+  private static final class ControlVariate {
+    private final String metric;
+    private final double expected;
+
+    ControlVariate(String metric, double expected) {
+      this.metric = metric;
+      this.expected = expected;
+    }
+  }
+}
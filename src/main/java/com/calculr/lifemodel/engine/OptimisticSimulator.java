@@ -0,0 +1,555 @@
+package com.calculr.lifemodel.engine;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.calculr.lifemodel.finance.SchedulerException;
+
+/**
+ * Runs loosely coupled partitions of a model optimistically, letting each partition advance
+ * through simulated time on its own thread without waiting for the others (Time Warp).
+ *
+ * <p>A message sent with {@link #send(Simulation, int, Object)} is delivered to the
+ * {@link Receiver} of another partition at the start of the following day. When a message
+ * arrives for a day that its recipient has already simulated (a straggler), the recipient rolls
+ * back: since actors can not be copied, the partition is rebuilt from its {@link Model} and
+ * replays the messages it received up to the day before the straggler. Its own messages from
+ * the rolled back days are cancelled with anti-messages, which may roll back their recipients
+ * in turn. Since a partition is deterministic for a given set of messages, its message log
+ * serves as its checkpoint.
+ *
+ * <p>Partitions may run at most a window of days ahead of the global virtual time, the date
+ * through which every partition has committed. Once all partitions reach the end of the window
+ * with no messages in flight, the window advances and messages sent before the global virtual
+ * time are discarded, since they can no longer be cancelled. A larger window waits less often,
+ * at the cost of longer rollbacks.
+ *
+ * <p>A {@link CheckpointingModel} is checkpointed each time the window advances. A rollback
+ * then restores the partition from its last checkpoint and replays at most one window, and
+ * received messages up to the global virtual time are discarded. Otherwise, a rollback replays every day since the start date, and its cost grows
+ * with the simulated time.
+ *
+ * <p>Messages are delivered in the order of their sending partitions, and then in the order
+ * they were sent, so the final state of each partition does not depend on thread timing.
+ */
+public final class OptimisticSimulator {
+  private static final int DEFAULT_WINDOW_DAYS = 30;
+
+  /**
+   * Builds the actors of one partition. A partition is built again each time it rolls back, so
+   * the model must not keep state between builds other than through the partition.
+   */
+  public interface Model {
+
+    /**
+     * Creates the actors of the partition, returning the {@link Receiver} of its messages.
+     */
+    Receiver build(Simulator partition, int index);
+  }
+
+  /**
+   * A {@link Model} that can checkpoint the state of a partition and build it again from a
+   * checkpoint.
+   */
+  public interface CheckpointingModel extends Model {
+
+    /**
+     * Returns the state of the actors of a partition at the end of its current date, or
+     * {@code null} to skip this checkpoint. The state must not change as the partition runs on.
+     */
+    Object checkpoint(Simulator partition, int index);
+
+    /**
+     * Creates the actors of a partition starting the day after a checkpoint, in the state of the
+     * checkpoint, returning the {@link Receiver} of its messages. Metrics and outcomes of the
+     * partition before the checkpoint are not restored, so a model that checkpoints should keep
+     * its results in its state.
+     */
+    Receiver restore(Simulator partition, int index, Object checkpoint);
+  }
+
+  /**
+   * Receives the messages sent to a partition.
+   */
+  public interface Receiver {
+
+    /**
+     * Receives a message before the tasks of the delivery date run, typically by scheduling a
+     * task on that date.
+     */
+    void receive(LocalDate date, Object payload);
+  }
+
+  private static final Comparator<Message> DELIVERY_ORDER = Comparator
+      .comparing((Message message) -> message.deliveryDate)
+      .thenComparingInt(message -> message.sender)
+      .thenComparingInt(message -> message.ordinal);
+
+  private final LocalDate startDate;
+  private final long firstId;
+  private final Model model;
+  private final Partition[] partitions;
+  private final Object monitor = new Object();
+  private final AtomicLong rollbacks = new AtomicLong();
+  private final AtomicLong replayedDays = new AtomicLong();
+  private int windowDays = DEFAULT_WINDOW_DAYS;
+  private LocalDate endDate;
+  private LocalDate committedDate;
+
+  // Guarded by the monitor.
+  private int idleCount;
+  private boolean quiescent;
+
+  private OptimisticSimulator(LocalDate startDate, int partitionCount, long firstId,
+      Model model) {
+    this.startDate = startDate;
+    this.firstId = firstId;
+    this.model = model;
+    this.committedDate = startDate.minusDays(1);
+    partitions = new Partition[partitionCount];
+    for (int i = 0; i < partitionCount; i++) {
+      partitions[i] = new Partition(i);
+    }
+    for (Partition partition : partitions) {
+      partition.build();
+    }
+  }
+
+  /**
+   * Constructs a new {@link OptimisticSimulator} with the specified number of partitions, built
+   * by the model. Partitions are given consecutive simulation identifiers, starting with
+   * {@code firstId}, so that a rebuilt partition produces the same records.
+   */
+  public static OptimisticSimulator create(LocalDate startDate, int partitions, long firstId,
+      Model model) {
+    if (partitions < 1) {
+      throw new IllegalArgumentException("A simulation needs at least one partition");
+    }
+    return new OptimisticSimulator(startDate, partitions, firstId, model);
+  }
+
+  /**
+   * Sets the number of days that partitions may run ahead of the global virtual time.
+   */
+  public OptimisticSimulator setWindow(int days) {
+    if (days < 1) {
+      throw new IllegalArgumentException("The window must be at least one day");
+    }
+    this.windowDays = days;
+    return this;
+  }
+
+  /**
+   * Returns the number of partitions.
+   */
+  public int getPartitionCount() {
+    return partitions.length;
+  }
+
+  /**
+   * Returns the {@link Simulator} of the i-th partition. A partition is replaced when it rolls
+   * back, so its state is only final once the simulation has run.
+   */
+  public Simulator getPartition(int i) {
+    return partitions[i].sim;
+  }
+
+  /**
+   * Returns the last date that every partition has committed, which can no longer be rolled
+   * back.
+   */
+  public LocalDate getGlobalVirtualTime() {
+    return committedDate;
+  }
+
+  /**
+   * Returns the number of times any partition has rolled back.
+   */
+  public long getRollbackCount() {
+    return rollbacks.get();
+  }
+
+  /**
+   * Returns the number of days that partitions have simulated again while rolling back.
+   */
+  public long getReplayedDays() {
+    return replayedDays.get();
+  }
+
+  /**
+   * Sends a message to the {@link Receiver} of a partition, delivered at the start of the day
+   * after the current date of the sender. The payload should be immutable, since it may be
+   * delivered again after a rollback.
+   *
+   * @param sender the partition running the calling task
+   * @param recipient the index of the receiving partition
+   * @throws IllegalArgumentException if the sender is not a partition of this simulation
+   */
+  public void send(Simulation sender, int recipient, Object payload) {
+    long index = sender.getSimulationId() - firstId;
+    if (index < 0 || index >= partitions.length || partitions[(int) index].sim != sender) {
+      throw new IllegalArgumentException("The sender is not a partition of this simulation");
+    }
+    if (recipient < 0 || recipient >= partitions.length) {
+      throw new IllegalArgumentException(
+          String.format("There is no partition %d to receive the message", recipient));
+    }
+    partitions[(int) index].send(recipient, payload);
+  }
+
+  /**
+   * Runs every partition until the final date. Tasks and messages after the final date are
+   * discarded, since they can never run.
+   */
+  public void runUntil(LocalDate date) {
+    endDate = date;
+    for (Partition partition : partitions) {
+      partition.start();
+    }
+    List<ExecutorService> threads = new ArrayList<>(partitions.length);
+    for (int i = 0; i < partitions.length; i++) {
+      String name = "partition-" + i;
+      threads.add(Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+      }));
+    }
+    try {
+      while (committedDate.isBefore(date)) {
+        LocalDate bound = committedDate.plusDays(windowDays);
+        if (bound.isAfter(date)) {
+          bound = date;
+        }
+        runWindow(threads, bound);
+        committedDate = bound;
+        for (Partition partition : partitions) {
+          partition.collectFossils();
+        }
+      }
+    } finally {
+      for (ExecutorService thread : threads) {
+        thread.shutdownNow();
+      }
+      for (Partition partition : partitions) {
+        partition.sim.getScheduler().finish();
+      }
+    }
+  }
+
+  /**
+   * Runs every partition through the bound, until all of them are idle with no messages in
+   * flight.
+   */
+  private void runWindow(List<ExecutorService> threads, LocalDate bound) {
+    synchronized (monitor) {
+      idleCount = 0;
+      quiescent = false;
+      for (Partition partition : partitions) {
+        partition.idle = false;
+      }
+    }
+    List<Future<?>> windows = new ArrayList<>(partitions.length);
+    for (int i = 0; i < partitions.length; i++) {
+      Partition partition = partitions[i];
+      windows.add(threads.get(i).submit(() -> partition.run(bound)));
+    }
+    for (Future<?> window : windows) {
+      try {
+        window.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new SchedulerException("Partition failed before %s: %s", bound, e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SchedulerException("Interrupted while waiting for the partitions");
+      }
+    }
+  }
+
+  /**
+   * Adds a message to the inbox of its recipient, waking the recipient if it is idle.
+   */
+  private void post(Message message) {
+    synchronized (monitor) {
+      Partition recipient = partitions[message.recipient];
+      recipient.inbox.add(message);
+      if (recipient.idle) {
+        recipient.idle = false;
+        idleCount--;
+      }
+      monitor.notifyAll();
+    }
+  }
+
+  /**
+   * A message, or the anti-message that cancels it. Both share the same sender, sending date,
+   * and ordinal.
+   */
+  private static final class Message {
+    private final int sender;
+    private final int recipient;
+    private final LocalDate sendDate;
+    private final LocalDate deliveryDate;
+    private final int ordinal;
+    private final Object payload;
+    private final boolean anti;
+
+    Message(int sender, int recipient, LocalDate sendDate, int ordinal, Object payload,
+        boolean anti) {
+      this.sender = sender;
+      this.recipient = recipient;
+      this.sendDate = sendDate;
+      this.deliveryDate = sendDate.plusDays(1);
+      this.ordinal = ordinal;
+      this.payload = payload;
+      this.anti = anti;
+    }
+
+    Message cancel() {
+      return new Message(sender, recipient, sendDate, ordinal, null, true);
+    }
+  }
+
+  /**
+   * The state of one partition. Apart from its inbox and idle flag, a partition is only
+   * accessed by its own thread.
+   */
+  private final class Partition {
+    private final int index;
+    private final Queue<Message> inbox = new ConcurrentLinkedQueue<>();
+    // Received messages that have not been cancelled, in the order of delivery. Once the
+    // partition is checkpointed, only those delivered after the checkpoint are kept.
+    private final NavigableMap<Message, Message> received = new TreeMap<>(DELIVERY_ORDER);
+    // Sent messages that may still be cancelled.
+    private final List<Message> sent = new ArrayList<>();
+    private Simulator sim;
+    private Receiver receiver;
+    private boolean running;
+    private boolean replaying;
+    // The last date simulated by the partition.
+    private LocalDate localDate;
+    private LocalDate sendDate;
+    private int sendOrdinal;
+    // The last checkpoint of the model, if any, and the date it was taken at.
+    private Object checkpoint;
+    private LocalDate checkpointDate;
+    private long checkpointRecords;
+    // Guarded by the monitor.
+    private boolean idle;
+
+    Partition(int index) {
+      this.index = index;
+    }
+
+    void build() {
+      sim = Simulator.create(startDate, firstId + index);
+      receiver = model.build(sim, index);
+      localDate = startDate.minusDays(1);
+      sendDate = null;
+      running = true;
+    }
+
+    /**
+     * Builds the partition from its last checkpoint, as it was at the end of that date.
+     */
+    void restore() {
+      sim = Simulator.create(checkpointDate.plusDays(1), firstId + index);
+      sim.setRecordSequence(checkpointRecords);
+      receiver = ((CheckpointingModel) model).restore(sim, index, checkpoint);
+      localDate = checkpointDate;
+      sendDate = null;
+      running = true;
+    }
+
+    void start() {
+      sim.stopOn(endDate);
+      sim.getScheduler().start();
+    }
+
+    void send(int recipient, Object payload) {
+      LocalDate date = sim.getCurrentDate();
+      if (!date.equals(sendDate)) {
+        sendDate = date;
+        sendOrdinal = 0;
+      }
+      int ordinal = sendOrdinal++;
+      if (replaying || !date.isBefore(endDate)) {
+        // Messages of replayed days were sent before the rollback.
+        return;
+      }
+      Message message = new Message(index, recipient, date, ordinal, payload, false);
+      sent.add(message);
+      post(message);
+    }
+
+    /**
+     * Simulates the partition through the bound, processing messages as they arrive.
+     */
+    void run(LocalDate bound) {
+      try {
+        while (true) {
+          if (!receive() && !step(bound) && !awaitWork()) {
+            return;
+          }
+        }
+      } catch (RuntimeException | Error e) {
+        synchronized (monitor) {
+          // Release the other partitions, which would otherwise wait for this one.
+          quiescent = true;
+          monitor.notifyAll();
+        }
+        throw e;
+      }
+    }
+
+    /**
+     * Takes the messages of the inbox, rolling back if any of them is for a simulated day.
+     */
+    private boolean receive() {
+      Message message = inbox.poll();
+      if (message == null) {
+        return false;
+      }
+      LocalDate rollbackDate = null;
+      for (; message != null; message = inbox.poll()) {
+        if (message.anti) {
+          received.remove(message);
+        } else {
+          received.put(message, message);
+        }
+        if (!message.deliveryDate.isAfter(localDate)
+            && (rollbackDate == null || message.deliveryDate.isBefore(rollbackDate))) {
+          rollbackDate = message.deliveryDate;
+        }
+      }
+      if (rollbackDate != null) {
+        rollback(rollbackDate);
+      }
+      return true;
+    }
+
+    /**
+     * Simulates the next day with tasks or messages, unless it is after the bound.
+     */
+    private boolean step(LocalDate bound) {
+      LocalDate next = running ? sim.getScheduler().getNextDate() : null;
+      Message mail = received.ceilingKey(firstMessageOf(localDate.plusDays(1)));
+      if (mail != null && (next == null || mail.deliveryDate.isBefore(next))) {
+        next = mail.deliveryDate;
+      }
+      if (next == null || next.isAfter(bound)) {
+        return false;
+      }
+      for (Message message : received.subMap(firstMessageOf(next), true,
+          firstMessageOf(next.plusDays(1)), false).values()) {
+        receiver.receive(next, message.payload);
+      }
+      if (running) {
+        running = sim.getScheduler().runThrough(next);
+      }
+      localDate = next;
+      return true;
+    }
+
+    /**
+     * Rebuilds the partition from its last checkpoint, or from the start, and replays its
+     * messages up to the day before the date, cancelling the messages it sent from that date on.
+     */
+    private void rollback(LocalDate date) {
+      rollbacks.incrementAndGet();
+      for (Iterator<Message> iterator = sent.iterator(); iterator.hasNext(); ) {
+        Message message = iterator.next();
+        if (!message.sendDate.isBefore(date)) {
+          post(message.cancel());
+          iterator.remove();
+        }
+      }
+      sim.getScheduler().finish();
+      if (checkpoint == null) {
+        build();
+      } else {
+        restore();
+      }
+      start();
+      replaying = true;
+      try {
+        LocalDate replayDate = date.minusDays(1);
+        while (step(replayDate)) {
+          replayedDays.incrementAndGet();
+        }
+      } finally {
+        replaying = false;
+      }
+    }
+
+    /**
+     * Waits until a message arrives, returning {@code false} once every partition is idle.
+     */
+    private boolean awaitWork() {
+      synchronized (monitor) {
+        while (true) {
+          if (!inbox.isEmpty()) {
+            return true;
+          }
+          if (quiescent) {
+            return false;
+          }
+          if (!idle) {
+            idle = true;
+            if (++idleCount == partitions.length) {
+              quiescent = true;
+              monitor.notifyAll();
+              return false;
+            }
+          }
+          try {
+            monitor.wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SchedulerException("Interrupted while waiting for messages");
+          }
+        }
+      }
+    }
+
+    /**
+     * Discards sent messages that can no longer be cancelled, and checkpoints the partition at
+     * the global virtual time, after which received messages up to that time are discarded.
+     */
+    void collectFossils() {
+      sent.removeIf(message -> !message.sendDate.isAfter(committedDate));
+      if (!(model instanceof CheckpointingModel)) {
+        return;
+      }
+      Object state = ((CheckpointingModel) model).checkpoint(sim, index);
+      if (state != null) {
+        checkpoint = state;
+        checkpointDate = committedDate;
+        checkpointRecords = sim.getRecordSequence();
+        received.headMap(firstMessageOf(committedDate.plusDays(1))).clear();
+      }
+    }
+  }
+
+  /**
+   * Returns a key ordered before every message delivered on the date.
+   */
+  private static Message firstMessageOf(LocalDate deliveryDate) {
+    return new Message(-1, -1, deliveryDate.minusDays(1), -1, null, false);
+  }
+}
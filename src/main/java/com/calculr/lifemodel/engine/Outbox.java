@@ -0,0 +1,98 @@
+package com.calculr.lifemodel.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffers the effects of a task running in a parallel lane that reach beyond the
+ * {@link Footprint} of its {@link Actor}.
+ *
+ * <p>Newly scheduled tasks, metric updates, reported outcomes, and line items delivered to
+ * shared consumers are deferred while the task runs. Once every task of the lane has finished,
+ * the outboxes are flushed in the order of the lane, so the deferred effects are applied in the
+ * same order as in a serial run.
+ *
+ * <p>Immediate tasks of actors within the footprint are not deferred. They run on the same
+ * thread as soon as the task returns, as they would in a serial run, so that a later task of
+ * the lane sharing the footprint sees their effects.
+ */
+public final class Outbox {
+  private static final ThreadLocal<Outbox> CURRENT = new ThreadLocal<>();
+  // The number of parallel lanes running in any simulation, so that serial simulations do not
+  // need to look up the thread local.
+  private static final AtomicInteger ACTIVE_LANES = new AtomicInteger();
+
+  private final Footprint footprint;
+  private final List<Runnable> deferred = new ArrayList<>();
+  private final Queue<Runnable> immediate = new ArrayDeque<>();
+
+  Outbox(Footprint footprint) {
+    this.footprint = footprint;
+  }
+
+  /**
+   * Returns the {@link Outbox} of the task running in a parallel lane on this thread, or
+   * {@code null} if the task runs serially.
+   */
+  public static Outbox current() {
+    return ACTIVE_LANES.get() == 0 ? null : CURRENT.get();
+  }
+
+  /**
+   * Returns {@code true} if the object is part of the footprint of the running task, and can
+   * therefore be modified directly.
+   */
+  public boolean owns(Object resource) {
+    return footprint.contains(resource);
+  }
+
+  /**
+   * Defers an action until the parallel lane has finished.
+   */
+  public void defer(Runnable action) {
+    deferred.add(action);
+  }
+
+  /**
+   * Queues an immediate task of an actor within the footprint, to run once the task returns.
+   */
+  void runAfterTask(Runnable task) {
+    immediate.add(task);
+  }
+
+  /**
+   * Runs the queued immediate tasks, including any they queue in turn.
+   */
+  void runImmediateTasks() {
+    Runnable task;
+    while ((task = immediate.poll()) != null) {
+      task.run();
+    }
+  }
+
+  static void enterLane() {
+    ACTIVE_LANES.incrementAndGet();
+  }
+
+  static void exitLane() {
+    ACTIVE_LANES.decrementAndGet();
+  }
+
+  void bind() {
+    CURRENT.set(this);
+  }
+
+  static void unbind() {
+    CURRENT.remove();
+  }
+
+  void flush() {
+    for (Runnable action : deferred) {
+      action.run();
+    }
+    deferred.clear();
+  }
+}
@@ -0,0 +1,71 @@
+package com.calculr.lifemodel.engine;
+
+import java.time.LocalDate;
+
+/**
+ * A notable event reported by an {@link Actor} during a {@link Simulation}, such as a
+ * default on a payment. Outcomes are recorded and counted by their kind according to the
+ * {@link OutcomePolicy} of the simulation.
+ */
+public final class Outcome {
+  private final LocalDate date;
+  private final String kind;
+  private final String source;
+  private final String format;
+  private final Object[] args;
+
+  private Outcome(LocalDate date, String kind, String source, String format, Object[] args) {
+    this.date = date;
+    this.kind = kind;
+    this.source = source;
+    this.format = format;
+    this.args = args;
+  }
+
+  /**
+   * Constructs a new {@link Outcome}. The description is only formatted when requested.
+   *
+   * @param date the date the outcome occurred
+   * @param kind the kind of outcome, used for counting outcomes
+   * @param source the name of the entity that produced the outcome
+   * @param format the format of the description
+   * @param args the arguments of the description
+   */
+  public static Outcome of(LocalDate date, String kind, String source, String format,
+      Object... args) {
+    return new Outcome(date, kind, source, format, args);
+  }
+
+  /**
+   * Returns the date the outcome occurred.
+   */
+  public LocalDate getDate() {
+    return date;
+  }
+
+  /**
+   * Returns the kind of the outcome.
+   */
+  public String getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns the name of the entity that produced the outcome.
+   */
+  public String getSource() {
+    return source;
+  }
+
+  /**
+   * Returns the formatted description of the outcome.
+   */
+  public String getDescription() {
+    return String.format(format, args);
+  }
+
+  @Override
+  public String toString() {
+    return date + ": " + kind + " <" + source + "> " + getDescription();
+  }
+}
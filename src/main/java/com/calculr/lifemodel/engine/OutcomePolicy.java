@@ -0,0 +1,19 @@
+package com.calculr.lifemodel.engine;
+
+/**
+ * Defines how a {@link Simulation} responds when an {@link Actor} reports an adverse
+ * {@link Outcome}, such as a missed payment.
+ */
+public enum OutcomePolicy {
+  /** The outcome aborts the simulation by throwing an exception. */
+  THROW,
+
+  /** The outcome is recorded and the simulation continues. */
+  CONTINUE,
+
+  /**
+   * The outcome is recorded and the simulation completes at the end of the current day, as
+   * if the final date had been reached.
+   */
+  STOP
+}
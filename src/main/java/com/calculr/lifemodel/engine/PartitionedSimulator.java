@@ -0,0 +1,204 @@
+package com.calculr.lifemodel.engine;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.calculr.lifemodel.finance.SchedulerException;
+
+/**
+ * Runs a large model as several {@link Simulator} partitions, each with its own scheduler and
+ * thread, that only interact through messages.
+ *
+ * <p>A partition typically holds one household or portfolio, such as a balance sheet and its
+ * actors. Partitions advance one scheduled day at a time and meet at a barrier at the end of
+ * each day. A message sent with {@link #send(Simulation, Actor, Task)} is buffered by the
+ * sending partition, and delivered at the next barrier by scheduling its task at the start of
+ * the following day. Messages are delivered in the order of the sending partitions and, within
+ * a partition, in the order they were sent, so a run does not depend on thread timing.
+ *
+ * <p>The run ends on the final date, or at the barrier after any partition completes.
+ */
+public final class PartitionedSimulator {
+  private final List<Simulator> partitions;
+  private final Map<Simulation, Integer> indices = new IdentityHashMap<>();
+  private final List<List<Message<?>>> outboxes;
+
+  private PartitionedSimulator(List<Simulator> partitions) {
+    this.partitions = partitions;
+    outboxes = new ArrayList<>(partitions.size());
+    for (int i = 0; i < partitions.size(); i++) {
+      indices.put(partitions.get(i), i);
+      outboxes.add(new ArrayList<>());
+    }
+  }
+
+  /**
+   * Constructs a new {@link PartitionedSimulator} with the specified number of partitions,
+   * each beginning on the start date.
+   */
+  public static PartitionedSimulator create(LocalDate startDate, int partitions) {
+    checkPartitions(partitions);
+    List<Simulator> simulators = new ArrayList<>(partitions);
+    for (int i = 0; i < partitions; i++) {
+      simulators.add(Simulator.create(startDate));
+    }
+    return new PartitionedSimulator(simulators);
+  }
+
+  /**
+   * Constructs a new {@link PartitionedSimulator} whose partitions are given consecutive
+   * simulation identifiers, starting with {@code firstId}, so that their record identifiers
+   * are the same for every run.
+   */
+  public static PartitionedSimulator create(LocalDate startDate, int partitions, long firstId) {
+    checkPartitions(partitions);
+    List<Simulator> simulators = new ArrayList<>(partitions);
+    for (int i = 0; i < partitions; i++) {
+      simulators.add(Simulator.create(startDate, firstId + i));
+    }
+    return new PartitionedSimulator(simulators);
+  }
+
+  private static void checkPartitions(int partitions) {
+    if (partitions < 1) {
+      throw new IllegalArgumentException("A simulation needs at least one partition");
+    }
+  }
+
+  /**
+   * Returns the number of partitions.
+   */
+  public int getPartitionCount() {
+    return partitions.size();
+  }
+
+  /**
+   * Returns the {@link Simulator} of the i-th partition, used to create its actors.
+   */
+  public Simulator getPartition(int i) {
+    return partitions.get(i);
+  }
+
+  /**
+   * Sends a {@link Task} to an {@link Actor} of any partition. The task runs at the start of the
+   * day after the barrier that follows the current day of the sender.
+   *
+   * @param sender the partition running the calling task
+   * @throws IllegalArgumentException if the sender is not a partition of this simulation
+   */
+  public <T extends Actor<T>> void send(Simulation sender, T recipient, Task<T> task) {
+    Integer index = indices.get(sender);
+    if (index == null) {
+      throw new IllegalArgumentException("The sender is not a partition of this simulation");
+    }
+    // Each partition only appends to its own outbox, so no synchronization is needed while the
+    // partitions run. The barrier publishes the outboxes to the delivering thread.
+    outboxes.get(index).add(new Message<>(recipient, task));
+  }
+
+  /**
+   * Runs every partition until the final date. Tasks scheduled after the final date are
+   * discarded, since they can never run.
+   */
+  public void runUntil(LocalDate date) {
+    for (Simulator partition : partitions) {
+      partition.stopOn(date);
+      partition.getScheduler().start();
+    }
+    List<ExecutorService> threads = new ArrayList<>(partitions.size());
+    for (int i = 0; i < partitions.size(); i++) {
+      String name = "partition-" + i;
+      threads.add(Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+      }));
+    }
+    try {
+      LocalDate next = getNextDate();
+      while (next != null) {
+        if (!runDay(threads, next)) {
+          break;
+        }
+        deliver(next.plusDays(1));
+        next = getNextDate();
+      }
+    } finally {
+      for (ExecutorService thread : threads) {
+        thread.shutdownNow();
+      }
+      for (Simulator partition : partitions) {
+        partition.getScheduler().finish();
+      }
+    }
+  }
+
+  /**
+   * Runs the day on every partition and waits at the barrier.
+   *
+   * @return {@code true} if every partition is still running
+   */
+  private boolean runDay(List<ExecutorService> threads, LocalDate date) {
+    List<Future<Boolean>> days = new ArrayList<>(partitions.size());
+    for (int i = 0; i < partitions.size(); i++) {
+      Scheduler scheduler = partitions.get(i).getScheduler();
+      days.add(threads.get(i).submit(() -> scheduler.runThrough(date)));
+    }
+    boolean running = true;
+    for (Future<Boolean> day : days) {
+      try {
+        running &= day.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new SchedulerException("Partition failed on %s: %s", date, e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SchedulerException("Interrupted while waiting for the partitions on %s", date);
+      }
+    }
+    return running;
+  }
+
+  private void deliver(LocalDate date) {
+    for (List<Message<?>> outbox : outboxes) {
+      for (Message<?> message : outbox) {
+        message.deliver(date);
+      }
+      outbox.clear();
+    }
+  }
+
+  private LocalDate getNextDate() {
+    LocalDate next = null;
+    for (Simulator partition : partitions) {
+      LocalDate date = partition.getScheduler().getNextDate();
+      if (date != null && (next == null || date.isBefore(next))) {
+        next = date;
+      }
+    }
+    return next;
+  }
+
+  private static final class Message<T extends Actor<T>> {
+    private final T recipient;
+    private final Task<T> task;
+
+    Message(T recipient, Task<T> task) {
+      this.recipient = recipient;
+      this.task = task;
+    }
+
+    void deliver(LocalDate date) {
+      recipient.scheduleStartOfDay(date, task);
+    }
+  }
+}
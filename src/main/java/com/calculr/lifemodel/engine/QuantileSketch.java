@@ -0,0 +1,164 @@
+package com.calculr.lifemodel.engine;
+
+import java.util.Arrays;
+
+/**
+ * A mergeable, fixed-accuracy sketch of a distribution of values.
+ *
+ * <p>Values are counted in logarithmically sized buckets such that any reported quantile is
+ * within a relative error of the requested accuracy of an observed value. Positive and
+ * negative values are tracked separately so that balances of either sign can be summarized.
+ * Two sketches with the same accuracy can be merged by adding their bucket counts, which
+ * allows independent replicas to be summarized separately and combined afterwards.
+ */
+public final class QuantileSketch {
+  /** The magnitude below which values are counted as zero. */
+  private static final double MIN_MAGNITUDE = 1e-3;
+
+  private final double relativeAccuracy;
+  private final double logGamma;
+  private final Buckets positive = new Buckets();
+  private final Buckets negative = new Buckets();
+  private long zeroCount;
+  private long count;
+
+  private QuantileSketch(double relativeAccuracy) {
+    this.relativeAccuracy = relativeAccuracy;
+    this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+  }
+
+  /**
+   * Constructs a new, empty {@link QuantileSketch}.
+   *
+   * @param relativeAccuracy the maximum relative error of a reported quantile, between 0 and 1
+   */
+  public static QuantileSketch create(double relativeAccuracy) {
+    if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+      throw new IllegalArgumentException("Relative accuracy must be between 0 and 1");
+    }
+    return new QuantileSketch(relativeAccuracy);
+  }
+
+  /**
+   * Adds a single value to the sketch.
+   */
+  public void add(double value) {
+    if (value > MIN_MAGNITUDE) {
+      positive.increment(index(value), 1);
+    } else if (value < -MIN_MAGNITUDE) {
+      negative.increment(index(-value), 1);
+    } else {
+      zeroCount++;
+    }
+    count++;
+  }
+
+  /**
+   * Merges all values of another {@link QuantileSketch} into this one.
+   *
+   * @throws IllegalArgumentException if the sketches have a different accuracy
+   */
+  public void merge(QuantileSketch other) {
+    if (other.relativeAccuracy != relativeAccuracy) {
+      throw new IllegalArgumentException("Can not merge sketches with different accuracies");
+    }
+    positive.merge(other.positive);
+    negative.merge(other.negative);
+    zeroCount += other.zeroCount;
+    count += other.count;
+  }
+
+  /**
+   * Returns the number of values added to this sketch.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the estimated value at the specified quantile.
+   *
+   * @param quantile the quantile between 0 and 1, e.g. 0.05 for the 5th percentile
+   * @throws IllegalStateException if the sketch is empty
+   */
+  public double getQuantile(double quantile) {
+    if (quantile < 0 || quantile > 1) {
+      throw new IllegalArgumentException("Quantile must be between 0 and 1");
+    }
+    if (count == 0) {
+      throw new IllegalStateException("No values have been added to the sketch");
+    }
+    long rank = (long) Math.floor(quantile * (count - 1));
+
+    // Negative values are ordered from the largest magnitude to the smallest.
+    if (rank < negative.total) {
+      return -value(negative.indexOfRank(negative.total - 1 - rank));
+    }
+    rank -= negative.total;
+    if (rank < zeroCount) {
+      return 0;
+    }
+    rank -= zeroCount;
+    return value(positive.indexOfRank(rank));
+  }
+
+  private int index(double magnitude) {
+    return (int) Math.ceil(Math.log(magnitude) / logGamma);
+  }
+
+  private double value(int index) {
+    // The midpoint of the bucket (gamma^(i-1), gamma^i] in relative terms.
+    return 2 * Math.exp(index * logGamma) / (1 + Math.exp(logGamma));
+  }
+
+  /**
+   * A dense array of counts for contiguous bucket indices.
+   */
+  private static final class Buckets {
+    private long[] counts = new long[0];
+    private int offset;
+    private long total;
+
+    void increment(int index, long amount) {
+      ensureCapacity(index);
+      counts[index - offset] += amount;
+      total += amount;
+    }
+
+    void merge(Buckets other) {
+      for (int i = 0; i < other.counts.length; i++) {
+        if (other.counts[i] != 0) {
+          increment(other.offset + i, other.counts[i]);
+        }
+      }
+    }
+
+    /** Returns the bucket index containing the value at the rank, in ascending order. */
+    int indexOfRank(long rank) {
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen > rank) {
+          return offset + i;
+        }
+      }
+      return offset + counts.length - 1;
+    }
+
+    private void ensureCapacity(int index) {
+      if (counts.length == 0) {
+        counts = new long[16];
+        offset = index - counts.length / 2;
+      } else if (index < offset) {
+        int grow = Math.max(offset - index, counts.length);
+        long[] larger = new long[counts.length + grow];
+        System.arraycopy(counts, 0, larger, grow, counts.length);
+        counts = larger;
+        offset -= grow;
+      } else if (index >= offset + counts.length) {
+        int grow = Math.max(index - offset - counts.length + 1, counts.length);
+        counts = Arrays.copyOf(counts, counts.length + grow);
+      }
+    }
+  }
+}
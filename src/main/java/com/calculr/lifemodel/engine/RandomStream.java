@@ -0,0 +1,129 @@
+package com.calculr.lifemodel.engine;
+
+/**
+ * The stream of random numbers of one {@link Simulation}.
+ *
+ * <p>Actors draw their random inputs from {@link #of(Simulation)} rather than from their own
+ * generators, so that an experiment controls every draw of a replica: it can replay the same
+ * numbers, negate them, place them in a stratum, or take them from a low-discrepancy sequence.
+ * Every draw is a single uniform number, and gaussian numbers are produced by inverting the
+ * normal distribution, so that a transformation of the uniform numbers carries over to the
+ * gaussian ones.
+ *
+ * <p>Each draw is the coordinate of a replica in one dimension. Sequential draws take the next
+ * unused dimension, and an input drawn on many dates, such as a monthly rate, reserves a block of
+ * dimensions so that it reads the same dimension on the same date in every replica.
+ */
+public interface RandomStream {
+
+  /**
+   * Returns the uniform number of the specified dimension, strictly between zero and one.
+   */
+  double getUniform(int dimension);
+
+  /**
+   * Reserves the specified number of consecutive dimensions, returning the first of them.
+   */
+  int reserveDimensions(int count);
+
+  /**
+   * Returns the uniform number of the next unused dimension.
+   */
+  default double nextUniform() {
+    return getUniform(reserveDimensions(1));
+  }
+
+  /**
+   * Returns the standard gaussian number of the specified dimension.
+   */
+  default double getGaussian(int dimension) {
+    return normalQuantile(getUniform(dimension));
+  }
+
+  /**
+   * Returns the next standard gaussian number.
+   */
+  default double nextGaussian() {
+    return normalQuantile(nextUniform());
+  }
+
+  /**
+   * Returns the next gaussian number of the specified mean and standard deviation.
+   */
+  default double nextGaussian(double mean, double standardDeviation) {
+    return mean + standardDeviation * nextGaussian();
+  }
+
+  /**
+   * Returns the stream of the simulation, seeded by the simulation identifier unless an
+   * experiment provided one.
+   */
+  static RandomStream of(Simulation sim) {
+    return sim.getComponent(RandomStream.class, s -> seeded(s.getSimulationId()));
+  }
+
+  /**
+   * Returns a stream of pseudo-random numbers.
+   */
+  static RandomStream seeded(long seed) {
+    return new SeededRandomStream(seed, false, 0, 1);
+  }
+
+  /**
+   * Returns the antithetic stream of {@link #seeded(long)}, which draws {@code 1 - u} for each
+   * of its uniform numbers {@code u}, and so the negation of each of its gaussian numbers.
+   */
+  static RandomStream antithetic(long seed) {
+    return new SeededRandomStream(seed, true, 0, 1);
+  }
+
+  /**
+   * Returns a stream of pseudo-random numbers whose first dimension falls in the specified one of
+   * {@code strata} intervals of equal probability.
+   */
+  static RandomStream stratified(long seed, int stratum, int strata) {
+    if (stratum < 0 || stratum >= strata) {
+      throw new IllegalArgumentException(
+          String.format("There is no stratum %d of %d strata", stratum, strata));
+    }
+    return new SeededRandomStream(seed, false, stratum, strata);
+  }
+
+  /**
+   * Returns the stream of the point of a {@link SobolSequence} at the specified index. The
+   * replicas of an experiment take consecutive points of the same sequence.
+   */
+  static RandomStream sobol(SobolSequence sequence, long index) {
+    return new SobolRandomStream(sequence, index);
+  }
+
+  /**
+   * Returns the quantile of the standard normal distribution at probability {@code p}, with a
+   * relative error below 1.2e-9. Quantiles are exactly symmetric around one half.
+   */
+  static double normalQuantile(double p) {
+    if (p <= 0 || p >= 1) {
+      throw new IllegalArgumentException("The probability must be strictly between 0 and 1");
+    }
+    if (p > 0.5) {
+      return -normalQuantile(1 - p);
+    }
+    // Rational approximations by Peter Acklam, for the lower tail and the central region.
+    if (p < 0.02425) {
+      double q = Math.sqrt(-2 * Math.log(p));
+      return (((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q
+          - 2.400758277161838e+00) * q - 2.549732539343734e+00) * q
+          + 4.374664141464968e+00) * q + 2.938163982698783e+00)
+          / ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q
+          + 2.445134137142996e+00) * q + 3.754408661907416e+00) * q + 1);
+    }
+    double q = p - 0.5;
+    double r = q * q;
+    return (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r
+        - 2.759285104469687e+02) * r + 1.383577518672690e+02) * r
+        - 3.066479806614716e+01) * r + 2.506628277459239e+00) * q
+        / (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r
+        - 1.556989798598866e+02) * r + 6.680131188771972e+01) * r
+        - 1.328068155288572e+01) * r + 1);
+  }
+}
@@ -0,0 +1,32 @@
+package com.calculr.lifemodel.engine;
+
+/**
+ * A handle to a scheduled {@link Task}, or a recurring sequence of tasks, that can be used to
+ * cancel it before it runs.
+ */
+public interface ScheduleHandle {
+
+  /** A handle for a task that was never scheduled, for example by a retired {@link Actor}. */
+  ScheduleHandle CANCELLED = new ScheduleHandle() {
+    @Override
+    public void cancel() {
+      // Nothing is scheduled.
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return true;
+    }
+  };
+
+  /**
+   * Cancels the task and any further recurrences. Cancelled tasks are left in the calendar
+   * and skipped when their date is reached.
+   */
+  void cancel();
+
+  /**
+   * Returns {@code true} if the task has been cancelled.
+   */
+  boolean isCancelled();
+}
@@ -1,13 +1,18 @@
 package com.calculr.lifemodel.engine;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import com.calculr.lifemodel.finance.SchedulerException;
 
@@ -19,6 +24,9 @@ public class Scheduler {
   private Simulation sim;
   private final Map<LocalDate, DailyTasks> insertionMap;
   private final PriorityQueue<DailyTasks> queue;
+  private LocalDate horizon;
+  private DailyTasks runningTasks;
+  private ForkJoinPool pool;
   
   Scheduler(LocalDate startDate) {
     currentDate = startDate;
@@ -44,17 +52,34 @@ public class Scheduler {
    * @param timeOfDay the time of day (start of day, end of day, or within the day)
    * @param actor the {@link Actor} that has produced the {@link Task}
    * @param task the {@link Task} that will be executed
+   * @return a {@link ScheduleHandle} that cancels the task, or a cancelled handle if the date
+   *     is beyond the horizon
    * @throws SchedulerException if the task is attempted to be scheduled after the date/time has 
    *     passed.
    */
-  <T extends Actor<T>> void scheduleFromActor(LocalDate date, TimeOfDay timeOfDay, T actor,
-      Task<T> task) {
+  <T extends Actor<T>> ScheduleHandle scheduleFromActor(LocalDate date, TimeOfDay timeOfDay,
+      T actor, Task<T> task) {
     if (currentDate.isAfter(date)) {
       throw new SchedulerException("Can not schedule a task on %s which after the current date %s",
           date, currentDate);
     }
+    if (horizon != null && date.isAfter(horizon)) {
+      // The task can never run, so it is not added to the calendar. Recurring tasks stop
+      // expanding here since the next occurrence is never scheduled.
+      return ScheduleHandle.CANCELLED;
+    }
     TaskEntry<T> entry = new TaskEntry<>(sim, actor, task);
-    getDailyTasks(date).add(entry, timeOfDay);
+    Outbox outbox = Outbox.current();
+    if (outbox != null && timeOfDay == TimeOfDay.IMMEDIATELY && outbox.owns(actor)) {
+      // Runs before the later tasks of the lane that share the footprint, as in a serial run.
+      outbox.runAfterTask(() -> DailyTasks.runTask(date, entry));
+    } else if (outbox != null) {
+      // Added once the parallel lane finishes, in the order of the lane.
+      outbox.defer(() -> getDailyTasks(date).add(entry, timeOfDay));
+    } else {
+      getDailyTasks(date).add(entry, timeOfDay);
+    }
+    return entry;
   }  
   
   private DailyTasks getDailyTasks(LocalDate date) {
@@ -75,14 +100,46 @@ public class Scheduler {
   
   <T extends Actor<T>> void scheduleImmediately(T actor, Task<T> task) {
     TaskEntry<T> entry = new TaskEntry<>(sim, actor, task);
-    DailyTasks tasks = getDailyTasks(currentDate);
-    tasks.add(entry, TimeOfDay.IMMEDIATELY);
+    Outbox outbox = Outbox.current();
+    if (outbox != null && outbox.owns(actor)) {
+      outbox.runAfterTask(() -> DailyTasks.runTask(currentDate, entry));
+    } else if (outbox != null) {
+      outbox.defer(() -> getDailyTasks(currentDate).add(entry, TimeOfDay.IMMEDIATELY));
+    } else {
+      getDailyTasks(currentDate).add(entry, TimeOfDay.IMMEDIATELY);
+    }
   }
   
   void setSimulation(Simulation sim) {
     this.sim = sim;
   }
   
+  /**
+   * Sets the last date that tasks can run on. Tasks already scheduled after the horizon are
+   * discarded, and tasks scheduled after the horizon later on are ignored.
+   */
+  void setHorizon(LocalDate date) {
+    horizon = date;
+    if (queue.removeIf(tasks -> tasks.date.isAfter(date))) {
+      insertionMap.keySet().removeIf(key -> key.isAfter(date));
+    }
+  }
+
+  /**
+   * Sets the number of threads that run tasks of actors with disjoint {@link Footprint
+   * footprints} concurrently. A parallelism of one runs every task serially.
+   */
+  void setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least one");
+    }
+    if (pool != null) {
+      pool.shutdown();
+    }
+    pool = parallelism == 1 ? null : new ForkJoinPool(parallelism);
+  }
+
+  
   /**
    * The internal state of the {@link Scheduler}.
    */
@@ -106,6 +163,18 @@ public class Scheduler {
    * executed. Execution will complete after the call to {@link #complete()}.
    */
   void run() {
+    start();
+    while (state == State.RUNNING && !queue.isEmpty()) {
+      runDay(queue.remove());
+    }
+    finish();
+  }
+
+  /**
+   * Starts the scheduler without running any tasks, so that it can be advanced with
+   * {@link #runThrough(LocalDate)}.
+   */
+  void start() {
     switch (state) {
     case INIT:
       // good state
@@ -116,14 +185,56 @@ public class Scheduler {
       throw new SchedulerException("The simulation has already completed.");
     }
     state = State.RUNNING;
-    while (state == State.RUNNING && !queue.isEmpty()) {
-      DailyTasks tasks = queue.remove();
-      currentDate = tasks.date;
-      tasks.run();
-      
-      // Remove last reference to the tasks.
-      insertionMap.remove(currentDate);
+  }
+
+  /**
+   * Runs every scheduled day up to and including the specified date.
+   *
+   * @return {@code true} if the scheduler is still running
+   */
+  boolean runThrough(LocalDate date) {
+    while (state == State.RUNNING && !queue.isEmpty() && !queue.peek().date.isAfter(date)) {
+      runDay(queue.remove());
     }
+    return state == State.RUNNING;
+  }
+
+  /**
+   * Returns the next date with scheduled tasks, or {@code null} if there are none.
+   */
+  LocalDate getNextDate() {
+    return queue.isEmpty() ? null : queue.peek().date;
+  }
+
+  /**
+   * Releases the threads used to run tasks in parallel.
+   */
+  void finish() {
+    if (pool != null) {
+      pool.shutdown();
+      pool = null;
+    }
+  }
+
+  private void runDay(DailyTasks tasks) {
+    currentDate = tasks.date;
+    runningTasks = tasks;
+    tasks.run(pool);
+
+    // Remove last reference to the tasks.
+    insertionMap.remove(currentDate);
+    runningTasks = null;
+  }
+  
+  /**
+   * Returns the time of day of the running tasks. Outside of a running day, this is the start
+   * of the current day.
+   */
+  TimeOfDay getCurrentTimeOfDay() {
+    if (runningTasks == null) {
+      return TimeOfDay.START_OF_DAY;
+    }
+    return runningTasks.getCurrentTimeOfDay();
   }
 
   /**
@@ -238,9 +349,10 @@ public class Scheduler {
     }
     
     /**
-     * Executes all of the tasks for the day.
+     * Executes all of the tasks for the day, running the tasks of independent actors on the
+     * pool if one is given.
      */
-    void run() {
+    void run(ForkJoinPool pool) {
       if (state != State.INIT) {
         throw new SchedulerException(
             "Can not invoke the daily task while it is already running or completed (state = %s).", 
@@ -249,21 +361,115 @@ public class Scheduler {
       runImmediateTasks();
 
       state = State.START_OF_DAY;
-      runTasks(startOfDayTasks);
+      runTasks(startOfDayTasks, pool);
       state = State.WITHIN_DAY;
-      runTasks(dayTasks);
+      runTasks(dayTasks, pool);
       state = State.END_OF_DAY;
-      runTasks(endOfDayTasks);
+      runTasks(endOfDayTasks, pool);
       state = State.DAY_COMPLETED;
     }
     
-    void runTasks(Iterable<TaskEntry<?>> tasks) {
+    void runTasks(Iterable<TaskEntry<?>> tasks, ForkJoinPool pool) {
+      if (pool != null) {
+        runParallelTasks(tasks, pool);
+        return;
+      }
       for (TaskEntry<?> entry : tasks) {
         runTask(date, entry);
         runImmediateTasks();
       }
     }
 
+    /**
+     * Runs the tasks of a lane, grouping each run of consecutive tasks with declared
+     * footprints. Tasks without a footprint run alone, between the groups.
+     */
+    private void runParallelTasks(Iterable<TaskEntry<?>> tasks, ForkJoinPool pool) {
+      List<TaskEntry<?>> group = new ArrayList<>();
+      for (TaskEntry<?> entry : tasks) {
+        if (entry.actor.getFootprint() != null) {
+          group.add(entry);
+          continue;
+        }
+        runGroup(group, pool);
+        group.clear();
+        runTask(date, entry);
+        runImmediateTasks();
+      }
+      runGroup(group, pool);
+    }
+
+    /**
+     * Runs a group of tasks with declared footprints in levels. Each task is placed one level
+     * after the last earlier task sharing any of its objects, so conflicting tasks keep the
+     * order of the lane while the tasks within a level run concurrently. The deferred effects
+     * of every task are applied afterwards in the order of the lane, followed by any immediate
+     * tasks they scheduled outside of their footprints. Immediate tasks within a footprint run
+     * right after the task that scheduled them, before any conflicting task of a later level.
+     */
+    private void runGroup(List<TaskEntry<?>> group, ForkJoinPool pool) {
+      if (group.size() <= 1) {
+        for (TaskEntry<?> entry : group) {
+          runTask(date, entry);
+          runImmediateTasks();
+        }
+        return;
+      }
+      int[] levels = new int[group.size()];
+      int levelCount = 0;
+      Map<Object, Integer> lastLevels = new IdentityHashMap<>();
+      for (int i = 0; i < levels.length; i++) {
+        Footprint footprint = group.get(i).actor.getFootprint();
+        int level = 0;
+        for (Object resource : footprint.getResources()) {
+          Integer last = lastLevels.get(resource);
+          if (last != null && last >= level) {
+            level = last + 1;
+          }
+        }
+        for (Object resource : footprint.getResources()) {
+          lastLevels.put(resource, level);
+        }
+        levels[i] = level;
+        levelCount = Math.max(levelCount, level + 1);
+      }
+
+      Outbox[] outboxes = new Outbox[levels.length];
+      Outbox.enterLane();
+      try {
+        for (int level = 0; level < levelCount; level++) {
+          List<ForkJoinTask<?>> running = new ArrayList<>();
+          for (int i = 0; i < levels.length; i++) {
+            if (levels[i] == level) {
+              TaskEntry<?> entry = group.get(i);
+              Outbox outbox = new Outbox(entry.actor.getFootprint());
+              outboxes[i] = outbox;
+              running.add(pool.submit(() -> runTask(date, entry, outbox)));
+            }
+          }
+          for (ForkJoinTask<?> task : running) {
+            task.join();
+          }
+        }
+      } finally {
+        Outbox.exitLane();
+      }
+      for (Outbox outbox : outboxes) {
+        outbox.flush();
+      }
+      runImmediateTasks();
+    }
+
+    private static void runTask(LocalDate date, TaskEntry<?> entry, Outbox outbox) {
+      outbox.bind();
+      try {
+        runTask(date, entry);
+        outbox.runImmediateTasks();
+      } finally {
+        Outbox.unbind();
+      }
+    }
+
     void runImmediateTasks() {
       if (immediateTasks != null) {
         while (!immediateTasks.isEmpty()) {
@@ -283,6 +489,10 @@ public class Scheduler {
     }
     
     private static <T extends Actor<T>> void runTask(LocalDate date, TaskEntry<T> entry) {
+      // Cancelled tasks and tasks of retired actors are removed lazily, when they are reached.
+      if (entry.cancelled || entry.actor.isRetired()) {
+        return;
+      }
       entry.task.run(new TaskContext<>(entry.actor, entry.sim));
     }
 
@@ -292,15 +502,26 @@ public class Scheduler {
     }
   }
   
-  static class TaskEntry<T extends Actor<T>> {
+  static class TaskEntry<T extends Actor<T>> implements ScheduleHandle {
     final Simulation sim;
     final T actor;
     final Task<T> task;
+    private boolean cancelled;
     
     TaskEntry(Simulation sim, T actor, Task<T> task) {
       this.sim = sim;
       this.actor = actor;
       this.task = task;
     }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
   }
 }
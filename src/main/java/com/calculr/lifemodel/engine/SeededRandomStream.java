@@ -0,0 +1,50 @@
+package com.calculr.lifemodel.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link RandomStream} of pseudo-random numbers, hashed from the seed and the dimension so that
+ * any dimension is drawn without drawing the ones before it.
+ */
+final class SeededRandomStream implements RandomStream {
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+  private static final double HALF_ULP = 0x1.0p-53;
+  private final long seed;
+  private final boolean antithetic;
+  private final int stratum;
+  private final int strata;
+  private final AtomicInteger nextDimension = new AtomicInteger();
+
+  SeededRandomStream(long seed, boolean antithetic, int stratum, int strata) {
+    // Seeds of consecutive replicas differ by the gamma, so they are mixed before use.
+    this.seed = mix(seed);
+    this.antithetic = antithetic;
+    this.stratum = stratum;
+    this.strata = strata;
+  }
+
+  @Override
+  public double getUniform(int dimension) {
+    long bits = mix(seed + (dimension + 1L) * GOLDEN_GAMMA);
+    // An odd multiple of 2^-53, so that 1 - u is exact and never zero.
+    double u = ((bits >>> 12) * 2 + 1) * HALF_ULP;
+    if (dimension == 0) {
+      u = (stratum + u) / strata;
+    }
+    return antithetic ? 1 - u : u;
+  }
+
+  @Override
+  public int reserveDimensions(int count) {
+    return nextDimension.getAndAdd(count);
+  }
+
+  /**
+   * The finalizer of SplitMix64, as used by {@link java.util.SplittableRandom}.
+   */
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
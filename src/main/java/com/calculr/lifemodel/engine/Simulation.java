@@ -2,6 +2,9 @@ package com.calculr.lifemodel.engine;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * A {@link Simulation} provides the context for scheduling events. 
@@ -16,6 +19,25 @@ public interface Simulation {
    */
   Collection<Metric<?>> runUntil(LocalDate date);
   
+  /**
+   * Returns the identifier of this simulation.
+   */
+  long getSimulationId();
+
+  /**
+   * Returns the next identifier in the sequence of records created by this simulation. The
+   * sequence is deterministic and is not shared between simulations, so it is not
+   * synchronized; records must be created by the thread running the simulation.
+   */
+  long nextRecordId();
+
+  /**
+   * Returns the component of the specified type shared by all actors of this simulation,
+   * creating it with the factory on first use. Components are typically engines that
+   * process many small items, such as bills, on behalf of every {@link Actor}.
+   */
+  <T> T getComponent(Class<T> type, Function<? super Simulation, ? extends T> factory);
+
   /**
    * Returns a scheduler object from the {@link Simulator}.
    */
@@ -37,4 +59,30 @@ public interface Simulation {
    * Returns all metrics that have been updated as part of the simulation.
    */
   Collection<Metric<?>> getMetrics();
+
+  /**
+   * Reports an adverse {@link Outcome} according to the {@link OutcomePolicy} of this
+   * simulation. The failure is only constructed and thrown under {@link OutcomePolicy#THROW}.
+   *
+   * @param outcome the outcome to record
+   * @param failure a supplier of the exception thrown if outcomes abort the simulation
+   */
+  void report(Outcome outcome, Supplier<? extends RuntimeException> failure);
+
+  /**
+   * Returns the outcomes that have been recorded in detail as part of the simulation. Only the
+   * earliest outcomes are kept, up to a limit, while every outcome is counted.
+   */
+  Collection<Outcome> getOutcomes();
+
+  /**
+   * Returns the number of recorded outcomes of the specified kind.
+   */
+  long getOutcomeCount(String kind);
+
+  /**
+   * Returns the number of recorded outcomes of each kind, in the order the kinds were first
+   * reported.
+   */
+  Map<String, Long> getOutcomeCounts();
 }
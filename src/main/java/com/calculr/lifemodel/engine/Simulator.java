@@ -1,29 +1,103 @@
 package com.calculr.lifemodel.engine;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * A Simulator controls the operation of {@link Actor} objects producing tasks.
  */
 public final class Simulator implements Simulation {
+  /**
+   * The number of bits of a simulation identifier. Record identifiers combine it with a
+   * sequence in the remaining bits of a positive {@code long}.
+   */
+  public static final int ID_BITS = 31;
+
+  /** The largest simulation identifier. */
+  public static final long MAX_ID = (1L << ID_BITS) - 1;
+
+  /**
+   * The first identifier assigned by {@link #create(LocalDate)}. Identifiers below it are
+   * reserved for {@link #create(LocalDate, long)}, so that automatic and explicit identifiers
+   * never collide.
+   */
+  public static final long FIRST_AUTOMATIC_ID = 1L << (ID_BITS - 1);
+  private static final AtomicLong NEXT_SIMULATION_ID = new AtomicLong(FIRST_AUTOMATIC_ID);
+
+  /** The number of outcomes kept in detail unless set by {@link #setRetainedOutcomes(int)}. */
+  public static final int DEFAULT_RETAINED_OUTCOMES = 1000;
+  
+  private final long id;
+  private long recordSequence = 0;
   private final Scheduler scheduler;
   private SimulatorActor actor;
   private Map<String, Metric<?>> metrics;
+  private OutcomePolicy outcomePolicy = OutcomePolicy.THROW;
+  private int retainedOutcomes = DEFAULT_RETAINED_OUTCOMES;
+  private final List<Outcome> outcomes;
+  private final Map<String, Long> outcomeCounts;
+  private final Map<Class<?>, Object> components;
   
-  Simulator(Scheduler scheduler) {
+  Simulator(Scheduler scheduler, long id) {
     this.scheduler = scheduler;
+    this.id = id;
     metrics = new LinkedHashMap<>();
+    outcomes = new ArrayList<>();
+    outcomeCounts = new LinkedHashMap<>();
+    components = new ConcurrentHashMap<>();
   }
   
   /**
    * Constructs a new {@link Simulator} that begins on the specified start date.
+   *
+   * @throws IllegalStateException if every automatic identifier has been assigned
    */
   public static Simulator create(LocalDate startDate) {
+    return newSimulator(startDate, nextAutomaticId(NEXT_SIMULATION_ID));
+  }
+
+  /**
+   * Assigns the next automatic identifier of the counter, which must stay within
+   * {@link #ID_BITS} so that record identifiers remain unique.
+   */
+  static long nextAutomaticId(AtomicLong counter) {
+    long id = counter.getAndIncrement();
+    if (id > MAX_ID) {
+      throw new IllegalStateException(String.format(
+          "All %d automatic simulation identifiers have been assigned; create simulations "
+              + "with explicit identifiers instead", MAX_ID - FIRST_AUTOMATIC_ID + 1));
+    }
+    return id;
+  }
+
+  /**
+   * Constructs a new {@link Simulator} with the specified simulation identifier. Simulations
+   * given the same identifier produce identical record identifiers.
+   *
+   * @throws IllegalArgumentException if the identifier is negative, or not below
+   *     {@link #FIRST_AUTOMATIC_ID}
+   */
+  public static Simulator create(LocalDate startDate, long id) {
+    if (id < 0 || id >= FIRST_AUTOMATIC_ID) {
+      throw new IllegalArgumentException(String.format(
+          "Simulation identifier %d is outside of the explicit range [0, %d)", id,
+          FIRST_AUTOMATIC_ID));
+    }
+    return newSimulator(startDate, id);
+  }
+
+  private static Simulator newSimulator(LocalDate startDate, long id) {
     Scheduler scheduler = new Scheduler(startDate);
-    Simulator sim = new Simulator(scheduler);
+    Simulator sim = new Simulator(scheduler, id);
     scheduler.setSimulation(sim);
     SimulatorActor actor = new SimulatorActor(sim);
     sim.actor = actor;
@@ -32,13 +106,61 @@ public final class Simulator implements Simulation {
 
   /**
    * Begins the simulation at the current date, simulating until reaching the final date.
+   * Tasks scheduled after the final date are discarded, since they can never run.
    */
   public Collection<Metric<?>> runUntil(LocalDate date) {
-    actor.stopOn(date);
+    stopOn(date);
     scheduler.run();
     return metrics.values();
   }
+
+  /**
+   * Discards tasks after the final date and completes the simulation at its end.
+   */
+  void stopOn(LocalDate date) {
+    scheduler.setHorizon(date);
+    actor.stopOn(date);
+  }
+  
+  /**
+   * Sets how reported outcomes are handled. By default, outcomes abort the simulation with
+   * an exception.
+   */
+  public Simulator setOutcomePolicy(OutcomePolicy policy) {
+    this.outcomePolicy = policy;
+    return this;
+  }
+
+  /**
+   * Sets the number of outcomes kept in detail, which are the earliest ones. Later outcomes
+   * are only counted, so that a simulation continuing past every outcome does not grow
+   * without bound.
+   *
+   * @throws IllegalArgumentException if the limit is negative
+   */
+  public Simulator setRetainedOutcomes(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("The number of retained outcomes can not be negative");
+    }
+    this.retainedOutcomes = limit;
+    return this;
+  }
   
+  /**
+   * Sets the number of threads used to run the tasks of a day. By default, every task runs
+   * serially on the calling thread.
+   *
+   * <p>With a parallelism greater than one, consecutive tasks of the same lane run concurrently
+   * when their actors declare disjoint {@link Footprint footprints}, and tasks that share an
+   * object keep the order of the lane. Tasks scheduled, metrics updated, and outcomes reported
+   * by these tasks take effect once the lane finishes, in the order of the lane. Record
+   * identifiers remain unique, but are no longer assigned in a deterministic order.
+   */
+  public Simulator setParallelism(int parallelism) {
+    scheduler.setParallelism(parallelism);
+    return this;
+  }
+
   /**
    * Registers the specified {@link Actor} with this {@link Simulator}. This
    * will assign the {@link Scheduler} into the {@link Actor}.
@@ -73,6 +195,51 @@ public final class Simulator implements Simulation {
     }
   }
 
+  @Override
+  public long getSimulationId() {
+    return id;
+  }
+
+  @Override
+  public long nextRecordId() {
+    if (Outbox.current() != null) {
+      synchronized (this) {
+        return ++recordSequence;
+      }
+    }
+    return ++recordSequence;
+  }
+
+  /**
+   * Returns the number of record identifiers assigned so far.
+   */
+  long getRecordSequence() {
+    return recordSequence;
+  }
+
+  /**
+   * Continues the record identifiers after the specified number of assigned identifiers, as
+   * when a simulation is restored from a checkpoint.
+   */
+  void setRecordSequence(long sequence) {
+    this.recordSequence = sequence;
+  }
+
+  @Override
+  public <T> T getComponent(Class<T> type, Function<? super Simulation, ? extends T> factory) {
+    Object component = components.get(type);
+    if (component == null) {
+      synchronized (components) {
+        component = components.get(type);
+        if (component == null) {
+          component = factory.apply(this);
+          components.put(type, component);
+        }
+      }
+    }
+    return type.cast(component);
+  }
+
   @Override
   public Scheduler getScheduler() {
     return scheduler;
@@ -80,6 +247,11 @@ public final class Simulator implements Simulation {
 
   @Override
   public <T> void update(Metric<T> metric, T value) {
+    Outbox outbox = Outbox.current();
+    if (outbox != null) {
+      outbox.defer(() -> update(metric, value));
+      return;
+    }
     String name = metric.getName();
     if (metrics.containsKey(name)) {
       if (!metrics.get(name).equals(metric)) {
@@ -95,4 +267,38 @@ public final class Simulator implements Simulation {
   public Collection<Metric<?>> getMetrics() {
     return metrics.values();
   }
+
+  @Override
+  public void report(Outcome outcome, Supplier<? extends RuntimeException> failure) {
+    if (outcomePolicy == OutcomePolicy.THROW) {
+      throw failure.get();
+    }
+    Outbox outbox = Outbox.current();
+    if (outbox != null) {
+      outbox.defer(() -> report(outcome, failure));
+      return;
+    }
+    if (outcomes.size() < retainedOutcomes) {
+      outcomes.add(outcome);
+    }
+    outcomeCounts.merge(outcome.getKind(), 1L, Long::sum);
+    if (outcomePolicy == OutcomePolicy.STOP) {
+      scheduler.complete();
+    }
+  }
+
+  @Override
+  public Collection<Outcome> getOutcomes() {
+    return outcomes;
+  }
+
+  @Override
+  public long getOutcomeCount(String kind) {
+    return outcomeCounts.getOrDefault(kind, 0L);
+  }
+
+  @Override
+  public Map<String, Long> getOutcomeCounts() {
+    return Collections.unmodifiableMap(outcomeCounts);
+  }
 }
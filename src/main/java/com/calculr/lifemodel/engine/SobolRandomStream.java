@@ -0,0 +1,27 @@
+package com.calculr.lifemodel.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link RandomStream} reading the coordinates of one point of a {@link SobolSequence}.
+ */
+final class SobolRandomStream implements RandomStream {
+  private final SobolSequence sequence;
+  private final long index;
+  private final AtomicInteger nextDimension = new AtomicInteger();
+
+  SobolRandomStream(SobolSequence sequence, long index) {
+    this.sequence = sequence;
+    this.index = index;
+  }
+
+  @Override
+  public double getUniform(int dimension) {
+    return sequence.get(index, dimension);
+  }
+
+  @Override
+  public int reserveDimensions(int count) {
+    return nextDimension.getAndAdd(count);
+  }
+}
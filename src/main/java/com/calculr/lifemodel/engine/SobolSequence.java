@@ -0,0 +1,272 @@
+package com.calculr.lifemodel.engine;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The Sobol low-discrepancy sequence, optionally scrambled.
+ *
+ * <p>The first {@code 2^k} points of every dimension fall one in each interval of length
+ * {@code 2^-k}, so averages over the points of a smooth function converge almost as {@code 1/n}
+ * instead of {@code 1/sqrt(n)}. Points are read by index and dimension, so each replica of an
+ * experiment computes its own point. The first 21 dimensions use the direction numbers of Joe
+ * and Kuo; later dimensions use the following primitive polynomials with pseudo-random initial
+ * direction numbers, which keeps each dimension stratified but its pairs less uniform.
+ *
+ * <p>A scrambled sequence applies a random linear scrambling of the digits of each dimension
+ * and a random digital shift, as proposed by Matousek. Scrambling keeps the stratification of
+ * the points and makes each point uniformly distributed, so independent scramblings give an
+ * unbiased estimate and its standard error.
+ */
+public final class SobolSequence {
+  private static final int BITS = 32;
+  private static final double SCALE = 0x1.0p-32;
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  /**
+   * The degree, polynomial, and initial direction numbers of dimensions 2 to 21, from the
+   * new-joe-kuo-6.21201 table.
+   */
+  private static final int[][] JOE_KUO = {
+      {1, 0, 1},
+      {2, 1, 1, 3},
+      {3, 1, 1, 3, 1},
+      {3, 2, 1, 1, 1},
+      {4, 1, 1, 1, 3, 3},
+      {4, 4, 1, 3, 5, 13},
+      {5, 2, 1, 1, 5, 5, 17},
+      {5, 4, 1, 1, 5, 5, 5},
+      {5, 7, 1, 1, 7, 11, 19},
+      {5, 11, 1, 1, 5, 1, 1},
+      {5, 13, 1, 1, 1, 3, 11},
+      {5, 14, 1, 3, 5, 5, 31},
+      {6, 1, 1, 3, 3, 9, 7, 49},
+      {6, 13, 1, 1, 1, 15, 21, 21},
+      {6, 16, 1, 3, 1, 13, 27, 49},
+      {6, 19, 1, 1, 1, 15, 7, 5},
+      {6, 22, 1, 3, 1, 15, 13, 25},
+      {6, 25, 1, 1, 5, 5, 19, 61},
+      {7, 1, 1, 3, 7, 11, 23, 15, 103},
+      {7, 4, 1, 3, 7, 13, 13, 15, 69}};
+
+  /** The direction numbers of the unscrambled sequence, shared and extended on demand. */
+  private static volatile int[][] baseDirections = new int[0][];
+  private static int lastDegree = 7;
+  private static int lastPolynomial = 4;
+
+  private final boolean scrambled;
+  private final long seed;
+  /** The direction numbers of each dimension, followed by its digital shift. */
+  private volatile int[][] directions = new int[0][];
+
+  private SobolSequence(boolean scrambled, long seed) {
+    this.scrambled = scrambled;
+    // Dimensions are seeded a gamma apart, so sequence seeds a gamma apart are mixed first.
+    this.seed = SeededRandomStream.mix(seed);
+  }
+
+  /**
+   * Returns the unscrambled Sobol sequence.
+   */
+  public static SobolSequence create() {
+    return new SobolSequence(false, 0);
+  }
+
+  /**
+   * Returns a Sobol sequence scrambled from the specified seed.
+   */
+  public static SobolSequence scrambled(long seed) {
+    return new SobolSequence(true, seed);
+  }
+
+  /**
+   * Returns the coordinate of the point at the specified index in the specified dimension,
+   * strictly between zero and one.
+   *
+   * @throws IllegalArgumentException if the index is negative or not below {@code 2^32}
+   */
+  public double get(long index, int dimension) {
+    if (index < 0 || index >= 1L << BITS || dimension < 0) {
+      throw new IllegalArgumentException(String.format(
+          "There is no coordinate %d of point %d of a Sobol sequence", dimension, index));
+    }
+    int[] v = getDirections(dimension);
+    int x = v[BITS];
+    for (int k = 0; index != 0; k++, index >>>= 1) {
+      if ((index & 1) != 0) {
+        x ^= v[k];
+      }
+    }
+    return (Integer.toUnsignedLong(x) + 0.5) * SCALE;
+  }
+
+  private int[] getDirections(int dimension) {
+    int[][] current = directions;
+    if (dimension < current.length) {
+      return current[dimension];
+    }
+    synchronized (this) {
+      current = directions;
+      if (dimension >= current.length) {
+        int[][] extended = Arrays.copyOf(current, Math.max(dimension + 1, 2 * current.length));
+        // The shared table may cover fewer dimensions than this sequence grows to.
+        int[][] base = getBaseDirections(extended.length - 1);
+        for (int d = current.length; d < extended.length; d++) {
+          extended[d] = scrambled ? scramble(base[d], d) : Arrays.copyOf(base[d], BITS + 1);
+        }
+        directions = extended;
+        current = extended;
+      }
+    }
+    return current[dimension];
+  }
+
+  /**
+   * Applies a random lower triangular matrix to the digits of the direction numbers, and draws
+   * the digital shift.
+   */
+  private int[] scramble(int[] base, int dimension) {
+    SplittableRandom random =
+        new SplittableRandom(SeededRandomStream.mix(seed + dimension * GOLDEN_GAMMA));
+    // Row j computes digit j, the bit 31 - j, from digits 0 to j.
+    int[] rows = new int[BITS];
+    for (int j = 0; j < BITS; j++) {
+      int higherDigits = j == 0 ? 0 : random.nextInt() & (-1 << (BITS - j));
+      rows[j] = higherDigits | (1 << (BITS - 1 - j));
+    }
+    int[] v = new int[BITS + 1];
+    for (int k = 0; k < BITS; k++) {
+      int scrambledDigits = 0;
+      for (int j = 0; j < BITS; j++) {
+        scrambledDigits |= (Integer.bitCount(rows[j] & base[k]) & 1) << (BITS - 1 - j);
+      }
+      v[k] = scrambledDigits;
+    }
+    v[BITS] = random.nextInt();
+    return v;
+  }
+
+  private static int[][] getBaseDirections(int dimension) {
+    int[][] current = baseDirections;
+    if (dimension < current.length) {
+      return current;
+    }
+    synchronized (SobolSequence.class) {
+      current = baseDirections;
+      if (dimension >= current.length) {
+        int[][] extended = Arrays.copyOf(current, Math.max(dimension + 1, 2 * current.length));
+        for (int d = current.length; d < extended.length; d++) {
+          extended[d] = directionNumbers(d);
+        }
+        baseDirections = extended;
+        current = extended;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Returns the direction numbers of a dimension, followed by a zero shift. Dimensions past the
+   * table are computed in order, since each takes the next primitive polynomial.
+   */
+  private static int[] directionNumbers(int dimension) {
+    long[] m = new long[BITS + 1];
+    int degree;
+    int polynomial;
+    if (dimension == 0) {
+      // The van der Corput sequence.
+      degree = BITS;
+      polynomial = 0;
+      Arrays.fill(m, 1);
+    } else if (dimension <= JOE_KUO.length) {
+      int[] row = JOE_KUO[dimension - 1];
+      degree = row[0];
+      polynomial = row[1];
+      for (int k = 1; k <= degree; k++) {
+        m[k] = row[k + 1];
+      }
+    } else {
+      do {
+        lastPolynomial++;
+        if (lastPolynomial >= 1 << (lastDegree - 1)) {
+          lastDegree++;
+          lastPolynomial = 0;
+        }
+      } while (!isPrimitive(lastDegree, lastPolynomial));
+      degree = lastDegree;
+      polynomial = lastPolynomial;
+      SplittableRandom random = new SplittableRandom(SeededRandomStream.mix(dimension));
+      for (int k = 1; k <= Math.min(degree, BITS); k++) {
+        // Any odd number below 2^k keeps the dimension stratified.
+        m[k] = random.nextLong(1L << (k - 1)) * 2 + 1;
+      }
+    }
+    for (int k = degree + 1; k <= BITS; k++) {
+      long value = m[k - degree] ^ (m[k - degree] << degree);
+      for (int i = 1; i < degree; i++) {
+        if (((polynomial >>> (degree - 1 - i)) & 1) != 0) {
+          value ^= m[k - i] << i;
+        }
+      }
+      m[k] = value;
+    }
+    int[] v = new int[BITS + 1];
+    for (int k = 1; k <= BITS; k++) {
+      v[k - 1] = (int) (m[k] << (BITS - k));
+    }
+    return v;
+  }
+
+  /**
+   * Returns whether {@code x^degree + a_1 x^(degree-1) + ... + a_(degree-1) x + 1} is primitive
+   * over GF(2), where {@code a_1} is the highest bit of the polynomial. It is primitive when
+   * {@code x} has the order {@code 2^degree - 1}.
+   */
+  private static boolean isPrimitive(int degree, int polynomial) {
+    long modulus = (1L << degree) | ((long) polynomial << 1) | 1;
+    long order = (1L << degree) - 1;
+    if (power(2, order, modulus, degree) != 1) {
+      return false;
+    }
+    long remaining = order;
+    for (long factor = 3; factor * factor <= remaining; factor += 2) {
+      if (remaining % factor == 0) {
+        if (power(2, order / factor, modulus, degree) == 1) {
+          return false;
+        }
+        while (remaining % factor == 0) {
+          remaining /= factor;
+        }
+      }
+    }
+    return remaining == 1 || remaining == order
+        || power(2, order / remaining, modulus, degree) != 1;
+  }
+
+  private static long power(long base, long exponent, long modulus, int degree) {
+    long result = 1;
+    while (exponent != 0) {
+      if ((exponent & 1) != 0) {
+        result = multiply(result, base, modulus, degree);
+      }
+      base = multiply(base, base, modulus, degree);
+      exponent >>>= 1;
+    }
+    return result;
+  }
+
+  private static long multiply(long a, long b, long modulus, int degree) {
+    long product = 0;
+    while (b != 0) {
+      if ((b & 1) != 0) {
+        product ^= a;
+      }
+      b >>>= 1;
+      a <<= 1;
+      if (((a >>> degree) & 1) != 0) {
+        a ^= modulus;
+      }
+    }
+    return product;
+  }
+}
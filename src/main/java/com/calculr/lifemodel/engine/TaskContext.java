@@ -21,6 +21,13 @@ public final class TaskContext<T extends Actor<T>> {
     return sim.getScheduler().getCurrentDate();    
   }
   
+  /**
+   * Returns the {@link Simulation} running the task.
+   */
+  public Simulation getSimulation() {
+    return sim;
+  }
+  
   /**
    * Returns the actor that the task is operating over.
    */
@@ -0,0 +1,91 @@
+package com.calculr.lifemodel.engine.parameter;
+
+import java.time.LocalDate;
+import java.util.function.DoubleUnaryOperator;
+
+import com.calculr.lifemodel.engine.RandomStream;
+import com.calculr.lifemodel.engine.Simulation;
+
+/**
+ * A {@link Parameter} drawn from the {@link RandomStream} of a simulation, with a new value each
+ * month.
+ *
+ * <p>The parameter reserves one dimension of the stream per month when it is created, so the
+ * value of a month is always the same dimension of the replica, whatever else is drawn in
+ * between. With a quasi-random stream, each parameter and month is a coordinate of the same
+ * low-discrepancy point.
+ */
+public final class SampledParameter implements Parameter<Double> {
+    private final Simulation sim;
+    private final String name;
+    private final RandomStream stream;
+    private final LocalDate startDate;
+    private final int months;
+    private final int firstDimension;
+    private final DoubleUnaryOperator quantile;
+
+    private SampledParameter(Simulation sim, String name, int months,
+            DoubleUnaryOperator quantile) {
+        this.sim = sim;
+        this.name = name;
+        this.stream = RandomStream.of(sim);
+        this.startDate = sim.getCurrentDate();
+        this.months = months;
+        this.firstDimension = stream.reserveDimensions(months);
+        this.quantile = quantile;
+    }
+
+    /**
+     * Constructs a new {@link SampledParameter} for the specified number of months from the
+     * current date, mapping each uniform number to a value by the quantile function of its
+     * distribution. Dates after the last month keep the value of the last month.
+     */
+    public static SampledParameter create(Simulation sim, String name, int months,
+            DoubleUnaryOperator quantile) {
+        if (months < 1) {
+            throw new IllegalArgumentException("A sampled parameter needs at least one month");
+        }
+        return new SampledParameter(sim, name, months, quantile);
+    }
+
+    /**
+     * Constructs a new {@link SampledParameter} whose monthly values are independent gaussian
+     * numbers of the specified mean and standard deviation.
+     */
+    public static SampledParameter gaussian(Simulation sim, String name, int months, double mean,
+            double standardDeviation) {
+        return create(sim, name, months,
+                u -> mean + standardDeviation * RandomStream.normalQuantile(u));
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the value of the specified month, starting at zero.
+     */
+    public double getMonth(int month) {
+        if (month < 0 || month >= months) {
+            throw new IndexOutOfBoundsException(
+                    String.format("Parameter '%s' has no month %d", name, month));
+        }
+        return quantile.applyAsDouble(stream.getUniform(firstDimension + month));
+    }
+
+    /**
+     * Returns the value of the current month, without boxing it.
+     */
+    public double getAsDouble() {
+        LocalDate date = sim.getCurrentDate();
+        int month = (date.getYear() - startDate.getYear()) * 12
+                + date.getMonthValue() - startDate.getMonthValue();
+        return getMonth(Math.max(0, Math.min(month, months - 1)));
+    }
+
+    @Override
+    public Double get() {
+        return getAsDouble();
+    }
+}
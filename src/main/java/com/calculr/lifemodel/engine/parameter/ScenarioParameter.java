@@ -0,0 +1,45 @@
+package com.calculr.lifemodel.engine.parameter;
+
+import com.calculr.lifemodel.engine.Simulation;
+
+/**
+ * A {@link Parameter} reading one variable of one path of {@link ScenarioPaths} at the current
+ * date of a simulation.
+ *
+ * <p>Trials that read the same path see the same values, whatever the order in which they
+ * read them.
+ */
+public final class ScenarioParameter implements Parameter<Double> {
+    private final Simulation sim;
+    private final ScenarioPaths scenarios;
+    private final int variable;
+    private final int path;
+
+    ScenarioParameter(Simulation sim, ScenarioPaths scenarios, int variable, int path) {
+        if (path < 0 || path >= scenarios.getPathCount()) {
+            throw new IllegalArgumentException(String.format(
+                    "There is no path %d of %d paths", path, scenarios.getPathCount()));
+        }
+        this.sim = sim;
+        this.scenarios = scenarios;
+        this.variable = variable;
+        this.path = path;
+    }
+
+    @Override
+    public String getName() {
+        return scenarios.getVariables().get(variable) + " #" + path;
+    }
+
+    /**
+     * Returns the value of the current month, without boxing it.
+     */
+    public double getAsDouble() {
+        return scenarios.get(path, variable, scenarios.getMonth(sim.getCurrentDate()));
+    }
+
+    @Override
+    public Double get() {
+        return getAsDouble();
+    }
+}
@@ -0,0 +1,270 @@
+package com.calculr.lifemodel.engine.parameter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import com.calculr.lifemodel.engine.Simulation;
+
+/**
+ * A store of pre-generated random paths of market and economic variables, kept in a
+ * memory-mapped file.
+ *
+ * <p>Every trial that reads path {@code i} sees exactly the same values (common random numbers),
+ * so that strategies compared on the same paths differ only by the strategy. Paths are generated
+ * once, in parallel, from a generator split per path, and are then shared by every worker that opens the
+ * file. Values are monthly, starting at the month of the start date, and are read directly from
+ * the mapped file without copying.
+ */
+public final class ScenarioPaths {
+    private static final int MAGIC = 0x53434e50;
+    private static final int VERSION = 1;
+
+    private final LocalDate startDate;
+    private final List<String> variables;
+    private final int paths;
+    private final int months;
+    private final int pathsPerSegment;
+    private final DoubleBuffer[] segments;
+
+    private ScenarioPaths(LocalDate startDate, List<String> variables, int paths, int months,
+            int pathsPerSegment, DoubleBuffer[] segments) {
+        this.startDate = startDate;
+        this.variables = variables;
+        this.paths = paths;
+        this.months = months;
+        this.pathsPerSegment = pathsPerSegment;
+        this.segments = segments;
+    }
+
+    /**
+     * Generates the values of one path.
+     */
+    public interface Generator {
+
+        /**
+         * Fills the values of each variable for every month of one path.
+         *
+         * @param random the random numbers of this path, the same for every generation
+         * @param values receives {@code values[variable][month]}
+         */
+        void generate(SplittableRandom random, double[][] values);
+    }
+
+    /**
+     * Generates the paths into a new file, replacing any existing file, and maps it.
+     *
+     * @param file the file holding the paths
+     * @param startDate the date of the first monthly value
+     * @param variables the names of the variables of each path
+     * @param paths the number of paths
+     * @param months the number of monthly values of each variable
+     * @param seed the seed from which the generator of each path is split
+     */
+    public static ScenarioPaths generate(Path file, LocalDate startDate, List<String> variables,
+            int paths, int months, long seed, Generator generator) {
+        if (paths < 1 || months < 1 || variables.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Scenarios need at least one path, month, and variable");
+        }
+        byte[] header = header(startDate, variables, paths, months);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(header));
+            List<MappedByteBuffer> mapped = new ArrayList<>();
+            ScenarioPaths scenarios = map(channel, FileChannel.MapMode.READ_WRITE, header.length,
+                    startDate, variables, paths, months, mapped);
+            int variableCount = variables.size();
+            // Seeds differing by the increment of SplittableRandom would give shifted copies of
+            // the same stream, so each path splits its own generator, in path order.
+            SplittableRandom master = new SplittableRandom(seed);
+            SplittableRandom[] randoms = new SplittableRandom[paths];
+            for (int path = 0; path < paths; path++) {
+                randoms[path] = master.split();
+            }
+            // Each path writes its own region, so paths are generated concurrently.
+            IntStream.range(0, paths).parallel().forEach(path -> {
+                double[][] values = new double[variableCount][months];
+                generator.generate(randoms[path], values);
+                DoubleBuffer segment = scenarios.segments[path / scenarios.pathsPerSegment];
+                int offset = scenarios.offset(path, 0, 0);
+                for (int variable = 0; variable < variableCount; variable++) {
+                    for (int month = 0; month < months; month++) {
+                        segment.put(offset + variable * months + month, values[variable][month]);
+                    }
+                }
+            });
+            for (MappedByteBuffer buffer : mapped) {
+                buffer.force();
+            }
+            return scenarios;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Maps the paths of a file written by
+     * {@link #generate(Path, LocalDate, List, int, int, long, Generator)}.
+     */
+    public static ScenarioPaths open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer fixed = ByteBuffer.allocate(28);
+            channel.read(fixed, 0);
+            fixed.flip();
+            if (fixed.remaining() < 28 || fixed.getInt() != MAGIC || fixed.getInt() != VERSION) {
+                throw new IllegalArgumentException(
+                        String.format("File '%s' does not contain scenario paths", file));
+            }
+            int paths = fixed.getInt();
+            int months = fixed.getInt();
+            LocalDate startDate = LocalDate.ofEpochDay(fixed.getLong());
+            int headerLength = fixed.getInt();
+            ByteBuffer names = ByteBuffer.allocate(headerLength - 28);
+            channel.read(names, 28);
+            names.flip();
+            int count = names.getInt();
+            List<String> variables = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[names.getShort()];
+                names.get(name);
+                variables.add(new String(name, StandardCharsets.UTF_8));
+            }
+            return map(channel, FileChannel.MapMode.READ_ONLY, headerLength, startDate, variables,
+                    paths, months, new ArrayList<>());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] header(LocalDate startDate, List<String> variables, int paths,
+            int months) {
+        int length = 28 + 4;
+        for (String variable : variables) {
+            length += 2 + variable.getBytes(StandardCharsets.UTF_8).length;
+        }
+        // The values start on a multiple of eight bytes.
+        length = (length + 7) & ~7;
+        ByteBuffer header = ByteBuffer.allocate(length);
+        header.putInt(MAGIC).putInt(VERSION).putInt(paths).putInt(months)
+                .putLong(startDate.toEpochDay()).putInt(length).putInt(variables.size());
+        for (String variable : variables) {
+            byte[] name = variable.getBytes(StandardCharsets.UTF_8);
+            header.putShort((short) name.length).put(name);
+        }
+        return header.array();
+    }
+
+    /**
+     * Maps the values in segments of whole paths, since a single mapping is limited to 2 GB.
+     */
+    private static ScenarioPaths map(FileChannel channel, FileChannel.MapMode mode,
+            long headerLength, LocalDate startDate, List<String> variables, int paths, int months,
+            List<MappedByteBuffer> mapped) throws IOException {
+        long pathBytes = (long) variables.size() * months * Double.BYTES;
+        if (pathBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A single path must be smaller than 2 GB");
+        }
+        int pathsPerSegment = (int) Math.min(paths, Integer.MAX_VALUE / pathBytes);
+        int segmentCount = (paths + pathsPerSegment - 1) / pathsPerSegment;
+        DoubleBuffer[] segments = new DoubleBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentPaths = Math.min(pathsPerSegment, paths - i * pathsPerSegment);
+            MappedByteBuffer buffer = channel.map(mode,
+                    headerLength + i * pathsPerSegment * pathBytes, segmentPaths * pathBytes);
+            mapped.add(buffer);
+            segments[i] = buffer.asDoubleBuffer();
+        }
+        return new ScenarioPaths(startDate,
+                Collections.unmodifiableList(new ArrayList<>(variables)), paths, months,
+                pathsPerSegment, segments);
+    }
+
+    /**
+     * Returns the date of the first monthly value.
+     */
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Returns the names of the variables of each path.
+     */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Returns the number of paths.
+     */
+    public int getPathCount() {
+        return paths;
+    }
+
+    /**
+     * Returns the number of monthly values of each variable.
+     */
+    public int getMonths() {
+        return months;
+    }
+
+    /**
+     * Returns the value of a variable of a path in the specified month, starting at zero.
+     */
+    public double get(int path, int variable, int month) {
+        if (path < 0 || path >= paths || month < 0 || month >= months) {
+            throw new IndexOutOfBoundsException(
+                    String.format("There is no month %d of path %d", month, path));
+        }
+        return segments[path / pathsPerSegment].get(offset(path, variable, month));
+    }
+
+    /**
+     * Returns the index of the variable with the specified name.
+     *
+     * @throws IllegalArgumentException if there is no such variable
+     */
+    public int getVariable(String name) {
+        int variable = variables.indexOf(name);
+        if (variable < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Scenarios have no variable '%s'", name));
+        }
+        return variable;
+    }
+
+    /**
+     * Returns the month of a date, counted from the month of the start date. Dates after the
+     * last month return the last month.
+     */
+    public int getMonth(LocalDate date) {
+        int month = (date.getYear() - startDate.getYear()) * 12
+                + date.getMonthValue() - startDate.getMonthValue();
+        return Math.max(0, Math.min(month, months - 1));
+    }
+
+    /**
+     * Returns a {@link Parameter} reading a variable of one path at the current date of the
+     * simulation.
+     */
+    public ScenarioParameter getParameter(Simulation sim, String variable, int path) {
+        return new ScenarioParameter(sim, this, getVariable(variable), path);
+    }
+
+    private int offset(int path, int variable, int month) {
+        return ((path % pathsPerSegment) * variables.size() + variable) * months + month;
+    }
+}
@@ -0,0 +1,63 @@
+package com.calculr.lifemodel.examples;
+
+import java.time.LocalDate;
+
+import com.calculr.lifemodel.books.Mortgage;
+import com.calculr.lifemodel.cohort.Cohort;
+import com.calculr.lifemodel.cohort.CohortRules;
+import com.calculr.lifemodel.cohort.VariantSweep;
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Money;
+
+/**
+ * The origination point variants of {@link TestMortgage}, run in lockstep as the rows of one
+ * cohort instead of one trial each.
+ */
+public class LockstepMortgage {
+  private static final String[] VARIANTS = {
+      "Rate 3.625%, no points",
+      "Rate 3.625%, 0.125 points @ 0.5% fee",
+      "Rate 3.625%, 0.25 points @ 1% fee"};
+  private static final double[] RATES = {0.03625, 0.035, 0.03375};
+  private static final Money[] FEES = {Money.zero(), Money.dollars(4040), Money.dollars(8080)};
+
+  public static void main(String[] args) {
+    LocalDate start = LocalDate.of(2016, 10, 1);
+    LocalDate closingDate = LocalDate.of(2016, 11, 16);
+    Money price = Money.dollars(1_010_000);
+    Money downPayment = price.scale(0.20);
+    Money closingCosts = Money.dollars(20_000);
+    Money principal = price.sub(downPayment);
+
+    Simulator sim = Simulator.create(start);
+    Cohort cohort = Cohort.newBuilder(sim, "Origination", VARIANTS.length)
+        .addAsset("Checking")
+        .addLiability("Loan")
+        .addAmount("Payment")
+        .addRate("Rate", 0)
+        .build();
+    VariantSweep sweep = VariantSweep.of(cohort, VARIANTS);
+
+    cohort.schedule(start.plusDays(15), CohortRules.deposit("Checking", Money.dollars(250_000)));
+    cohort.onSchedule().startingToday().runEveryNWeeks(2)
+        .schedule(CohortRules.deposit("Checking", Money.dollars(7500)));
+    cohort.schedule(closingDate, context -> {
+      for (int i = 0; i < VARIANTS.length; i++) {
+        Money cash = sweep.get(VARIANTS[i], "Checking");
+        sweep.setRate(VARIANTS[i], "Rate", RATES[i])
+            .set(VARIANTS[i], "Checking", cash.sub(downPayment).sub(closingCosts).sub(FEES[i]))
+            .set(VARIANTS[i], "Loan", principal.negate())
+            .set(VARIANTS[i], "Payment", Mortgage.amortizationPayment(principal, 30, RATES[i]));
+      }
+    });
+    cohort.onSchedule().starting(closingDate.plusMonths(1)).runMonthly().atStartOfDay()
+        .schedule(CohortRules.compound("Loan", "Rate", 12));
+    cohort.onSchedule().starting(closingDate.plusMonths(1)).runMonthly()
+        .schedule(CohortRules.payDown("Checking", "Loan", "Payment"));
+    cohort.onSchedule().starting(closingDate).runEveryNMonths(60).atEndOfDay()
+        .schedule(context -> System.out.format("%s\n%s\n", context.getDate(),
+            sweep.toString("Checking", "Loan", "Payment")));
+
+    sim.runUntil(start.plusYears(35));
+  }
+}
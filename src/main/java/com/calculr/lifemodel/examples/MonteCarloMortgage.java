@@ -0,0 +1,87 @@
+package com.calculr.lifemodel.examples;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.calculr.lifemodel.books.AssetAccount;
+import com.calculr.lifemodel.books.BalanceSheet;
+import com.calculr.lifemodel.books.BlindPayer;
+import com.calculr.lifemodel.books.Mortgage;
+import com.calculr.lifemodel.engine.Estimate;
+import com.calculr.lifemodel.engine.MonteCarloExperiment;
+import com.calculr.lifemodel.engine.RandomStream;
+import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.engine.Trial;
+import com.calculr.lifemodel.finance.Money;
+import com.calculr.lifemodel.finance.MoneyMetric;
+
+/**
+ * Estimates the expected total payment of a mortgage whose rate is uncertain, comparing the
+ * standard error of plain sampling with each kind of variance reduction.
+ */
+public class MonteCarloMortgage {
+  private static final LocalDate START = LocalDate.of(2016, 10, 1);
+  private static final LocalDate CLOSING_DATE = LocalDate.of(2016, 11, 16);
+  private static final Money PRICE = Money.dollars(1_010_000);
+  private static final Money PRINCIPAL = PRICE.scale(0.80);
+  private static final double RATE = 0.03625;
+  private static final double RATE_DEVIATION = 0.005;
+  private static final String TOTAL_PAYMENT = "Mortgage <Home> total payment";
+  private static final String LINEAR_PAYMENT = "Linearized total payment";
+
+  static class UncertainRate implements Trial {
+
+    @Override
+    public String getTrialName() {
+      return "Uncertain rate";
+    }
+
+    @Override
+    public void run(LocalDate start, Simulation sim) {
+      double rate = RandomStream.of(sim).nextGaussian(RATE, RATE_DEVIATION);
+      BalanceSheet sheet = BalanceSheet.create(sim);
+      AssetAccount dummy = sheet.createDummyAccount();
+      sheet.createMortgage(new BlindPayer(sim, dummy), "Home", PRICE)
+          .setClosingDate(CLOSING_DATE)
+          .setRate(rate)
+          .setDownPayment(0.20, dummy)
+          .setFixed(30)
+          .useAnalyticSchedule()
+          .build();
+      // The control: total payments linearized around the expected rate, whose expected value
+      // is the total payment at the expected rate.
+      sim.update(MoneyMetric.last(LINEAR_PAYMENT),
+          Money.dollars(360).scale(linearPayment(rate)));
+      sim.runUntil(start.plusYears(31));
+    }
+  }
+
+  /**
+   * Returns the monthly payment in dollars, linearized around the expected rate.
+   */
+  private static double linearPayment(double rate) {
+    double dollar = Money.dollars(1).toPrimitive();
+    double payment = Mortgage.amortizationPayment(PRINCIPAL, 30, RATE).toPrimitive() / dollar;
+    double slope = (Mortgage.amortizationPayment(PRINCIPAL, 30, RATE + 1e-4).toPrimitive()
+        - Mortgage.amortizationPayment(PRINCIPAL, 30, RATE - 1e-4).toPrimitive()) / dollar / 2e-4;
+    return payment + slope * (rate - RATE);
+  }
+
+  public static void main(String[] args) {
+    int replicas = 64;
+    double expectedControl = 360 * linearPayment(RATE);
+    print("Plain", MonteCarloExperiment.create(new UncertainRate(), replicas).run(START));
+    print("Antithetic", MonteCarloExperiment.create(new UncertainRate(), replicas)
+        .useAntitheticVariates().run(START));
+    print("Stratified", MonteCarloExperiment.create(new UncertainRate(), replicas)
+        .useStratifiedSampling(replicas / 2).run(START));
+    print("Control variate", MonteCarloExperiment.create(new UncertainRate(), replicas)
+        .addControlVariate(TOTAL_PAYMENT, LINEAR_PAYMENT, expectedControl).run(START));
+    print("Quasi-random", MonteCarloExperiment.create(new UncertainRate(), replicas)
+        .useQuasiRandom(4).run(START));
+  }
+
+  private static void print(String sampling, Map<String, Estimate> estimates) {
+    System.out.format("%-16s %s%n", sampling, estimates.get(TOTAL_PAYMENT));
+  }
+}
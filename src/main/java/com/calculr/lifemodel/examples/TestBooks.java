@@ -27,7 +27,8 @@ public class TestBooks {
       onSchedule()
           .startingToday()
           .runDaily()
-          .schedule(context -> account.deposit(Transaction.create(context.getDate(), "deposit",
+          .schedule(context -> account.deposit(Transaction.create(context.getSimulation(),
+              context.getDate(), "deposit",
               Money.dollars(random.nextInt(11) - 3))));
     }    
   }
@@ -39,7 +40,8 @@ public class TestBooks {
     new TransactionActor(simulator, savingsAccount);
     AssetAccount greatInvestmentAccount = sheet.createInterestAccount("investment", 0.10);
     greatInvestmentAccount
-        .deposit(Transaction.create(LocalDate.now(), "Initial investment", Money.dollars(1000)));
+        .deposit(Transaction.create(simulator, LocalDate.now(), "Initial investment",
+            Money.dollars(1000)));
 
     simulator.runUntil(LocalDate.now().plusYears(30));
     System.out.format("Total assets: %s\n\n", sheet.get(BalanceSheet.ALL_ASSETS).getBalance());
@@ -4,13 +4,14 @@ import java.time.Duration;
 import java.time.LocalDate;
 
 import com.calculr.lifemodel.books.*;
+import com.calculr.lifemodel.books.HistoryPolicy.Resolution;
+import com.calculr.lifemodel.books.RetentionPolicy.Rollup;
+import com.calculr.lifemodel.books.WaterfallPayer.Strategy;
 import com.calculr.lifemodel.engine.Experiment;
 import com.calculr.lifemodel.engine.Simulation;
 import com.calculr.lifemodel.engine.Trial;
-import com.calculr.lifemodel.finance.Bill;
 import com.calculr.lifemodel.finance.Money;
 import com.calculr.lifemodel.finance.MoneyMetric;
-import com.calculr.lifemodel.finance.Payee;
 import com.calculr.lifemodel.finance.Payer;
 
 public class TestMortgage {
@@ -97,37 +98,25 @@ public class TestMortgage {
       BalanceSheet sheet = BalanceSheet.create(sim);
       AssetAccount checking = sheet.createAssetAccount("Checking");
       checking.schedule(start.plusDays(15), context -> checking
-          .deposit(Transaction.create(start.plusDays(15), "Transfer", Money.dollars(250000))));
+          .deposit(Transaction.create(sim, start.plusDays(15), "Transfer", Money.dollars(250000))));
       checking.onSchedule()
           .startingToday()
           .runEveryNWeeks(2)
           .schedule(context -> checking
-              .deposit(Transaction.create(context.getDate(), "Salary", Money.dollars(7500))));
+              .deposit(Transaction.create(sim, context.getDate(), "Salary", Money.dollars(7500))));
       
-      // TODO: Create a much smarter payer - saves extra money, pays the most
-      // important bills first..
-      //Payer payer = new DefaultPayer(sim, checking);
-      Payer extraPayer = new Payer(sim) {
-        @Override
-        public void onBill(Payee payee, Bill bill) {
-          schedule(bill.getDueDate().minusDays(3), context -> {
-            if (payee.getName().equals("Home")) {
-              payPeriodAndExtraPayment(checking, bill, extraMonthlyPayment);
-            } else {
-              payPeriodPayment(checking, bill);
-            }
-          });
-        }
-
-        @Override
-        public void onRegister(LocalDate date) {
-        }
-      };
+      Payer extraPayer = WaterfallPayer.newBuilder(sim, checking)
+          .setStrategy(Strategy.AVALANCHE)
+          .setDaysBeforeDueDate(3)
+          .build();
       
       CreditCardAccount credit = sheet
           .createCreditCard(extraPayer, "Credit Card", Money.dollars(20000), 0.109).build();
+      // Daily purchases are only needed in detail until the statement has been paid.
+      credit.setRetentionPolicy(RetentionPolicy.keepDays(60, Rollup.MONTHLY));
+      credit.setHistoryPolicy(HistoryPolicy.keepDaily(90, Resolution.MONTHLY));
       credit.onSchedule().startingToday().runDaily().schedule(context -> credit.purchase(
-          Transaction.create(context.getDate(), "credit card purchase", Money.dollars(250))));
+          Transaction.create(sim, context.getDate(), "credit card purchase", Money.dollars(250))));
       
       LocalDate closingDate = LocalDate.of(2016, 11, 16);
       Mortgage mortgage = sheet.createMortgage(extraPayer, "Home", totalPrice)
@@ -137,6 +126,7 @@ public class TestMortgage {
           .setClosingCosts(closingCosts)
           .setOriginationRate(originationFee, mortgageRate + originationRateDifference)
           .setFixed(years)  // years
+          .setExtraPayment(extraMonthlyPayment)
           .build();      
       
       AssetAccount dummy = sheet.createDummyAccount();
@@ -147,6 +137,7 @@ public class TestMortgage {
           .setDownPayment(fractionDown, dummy)  // 20% down
           .setClosingCosts(closingCosts)
           .setFixed(years)  // years
+          .useAnalyticSchedule()
           .build();
       mortgage.getAsset().onSchedule().starting(closingDate).runEveryNMonths(60).schedule(context -> {
          Money payment = context.<Money>getMetric("Mortgage <Home> total payment").getValue();
@@ -0,0 +1,128 @@
+package com.calculr.lifemodel.finance;
+
+/**
+ * The closed-form schedule of payments for a fixed-rate loan with equal periodic payments.
+ *
+ * <p>The balance after {@code k} payments is {@code B * g^k - P * (g^k - 1) / r}, where
+ * {@code B} is the starting balance, {@code P} is the payment, {@code r} is the periodic rate
+ * and {@code g = 1 + r}. Each row is computed directly from this formula, using the shared
+ * {@link CompoundingTable} of the rate, so the schedule is produced without simulating the
+ * loan. The final row pays off the remaining balance, which may be earlier than the term
+ * when the payment includes an extra amount.
+ *
+ * <p>Rows are stored as primitive amounts and converted to {@link Money} on access.
+ */
+public final class AmortizationSchedule {
+  private final long[] payments;
+  private final long[] principal;
+  private final long[] interest;
+  private final long[] balances;
+
+  private AmortizationSchedule(long[] payments, long[] principal, long[] interest,
+      long[] balances) {
+    this.payments = payments;
+    this.principal = principal;
+    this.interest = interest;
+    this.balances = balances;
+  }
+
+  /**
+   * Computes the amortization schedule of a loan.
+   *
+   * @param balance the outstanding balance of the loan before the first payment
+   * @param periodicRate the interest rate applied each period, e.g. the annual rate over 12
+   * @param periods the maximum number of payments, i.e. the term of the loan
+   * @param payment the payment made each period, including any extra payment
+   */
+  public static AmortizationSchedule create(Money balance, double periodicRate, int periods,
+      Money payment) {
+    double startingBalance = balance.toPrimitive();
+    double periodPayment = payment.toPrimitive();
+    CompoundingTable table = CompoundingTables.get(periodicRate, periods);
+
+    long[] payments = new long[periods];
+    long[] principal = new long[periods];
+    long[] interest = new long[periods];
+    long[] balances = new long[periods];
+
+    long previous = balance.toPrimitive();
+    int rows = 0;
+    while (rows < periods && previous > 0) {
+      double growth = table.getGrowth(rows + 1);
+      double annuity = periodicRate == 0 ? rows + 1 : (growth - 1) / periodicRate;
+      long next = Math.round(startingBalance * growth - periodPayment * annuity);
+      if (next <= 0 || rows == periods - 1) {
+        // The final payment covers the remaining balance and its interest.
+        long finalInterest = Math.round(previous * periodicRate);
+        payments[rows] = previous + finalInterest;
+        principal[rows] = previous;
+        interest[rows] = finalInterest;
+        balances[rows] = 0;
+      } else {
+        payments[rows] = payment.toPrimitive();
+        principal[rows] = previous - next;
+        interest[rows] = payments[rows] - principal[rows];
+        balances[rows] = next;
+      }
+      previous = balances[rows];
+      rows++;
+    }
+    return new AmortizationSchedule(trim(payments, rows), trim(principal, rows),
+        trim(interest, rows), trim(balances, rows));
+  }
+
+  private static long[] trim(long[] values, int length) {
+    if (values.length == length) {
+      return values;
+    }
+    long[] trimmed = new long[length];
+    System.arraycopy(values, 0, trimmed, 0, length);
+    return trimmed;
+  }
+
+  /**
+   * Returns the number of payments until the loan is paid off.
+   */
+  public int size() {
+    return payments.length;
+  }
+
+  /**
+   * Returns the total payment of the i-th period, starting at zero.
+   */
+  public Money getPayment(int i) {
+    return Money.fromPrimitive(payments[i]);
+  }
+
+  /**
+   * Returns the portion of the i-th payment that reduces the balance.
+   */
+  public Money getPrincipal(int i) {
+    return Money.fromPrimitive(principal[i]);
+  }
+
+  /**
+   * Returns the portion of the i-th payment that pays interest.
+   */
+  public Money getInterest(int i) {
+    return Money.fromPrimitive(interest[i]);
+  }
+
+  /**
+   * Returns the outstanding balance after the i-th payment.
+   */
+  public Money getBalance(int i) {
+    return Money.fromPrimitive(balances[i]);
+  }
+
+  /**
+   * Returns the sum of all payments over the schedule.
+   */
+  public Money getTotalPayments() {
+    long total = 0;
+    for (long payment : payments) {
+      total += payment;
+    }
+    return Money.fromPrimitive(total);
+  }
+}
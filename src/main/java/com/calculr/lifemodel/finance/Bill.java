@@ -3,28 +3,43 @@ package com.calculr.lifemodel.finance;
 import java.time.LocalDate;
 
 import com.calculr.lifemodel.books.AssetAccount;
+import com.calculr.lifemodel.books.DescriptionDictionary;
 import com.calculr.lifemodel.books.Transaction;
-import com.calculr.lifemodel.engine.Actor;
+import com.calculr.lifemodel.engine.Outcome;
 import com.calculr.lifemodel.engine.Simulation;
 
 /**
  * A request for payment from a {@link Payee} to a {@link Payer}. 
+ *
+ * <p>Bills are tracked by the {@link BillingEngine} of the simulation, which notifies the
+ * payer and checks the minimum payment at the end of the due date.
  */
-public class Bill extends Actor<Bill> {
-  private final Simulation sim;
+public final class Bill {
+  /** The kind of {@link Outcome} reported when a minimum payment is missed. */
+  public static final String PAYMENT_DEFAULT = "Payment default";
+
+  private static final String PAYMENT_DESCRIPTION = "%s Payment";
+
+  private static final FinanceException LATE_PAYMENT =
+      new FinanceException(true, "No payment allowed after due date");
+
+  private final BillingEngine engine;
   private final Payee payee;
   private final Payer payer;
   private final LocalDate issueDate;
   private final LocalDate dueDate;
-  private Money payed = Money.zero();
+
+  // The slot of the bill in the engine, until its due date has been checked.
+  int slot;
+  Money finalPayment;
   
-  private Bill(Simulation sim, Payee payee, Payer payer, int gracePeriod) {
-    super(sim);
-    this.sim = sim;
+  Bill(BillingEngine engine, Payee payee, Payer payer, LocalDate issueDate,
+      LocalDate dueDate) {
+    this.engine = engine;
     this.payee = payee;
     this.payer = payer;
-    this.issueDate = sim.getCurrentDate();
-    this.dueDate = issueDate.plusDays(gracePeriod);
+    this.issueDate = issueDate;
+    this.dueDate = dueDate;
   }
   
   /**
@@ -37,9 +52,29 @@ public class Bill extends Actor<Bill> {
    *        other penalties are levied
    */
   public static Bill issue(Simulation sim, Payee payee, Payer payer, int gracePeriod) {
-    return new Bill(sim, payee, payer, gracePeriod);
+    return BillingEngine.of(sim).issue(payee, payer, gracePeriod);
   }
 
+  /**
+   * Returns the originator of this {@link Bill}.
+   */
+  public Payee getPayee() {
+    return payee;
+  }
+
+  /**
+   * Returns the {@link Payer} responsible for this {@link Bill}.
+   */
+  public Payer getPayer() {
+    return payer;
+  }
+
+  /**
+   * Returns the date when this {@link Bill} was issued.
+   */
+  public LocalDate getIssueDate() {
+    return issueDate;
+  }
   
   /**
    * Returns the date when this {@link Bill} is due. 
@@ -68,29 +103,27 @@ public class Bill extends Actor<Bill> {
   public Money getTotalLiability() {
     return payee.getTotalLiability();
   }
+
+  /**
+   * Returns the total paid toward this {@link Bill} so far.
+   */
+  public Money getAmountPaid() {
+    return engine.getAmountPaid(this);
+  }
   
   /**
    * Pays a bill by withdrawing an amount from the specified {@link AssetAccount}.
    */
   public void pay(AssetAccount account, Money amount) {
+    Simulation sim = engine.getSimulation();
     LocalDate date = sim.getCurrentDate();
     if (date.isAfter(dueDate)) {
-      throw new FinanceException("No payment allowed after due date");
+      throw LATE_PAYMENT;
     }
-    Transaction transaction = Transaction.create(date, payee.getName() + " Payment", amount);
+    Transaction transaction = Transaction.create(sim, date,
+        DescriptionDictionary.of(sim).intern(PAYMENT_DESCRIPTION, payee.getName()), amount);
     payee.remit(account, transaction);
-    payed = payed.add(amount);
-  }
-
-  @Override
-  public void onRegister(LocalDate date) {
-    schedule(date.plusDays(1), context -> payer.onBill(payee, this));
-    scheduleEndOfDay(getDueDate(), context -> {
-      if (!payed.isAtLeast(getMinimumPayment())) {
-        throw new PaymentDefault("Minimum payment to '%s' of %s not received by %s",
-            payee.getName(), getMinimumPayment(), getDueDate());
-      }
-    });    
+    engine.recordPayment(this, amount);
   }
 
   /**
@@ -100,7 +133,7 @@ public class Bill extends Actor<Bill> {
     private static final long serialVersionUID = 1L;
 
     PaymentDefault(String msg, Object... args) {
-      super(msg, args);
+      super(true, msg, args);
     }
   }
 }
@@ -0,0 +1,220 @@
+package com.calculr.lifemodel.finance;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import com.calculr.lifemodel.engine.Actor;
+import com.calculr.lifemodel.engine.Outcome;
+import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.engine.TaskContext;
+
+/**
+ * Tracks every outstanding {@link Bill} of a {@link Simulation}.
+ *
+ * <p>Bills are stored in slots of primitive arrays and chained by their due date, so issuing
+ * a bill does not create an {@link Actor} or any tasks of its own. Payers are notified of all
+ * bills issued on the same day in one task on the following day, and the minimum payments of
+ * all bills due on the same day are checked in one sweep at the end of that day.
+ */
+public final class BillingEngine extends Actor<BillingEngine> {
+  private static final int NO_SLOT = -1;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Simulation sim;
+
+  // Slots of outstanding bills. The next slot links bills due on the same day, or free slots.
+  private Bill[] bills = new Bill[INITIAL_CAPACITY];
+  private long[] paid = new long[INITIAL_CAPACITY];
+  private int[] next = new int[INITIAL_CAPACITY];
+  private int used = 0;
+  private int freeSlot = NO_SLOT;
+
+  // The first slot of the chain due on each day, indexed by the epoch day modulo the length.
+  // All outstanding bills are due within the longest grace period, so days never collide.
+  private int[] dueHeads = newHeads(INITIAL_CAPACITY);
+
+  // Bills waiting to be sent to their payers, in the order they were issued.
+  private Bill[] notices = new Bill[INITIAL_CAPACITY];
+  private int noticeCount = 0;
+  private LocalDate nextNoticeDate = null;
+
+  private BillingEngine(Simulation sim) {
+    super(sim);
+    this.sim = sim;
+  }
+
+  /**
+   * Returns the {@link BillingEngine} of the {@link Simulation}, creating it on first use.
+   */
+  public static BillingEngine of(Simulation sim) {
+    return sim.getComponent(BillingEngine.class, BillingEngine::new);
+  }
+
+  @Override
+  public void onRegister(LocalDate date) {
+    // Notices and sweeps are scheduled as bills are issued.
+  }
+
+  /**
+   * Issues a new {@link Bill} due after the grace period.
+   *
+   * @see Bill#issue(Simulation, Payee, Payer, int)
+   */
+  public Bill issue(Payee payee, Payer payer, int gracePeriod) {
+    if (gracePeriod < 0) {
+      throw new IllegalArgumentException("The grace period of a bill can not be negative");
+    }
+    LocalDate issueDate = sim.getCurrentDate();
+    Bill bill = new Bill(this, payee, payer, issueDate, issueDate.plusDays(gracePeriod));
+    int slot = allocate(bill);
+    index(slot, bill.getDueDate(), gracePeriod);
+    notice(bill);
+    return bill;
+  }
+
+  /**
+   * Returns the number of bills whose due date has not passed.
+   */
+  public int getOutstandingCount() {
+    int count = 0;
+    for (int slot = 0; slot < used; slot++) {
+      if (bills[slot] != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  Simulation getSimulation() {
+    return sim;
+  }
+
+  Money getAmountPaid(Bill bill) {
+    return bill.slot == NO_SLOT ? bill.finalPayment : Money.fromPrimitive(paid[bill.slot]);
+  }
+
+  void recordPayment(Bill bill, Money amount) {
+    if (bill.slot != NO_SLOT) {
+      paid[bill.slot] += amount.toPrimitive();
+    }
+  }
+
+  private int allocate(Bill bill) {
+    int slot = freeSlot;
+    if (slot != NO_SLOT) {
+      freeSlot = next[slot];
+    } else {
+      if (used == bills.length) {
+        int capacity = bills.length * 2;
+        bills = Arrays.copyOf(bills, capacity);
+        paid = Arrays.copyOf(paid, capacity);
+        next = Arrays.copyOf(next, capacity);
+      }
+      slot = used++;
+    }
+    bills[slot] = bill;
+    paid[slot] = 0;
+    bill.slot = slot;
+    return slot;
+  }
+
+  private void index(int slot, LocalDate dueDate, int gracePeriod) {
+    if (gracePeriod >= dueHeads.length) {
+      rehash(Integer.highestOneBit(gracePeriod) * 2);
+    }
+    int day = dayIndex(dueDate);
+    int head = dueHeads[day];
+    next[slot] = head;
+    dueHeads[day] = slot;
+    if (head == NO_SLOT) {
+      // The first bill due on this day schedules the sweep of all bills due that day.
+      if (dueDate.equals(sim.getCurrentDate())) {
+        scheduleEndOfCurrentDay(BillingEngine::sweep);
+      } else {
+        scheduleEndOfDay(dueDate, BillingEngine::sweep);
+      }
+    }
+  }
+
+  private void rehash(int capacity) {
+    int[] heads = newHeads(capacity);
+    for (int head : dueHeads) {
+      if (head != NO_SLOT) {
+        heads[(int) Math.floorMod(bills[head].getDueDate().toEpochDay(), (long) capacity)] = head;
+      }
+    }
+    dueHeads = heads;
+  }
+
+  private int dayIndex(LocalDate date) {
+    return (int) Math.floorMod(date.toEpochDay(), (long) dueHeads.length);
+  }
+
+  private void notice(Bill bill) {
+    if (noticeCount == notices.length) {
+      notices = Arrays.copyOf(notices, noticeCount * 2);
+    }
+    notices[noticeCount++] = bill;
+    LocalDate noticeDate = bill.getIssueDate().plusDays(1);
+    if (!noticeDate.equals(nextNoticeDate)) {
+      nextNoticeDate = noticeDate;
+      schedule(noticeDate, BillingEngine::sendNotices);
+    }
+  }
+
+  /**
+   * Sends every bill issued before the current day to its payer.
+   */
+  private static void sendNotices(TaskContext<BillingEngine> context) {
+    BillingEngine engine = context.getActor();
+    LocalDate date = context.getDate();
+    int sent = 0;
+    while (sent < engine.noticeCount && engine.notices[sent].getIssueDate().isBefore(date)) {
+      Bill bill = engine.notices[sent++];
+      bill.getPayer().onBill(bill.getPayee(), bill);
+    }
+    System.arraycopy(engine.notices, sent, engine.notices, 0, engine.noticeCount - sent);
+    Arrays.fill(engine.notices, engine.noticeCount - sent, engine.noticeCount, null);
+    engine.noticeCount -= sent;
+  }
+
+  /**
+   * Checks the minimum payment of every bill due on the current day and releases their slots.
+   */
+  private static void sweep(TaskContext<BillingEngine> context) {
+    BillingEngine engine = context.getActor();
+    LocalDate dueDate = context.getDate();
+    int day = engine.dayIndex(dueDate);
+    int slot = engine.dueHeads[day];
+    engine.dueHeads[day] = NO_SLOT;
+    while (slot != NO_SLOT) {
+      Bill bill = engine.bills[slot];
+      int following = engine.next[slot];
+      bill.finalPayment = Money.fromPrimitive(engine.paid[slot]);
+      bill.slot = NO_SLOT;
+      engine.bills[slot] = null;
+      engine.next[slot] = engine.freeSlot;
+      engine.freeSlot = slot;
+      engine.checkMinimumPayment(bill);
+      slot = following;
+    }
+  }
+
+  private void checkMinimumPayment(Bill bill) {
+    Money minimumPayment = bill.getMinimumPayment();
+    if (!bill.finalPayment.isAtLeast(minimumPayment)) {
+      String name = bill.getPayee().getName();
+      LocalDate dueDate = bill.getDueDate();
+      String format = "Minimum payment to '%s' of %s not received by %s";
+      sim.report(
+          Outcome.of(dueDate, Bill.PAYMENT_DEFAULT, name, format, name, minimumPayment, dueDate),
+          () -> new Bill.PaymentDefault(format, name, minimumPayment, dueDate));
+    }
+  }
+
+  private static int[] newHeads(int capacity) {
+    int[] heads = new int[capacity];
+    Arrays.fill(heads, NO_SLOT);
+    return heads;
+  }
+}
@@ -0,0 +1,74 @@
+package com.calculr.lifemodel.finance;
+
+/**
+ * An immutable table of the compound growth of a periodic rate over a number of periods.
+ *
+ * <p>Growth factors are built up by one multiplication per period, as a balance compounds, so
+ * that a schedule read from the table matches one compounded period by period. Amortization
+ * factors use the closed form {@code (1 + r)^n} of the term instead.
+ *
+ * <p>Tables are shared between simulations through {@link CompoundingTables} and must not be
+ * modified.
+ */
+public final class CompoundingTable {
+  private final double periodicRate;
+  private final double[] growth;
+  private final double amortizationFactor;
+
+  CompoundingTable(double periodicRate, int periods) {
+    this.periodicRate = periodicRate;
+    this.growth = new double[periods + 1];
+    double growthRate = 1 + periodicRate;
+    growth[0] = 1;
+    for (int k = 1; k <= periods; k++) {
+      growth[k] = growth[k - 1] * growthRate;
+    }
+    this.amortizationFactor = computeAmortizationFactor(periods);
+  }
+
+  /**
+   * Returns the rate applied each period.
+   */
+  public double getPeriodicRate() {
+    return periodicRate;
+  }
+
+  /**
+   * Returns the number of periods in the table.
+   */
+  public int getPeriods() {
+    return growth.length - 1;
+  }
+
+  /**
+   * Returns the growth factor {@code (1 + r)^k} after {@code k} periods.
+   */
+  public double getGrowth(int k) {
+    return growth[k];
+  }
+
+  /**
+   * Returns the fraction of the principal paid each period to amortize a loan over all of the
+   * periods of the table.
+   */
+  public double getAmortizationFactor() {
+    return amortizationFactor;
+  }
+
+  /**
+   * Returns the fraction of the principal paid each period to amortize a loan over the
+   * remaining number of periods, {@code r * g^n / (g^n - 1)}.
+   */
+  public double getAmortizationFactor(int remainingPeriods) {
+    return remainingPeriods == getPeriods()
+        ? amortizationFactor : computeAmortizationFactor(remainingPeriods);
+  }
+
+  private double computeAmortizationFactor(int remainingPeriods) {
+    if (periodicRate == 0) {
+      return 1.0 / remainingPeriods;
+    }
+    double totalInterest = Math.pow(1 + periodicRate, remainingPeriods);
+    return periodicRate * totalInterest / (totalInterest - 1);
+  }
+}
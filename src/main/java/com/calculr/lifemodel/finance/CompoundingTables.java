@@ -0,0 +1,96 @@
+package com.calculr.lifemodel.finance;
+
+import java.util.Objects;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * A bounded cache of {@link CompoundingTable} objects keyed by the periodic rate and number
+ * of periods, shared by all simulations in the JVM.
+ *
+ * <p>Sweeps of loans and savings reuse a small number of rates many times, so each table is
+ * computed once and shared between trials, including trials running in parallel. The least
+ * recently used tables are evicted when the cache is full.
+ */
+public final class CompoundingTables {
+  /** The largest number of tables kept in the cache. */
+  public static final int MAXIMUM_SIZE = 1024;
+
+  private static final LoadingCache<Key, CompoundingTable> CACHE = CacheBuilder.newBuilder()
+      .maximumSize(MAXIMUM_SIZE)
+      .recordStats()
+      .build(new CacheLoader<Key, CompoundingTable>() {
+        @Override
+        public CompoundingTable load(Key key) {
+          return new CompoundingTable(key.periodicRate, key.periods);
+        }
+      });
+
+  private CompoundingTables() {}
+
+  /**
+   * Returns the shared {@link CompoundingTable} of the periodic rate over the periods.
+   */
+  public static CompoundingTable get(double periodicRate, int periods) {
+    if (periods < 0) {
+      throw new IllegalArgumentException("The number of periods can not be negative");
+    }
+    return CACHE.getUnchecked(new Key(periodicRate, periods));
+  }
+
+  /**
+   * Returns the number of requests served by a cached table.
+   */
+  public static long getHitCount() {
+    return CACHE.stats().hitCount();
+  }
+
+  /**
+   * Returns the number of requests that computed a new table.
+   */
+  public static long getMissCount() {
+    return CACHE.stats().missCount();
+  }
+
+  /**
+   * Returns the approximate number of tables in the cache.
+   */
+  public static long size() {
+    return CACHE.size();
+  }
+
+  /**
+   * Returns the statistics of the cache, including hits, misses, and evictions.
+   */
+  public static CacheStats getStats() {
+    return CACHE.stats();
+  }
+
+  private static final class Key {
+    private final double periodicRate;
+    private final int periods;
+
+    Key(double periodicRate, int periods) {
+      this.periodicRate = periodicRate;
+      this.periods = periods;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(periodicRate, periods);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (!(obj instanceof Key))
+        return false;
+      Key other = (Key) obj;
+      return Double.compare(periodicRate, other.periodicRate) == 0 && periods == other.periods;
+    }
+  }
+}
@@ -7,4 +7,13 @@ public class FinanceException extends RuntimeException {
   protected FinanceException(String msg, Object... args) {
     super(String.format(msg, args));
   }
+
+  /**
+   * Constructs a {@link FinanceException} that does not capture a stack trace. These are
+   * used for expected simulation outcomes, where the stack trace carries no information and
+   * is expensive to build.
+   */
+  protected FinanceException(boolean stackless, String msg, Object... args) {
+    super(String.format(msg, args), null, false, !stackless);
+  }
 }
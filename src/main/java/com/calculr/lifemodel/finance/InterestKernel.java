@@ -0,0 +1,80 @@
+package com.calculr.lifemodel.finance;
+
+/**
+ * Computes one period of interest for many balances at once, over primitive arrays.
+ *
+ * <p>Each amount is rounded exactly as {@link Money#scale(double)} rounds it, and the signs
+ * follow the interest of a single account: an asset earns interest at a positive rate and pays
+ * it at a negative rate, while a liability is only charged interest while money is owed at a
+ * positive rate, and only receives interest while it is overpaid at a negative rate. Balances
+ * and results are primitive {@link Money} amounts.
+ */
+public final class InterestKernel {
+
+  private InterestKernel() {
+  }
+
+  /**
+   * Computes the signed interest of asset balances, adding nothing to a balance at a zero rate.
+   *
+   * @param balances the balance of each asset
+   * @param rates the rate of each asset for one period
+   * @param interest receives the signed interest of each asset
+   * @param count the number of balances
+   */
+  public static void assets(long[] balances, double[] rates, long[] interest, int count) {
+    for (int i = 0; i < count; i++) {
+      interest[i] = assetInterest(balances[i], rates[i]);
+    }
+  }
+
+  /**
+   * Computes the signed interest of liability balances, where a negative balance is owed.
+   *
+   * @param balances the balance of each liability
+   * @param rates the rate of each liability for one period
+   * @param interest receives the signed interest of each liability
+   * @param count the number of balances
+   */
+  public static void liabilities(long[] balances, double[] rates, long[] interest, int count) {
+    for (int i = 0; i < count; i++) {
+      interest[i] = liabilityInterest(balances[i], rates[i]);
+    }
+  }
+
+  /**
+   * Adds one period of interest to asset balances in place, at each annual rate divided by the
+   * number of periods per year.
+   */
+  public static void compoundAssets(long[] balances, double[] annualRates, int periodsPerYear,
+      int count) {
+    for (int i = 0; i < count; i++) {
+      balances[i] += assetInterest(balances[i], annualRates[i] / periodsPerYear);
+    }
+  }
+
+  /**
+   * Adds one period of interest to liability balances in place, at each annual rate divided by
+   * the number of periods per year.
+   */
+  public static void compoundLiabilities(long[] balances, double[] annualRates,
+      int periodsPerYear, int count) {
+    for (int i = 0; i < count; i++) {
+      balances[i] += liabilityInterest(balances[i], annualRates[i] / periodsPerYear);
+    }
+  }
+
+  private static long assetInterest(long balance, double rate) {
+    // A negative rate rounds the magnitude of the interest, as a withdrawal of it does.
+    return rate > 0 ? Math.round(balance * rate) : -Math.round(balance * -rate);
+  }
+
+  private static long liabilityInterest(long balance, double rate) {
+    if (rate > 0 && balance < 0) {
+      return Math.round(balance * rate);
+    } else if (rate < 0 && balance > 0) {
+      return Math.round(balance * -rate);
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,255 @@
+package com.calculr.lifemodel.finance;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A pool of level-payment loans projected month by month, with random prepayments and
+ * defaults.
+ *
+ * <p>Loans are stored in primitive arrays rather than as actors, so that pools of hundreds of
+ * thousands of loans can be projected many times. Each loan pays the amortization payment of
+ * its balance, rate, and remaining term, computed as by
+ * {@link CompoundingTable#getAmortizationFactor(int)} and rounded as {@link Money#scale(double)}.
+ * Each month, a loan defaults with the monthly default rate of its age, losing its balance
+ * without a payment, or otherwise pays and then prepays its remaining balance with the single
+ * monthly mortality (SMM) of its age. The SMM applies to the loans that did not default, so a
+ * loan prepays with probability {@code (1 - MDR) * SMM}. Both rates are derived from annual
+ * {@link Curve curves}, such as a constant prepayment rate (CPR) or the PSA benchmark.
+ *
+ * <p>A pool is immutable, and projections of the same pool can run concurrently.
+ */
+public final class LoanPool {
+  private final long[] balances;
+  private final long[] payments;
+  private final double[] monthlyRates;
+  private final int[] remainingTerms;
+  private final int[] ages;
+  private final Curve prepayment;
+  private final Curve defaults;
+
+  private LoanPool(LoanPoolBuilder builder) {
+    int size = builder.size;
+    balances = Arrays.copyOf(builder.balances, size);
+    monthlyRates = new double[size];
+    remainingTerms = Arrays.copyOf(builder.remainingTerms, size);
+    ages = Arrays.copyOf(builder.ages, size);
+    payments = new long[size];
+    for (int i = 0; i < size; i++) {
+      monthlyRates[i] = builder.rates[i] / 12;
+      double factor = CompoundingTables.get(monthlyRates[i], remainingTerms[i])
+          .getAmortizationFactor();
+      payments[i] = Math.round(balances[i] * factor);
+    }
+    prepayment = builder.prepayment;
+    defaults = builder.defaults;
+  }
+
+  /**
+   * Starts building a new {@link LoanPool} without prepayments or defaults.
+   */
+  public static LoanPoolBuilder newBuilder() {
+    return new LoanPoolBuilder();
+  }
+
+  /**
+   * Returns the number of loans in the pool.
+   */
+  public int size() {
+    return balances.length;
+  }
+
+  /**
+   * Returns the starting balance of all loans in the pool.
+   */
+  public Money getBalance() {
+    long total = 0;
+    for (long balance : balances) {
+      total += balance;
+    }
+    return Money.fromPrimitive(total);
+  }
+
+  /**
+   * Returns the monthly payment of the i-th loan.
+   */
+  public Money getPayment(int i) {
+    return Money.fromPrimitive(payments[i]);
+  }
+
+  /**
+   * Projects the cash flows of the pool.
+   *
+   * @param months the number of months projected
+   * @param seed the seed of the prepayment and default draws; the same seed produces the same
+   *     cash flows
+   */
+  public LoanPoolCashFlows project(int months, long seed) {
+    int size = balances.length;
+    long[] balance = balances.clone();
+    int maxAge = 0;
+    for (int age : ages) {
+      maxAge = Math.max(maxAge, age);
+    }
+    // The rates only depend on the age of a loan, so they are computed once per age.
+    double[] smm = monthlyRates(prepayment, maxAge + months + 1);
+    double[] mdr = monthlyRates(defaults, maxAge + months + 1);
+    // A single draw decides both: below the MDR the loan defaults, and the next
+    // (1 - MDR) * SMM of the unit interval prepays the loans that survived.
+    double[] exits = new double[mdr.length];
+    for (int age = 0; age < exits.length; age++) {
+      exits[age] = mdr[age] + (1 - mdr[age]) * smm[age];
+    }
+
+    LoanPoolCashFlows flows = new LoanPoolCashFlows(months);
+    SplittableRandom random = new SplittableRandom(seed);
+    for (int month = 0; month < months; month++) {
+      long interestTotal = 0;
+      long scheduledTotal = 0;
+      long prepaidTotal = 0;
+      long defaultedTotal = 0;
+      long balanceTotal = 0;
+      int active = 0;
+      for (int i = 0; i < size; i++) {
+        long outstanding = balance[i];
+        if (outstanding == 0) {
+          continue;
+        }
+        int age = ages[i] + month + 1;
+        double draw = random.nextDouble();
+        if (draw < mdr[age]) {
+          defaultedTotal += outstanding;
+          balance[i] = 0;
+          continue;
+        }
+        long interest = Math.round(outstanding * monthlyRates[i]);
+        long principal = month + 1 >= remainingTerms[i]
+            ? outstanding : Math.min(payments[i] - interest, outstanding);
+        outstanding -= principal;
+        interestTotal += interest;
+        scheduledTotal += principal;
+        if (outstanding > 0 && draw < exits[age]) {
+          prepaidTotal += outstanding;
+          outstanding = 0;
+        }
+        balance[i] = outstanding;
+        if (outstanding > 0) {
+          balanceTotal += outstanding;
+          active++;
+        }
+      }
+      flows.set(month, interestTotal, scheduledTotal, prepaidTotal, defaultedTotal,
+          balanceTotal, active);
+    }
+    return flows;
+  }
+
+  private static double[] monthlyRates(Curve curve, int ages) {
+    double[] rates = new double[ages];
+    for (int age = 1; age < ages; age++) {
+      double annualRate = curve.getAnnualRate(age);
+      rates[age] = annualRate <= 0 ? 0 : 1 - Math.pow(1 - Math.min(annualRate, 1), 1.0 / 12);
+    }
+    return rates;
+  }
+
+  /**
+   * An annual rate, such as a conditional prepayment rate (CPR) or default rate (CDR), as a
+   * function of the age of a loan in months.
+   */
+  public interface Curve {
+
+    /**
+     * Returns the annual rate of a loan making its payment of the specified month, where the
+     * first payment is month one.
+     */
+    double getAnnualRate(int ageMonths);
+
+    /**
+     * Returns a curve with the same annual rate at every age.
+     */
+    static Curve constant(double annualRate) {
+      return age -> annualRate;
+    }
+
+    /**
+     * Returns the PSA prepayment benchmark at the specified speed, where a speed of 1 is a CPR
+     * rising by 0.2% each month up to 6% at month 30.
+     */
+    static Curve psa(double speed) {
+      return age -> speed * 0.06 * Math.min(age, 30) / 30;
+    }
+  }
+
+  public static class LoanPoolBuilder {
+    private long[] balances = new long[16];
+    private double[] rates = new double[16];
+    private int[] remainingTerms = new int[16];
+    private int[] ages = new int[16];
+    private int size;
+    private Curve prepayment = Curve.constant(0);
+    private Curve defaults = Curve.constant(0);
+
+    LoanPoolBuilder() {
+    }
+
+    /**
+     * Adds a new loan to the pool.
+     *
+     * @param balance the outstanding balance of the loan
+     * @param rate the annual interest rate of the loan
+     * @param remainingTerm the number of payments left until the loan is paid off
+     */
+    public LoanPoolBuilder addLoan(Money balance, double rate, int remainingTerm) {
+      return addLoan(balance, rate, remainingTerm, 0);
+    }
+
+    /**
+     * Adds a seasoned loan to the pool, which has already made some payments.
+     *
+     * @param age the number of payments already made, which determines its prepayment and
+     *     default rates
+     */
+    public LoanPoolBuilder addLoan(Money balance, double rate, int remainingTerm, int age) {
+      if (remainingTerm < 1) {
+        throw new IllegalArgumentException("A loan must have at least one remaining payment");
+      }
+      if (balance.sign() < 0 || age < 0) {
+        throw new IllegalArgumentException("A loan can not have a negative balance or age");
+      }
+      if (size == balances.length) {
+        int capacity = size * 2;
+        balances = Arrays.copyOf(balances, capacity);
+        rates = Arrays.copyOf(rates, capacity);
+        remainingTerms = Arrays.copyOf(remainingTerms, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+      }
+      balances[size] = balance.toPrimitive();
+      rates[size] = rate;
+      remainingTerms[size] = remainingTerm;
+      ages[size] = age;
+      size++;
+      return this;
+    }
+
+    /**
+     * Sets the annual prepayment rate (CPR) of the loans.
+     */
+    public LoanPoolBuilder setPrepayment(Curve prepayment) {
+      this.prepayment = prepayment;
+      return this;
+    }
+
+    /**
+     * Sets the annual default rate (CDR) of the loans.
+     */
+    public LoanPoolBuilder setDefaults(Curve defaults) {
+      this.defaults = defaults;
+      return this;
+    }
+
+    public LoanPool build() {
+      return new LoanPool(this);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.calculr.lifemodel.finance;
+
+/**
+ * The monthly cash flows of a projected {@link LoanPool}.
+ *
+ * <p>Series are stored as primitive amounts and converted to {@link Money} on access, like the
+ * rows of an {@link AmortizationSchedule}.
+ */
+public final class LoanPoolCashFlows {
+  private final long[] interest;
+  private final long[] scheduledPrincipal;
+  private final long[] prepayments;
+  private final long[] defaults;
+  private final long[] balances;
+  private final int[] activeLoans;
+
+  LoanPoolCashFlows(int months) {
+    interest = new long[months];
+    scheduledPrincipal = new long[months];
+    prepayments = new long[months];
+    defaults = new long[months];
+    balances = new long[months];
+    activeLoans = new int[months];
+  }
+
+  void set(int month, long interest, long scheduledPrincipal, long prepayments, long defaults,
+      long balance, int activeLoans) {
+    this.interest[month] = interest;
+    this.scheduledPrincipal[month] = scheduledPrincipal;
+    this.prepayments[month] = prepayments;
+    this.defaults[month] = defaults;
+    this.balances[month] = balance;
+    this.activeLoans[month] = activeLoans;
+  }
+
+  /**
+   * Returns the number of projected months.
+   */
+  public int size() {
+    return balances.length;
+  }
+
+  /**
+   * Returns the interest paid in the i-th month, starting at zero.
+   */
+  public Money getInterest(int i) {
+    return Money.fromPrimitive(interest[i]);
+  }
+
+  /**
+   * Returns the principal paid by the scheduled payments of the i-th month.
+   */
+  public Money getScheduledPrincipal(int i) {
+    return Money.fromPrimitive(scheduledPrincipal[i]);
+  }
+
+  /**
+   * Returns the balances paid off early in the i-th month.
+   */
+  public Money getPrepayments(int i) {
+    return Money.fromPrimitive(prepayments[i]);
+  }
+
+  /**
+   * Returns the balances lost to defaults in the i-th month.
+   */
+  public Money getDefaults(int i) {
+    return Money.fromPrimitive(defaults[i]);
+  }
+
+  /**
+   * Returns the outstanding balance of the pool at the end of the i-th month.
+   */
+  public Money getBalance(int i) {
+    return Money.fromPrimitive(balances[i]);
+  }
+
+  /**
+   * Returns the number of loans outstanding at the end of the i-th month.
+   */
+  public int getActiveLoans(int i) {
+    return activeLoans[i];
+  }
+
+  /**
+   * Returns the total cash received by the holder of the pool in the i-th month: interest,
+   * scheduled principal, and prepayments.
+   */
+  public Money getCashFlow(int i) {
+    return Money.fromPrimitive(interest[i] + scheduledPrincipal[i] + prepayments[i]);
+  }
+}
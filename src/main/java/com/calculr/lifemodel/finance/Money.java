@@ -7,11 +7,18 @@ public class Money {
   
   private final long fractionalCents; 
 
-  static Money fromPrimitive(long fractionalCents) {
+  /**
+   * Returns the {@link Money} of an amount produced by {@link #toPrimitive()}. Primitive
+   * amounts allow large histories to be packed into arrays without any loss of precision.
+   */
+  public static Money fromPrimitive(long fractionalCents) {
     return new Money(fractionalCents);
   }
 
-  long toPrimitive() {
+  /**
+   * Returns the exact amount as a primitive value, in the units of {@link #fromPrimitive}.
+   */
+  public long toPrimitive() {
     return fractionalCents;
   }
 
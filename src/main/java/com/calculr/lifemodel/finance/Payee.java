@@ -32,6 +32,14 @@ public interface Payee {
    */
   Money getTotalLiability();
   
+  /**
+   * Returns the annual interest rate charged on the amount owed, which payers may use to
+   * prioritize payments. Defaults to no interest.
+   */
+  default double getInterestRate() {
+    return 0;
+  }
+
   /**
    * Accepts a new transaction as a payment into this account.
    */
@@ -17,6 +17,16 @@ public abstract class Payer extends Actor<Payer> {
    * Submits a {@link Bill} to the {@link Payer} for payment. 
    */
   public abstract void onBill(Payee payee, Bill bill);
+  
+  /**
+   * Returns the {@link AssetAccount} that this {@link Payer} pays every bill from in full,
+   * regardless of the state of the simulation, or {@code null} if payments depend on the
+   * simulation. Payees may use a deterministic payer to compute payments without simulating
+   * each bill.
+   */
+  public AssetAccount getDeterministicAccount() {
+    return null;
+  }
 
   /**
    * Pays the bill according to the period payment amount. If that amount is not
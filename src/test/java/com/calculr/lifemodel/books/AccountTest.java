@@ -0,0 +1,36 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Money;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class AccountTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void closeShouldPostPendingItems() {
+    Simulator sim = Simulator.create(START);
+    AssetAccount account = BalanceSheet.create(sim).createAssetAccount("Savings");
+    LocalDate closing = START.plusDays(3);
+    account.schedule(closing, context -> {
+      account.deposit(Transaction.create(sim, closing, "Deposit", Money.dollars(250)));
+      Truth.assertThat(account.getPostedBalance().sign()).isEqualTo(0);
+      account.close();
+    });
+    sim.runUntil(START.plusDays(10));
+
+    Truth.assertThat(account.isClosed()).isTrue();
+    Truth.assertThat(account.getPostedBalance().toPrimitive())
+        .isEqualTo(Money.dollars(250).toPrimitive());
+    LedgerHistory history = account.getLedger().getHistory();
+    Truth.assertThat(history.size()).isEqualTo(1);
+    Truth.assertThat(history.getDate(0)).isEqualTo(closing);
+  }
+}
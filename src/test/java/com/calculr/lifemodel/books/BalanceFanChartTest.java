@@ -0,0 +1,71 @@
+package com.calculr.lifemodel.books;
+
+import static org.junit.Assert.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Money;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class BalanceFanChartTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void mergeShouldRejectTheSameChart() {
+    BalanceFanChart chart = chart(100);
+    assertThrows(IllegalArgumentException.class, () -> chart.merge(chart));
+    Truth.assertThat(chart.getBands("Savings", 0.5).get(0).getReplicas()).isEqualTo(1);
+  }
+
+  @Test(timeout = 30_000)
+  public void chartsShouldMergeIntoEachOtherConcurrently() throws Exception {
+    BalanceFanChart first = chart(100);
+    BalanceFanChart second = chart(200);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> forward = executor.submit(() -> {
+        for (int i = 0; i < 200; i++) {
+          first.merge(second);
+        }
+      });
+      Future<?> backward = executor.submit(() -> {
+        for (int i = 0; i < 200; i++) {
+          second.merge(first);
+        }
+      });
+      forward.get();
+      backward.get();
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    List<BalanceFanChart.Band> bands = first.getBands("Savings", 0.5);
+    Truth.assertThat(bands).hasSize(4);
+    Truth.assertThat(bands.get(0).getReplicas()).isGreaterThan(200L);
+  }
+
+  /**
+   * Returns a chart of one replica holding a constant balance for three months.
+   */
+  private static BalanceFanChart chart(int dollars) {
+    BalanceFanChart chart = BalanceFanChart.create(START, 3);
+    Simulator sim = Simulator.create(START.minusDays(1));
+    AssetAccount savings = BalanceSheet.create(sim).createAssetAccount("Savings");
+    savings.deposit(Transaction.create(sim, START.minusDays(1), "Opening", Money.dollars(dollars)));
+    chart.track(sim, savings);
+    sim.runUntil(START.plusMonths(3));
+    return chart;
+  }
+}
@@ -0,0 +1,82 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Money;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class BatchInterestTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+  private static final double[] RATES = {0.05, 0.0137, -0.02, 0.19, -0.03};
+  private static final long[] OPENING = {1_234_567, -250_000, 999_999, -1_000_001, 40_003};
+
+  @Test
+  public void batchShouldMatchInterestActors() {
+    Truth.assertThat(simulate(true)).isEqualTo(simulate(false));
+  }
+
+  @Test
+  public void sharedLedgersShouldReceiveTheBatchTogether() {
+    Simulator sim = Simulator.create(START);
+    BalanceSheet sheet = BalanceSheet.create(sim);
+    BatchInterest batch = BatchInterest.create(sim);
+    List<AssetAccount> accounts = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      AssetAccount account = sheet.createAssetAccount("Savings " + i);
+      account.deposit(Transaction.create(sim, START, "Opening", Money.dollars(1200)));
+      batch.add(account, 0.12);
+      accounts.add(account);
+    }
+    // A consumer shared by every journal sees the interest of every account already posted.
+    List<Long> seen = new ArrayList<>();
+    Consumer<LineItem> rollup = item -> seen.add(accounts.stream()
+        .mapToLong(account -> account.getJournal().getBalance().toPrimitive()).sum());
+    accounts.forEach(account -> account.getJournal().registerLineItemConsumer(rollup));
+    sim.runUntil(START.plusMonths(1));
+
+    Truth.assertThat(seen).containsExactly(Money.dollars(3 * 1212).toPrimitive(),
+        Money.dollars(3 * 1212).toPrimitive(), Money.dollars(3 * 1212).toPrimitive());
+  }
+
+  /**
+   * Returns the balance of an asset and a liability account at each rate.
+   */
+  private static long[] simulate(boolean batched) {
+    Simulator sim = Simulator.create(START);
+    BalanceSheet sheet = BalanceSheet.create(sim);
+    BatchInterest batch = batched ? BatchInterest.create(sim) : null;
+    Account[] accounts = new Account[RATES.length * 2];
+    for (int i = 0; i < RATES.length; i++) {
+      AssetAccount asset = sheet.createAssetAccount("Savings " + i);
+      LiabilityAccount liability = sheet.createLiabilityAccount("Loan " + i);
+      Money opening = Money.fromPrimitive(OPENING[i] * 1000 + 7);
+      asset.deposit(Transaction.create(sim, START, "Opening", opening));
+      liability.payment(Transaction.create(sim, START, "Opening", opening.negate()));
+      for (Account account : new Account[] {asset, liability}) {
+        if (batched) {
+          batch.add(account, RATES[i]);
+        } else {
+          account.actOn(new Interest(RATES[i]));
+        }
+      }
+      accounts[2 * i] = asset;
+      accounts[2 * i + 1] = liability;
+    }
+    sim.runUntil(START.plusYears(3));
+
+    long[] balances = new long[accounts.length];
+    for (int i = 0; i < accounts.length; i++) {
+      balances[i] = accounts[i].getBalance().toPrimitive();
+    }
+    return balances;
+  }
+}
@@ -0,0 +1,147 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.books.Interest.Method;
+import com.calculr.lifemodel.engine.Actor;
+import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Money;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class DailyLedgerTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void cumulativeBalanceShouldSumEveryDay() {
+    Simulator sim = Simulator.create(START);
+    AssetAccount account = BalanceSheet.create(sim).createAssetAccount("Savings");
+    account.schedule(START.plusDays(2), context -> account
+        .deposit(Transaction.create(sim, context.getDate(), "deposit", Money.dollars(100))));
+    account.schedule(START.plusDays(5), context -> account
+        .withdraw(Transaction.create(sim, context.getDate(), "withdraw", Money.dollars(40))));
+    sim.runUntil(START.plusDays(9));
+
+    // $100 for days 2 to 4, then $60 for days 5 to 9.
+    DailyLedger ledger = account.getLedger();
+    Truth.assertThat(ledger.getCumulativeBalance(START.plusDays(10)).toPrimitive())
+        .isEqualTo(Money.dollars(3 * 100 + 5 * 60).toPrimitive());
+    Truth.assertThat(ledger.getCumulativeBalance(START.plusDays(20)).toPrimitive())
+        .isEqualTo(Money.dollars(3 * 100 + 15 * 60).toPrimitive());
+  }
+
+  @Test
+  public void averageDailyBalanceInterestShouldWeightEachDay() {
+    Simulator sim = Simulator.create(START);
+    AssetAccount account = BalanceSheet.create(sim).createAssetAccount("Savings");
+    account.actOn(new Interest(0.0365, Method.AVERAGE_DAILY_BALANCE));
+    account.schedule(START, context -> account
+        .deposit(Transaction.create(sim, context.getDate(), "deposit", Money.dollars(1000))));
+    account.schedule(START.plusDays(10), context -> account
+        .deposit(Transaction.create(sim, context.getDate(), "deposit", Money.dollars(1000))));
+    sim.runUntil(START.plusMonths(1));
+
+    // $1000 for 31 days and another $1000 for 21 days, at a daily rate of 0.01%.
+    Truth.assertThat(account.getPostedBalance().toPrimitive())
+        .isEqualTo(Money.dollars(2000 + 0.1 * 31 + 0.1 * 21).toPrimitive());
+  }
+
+  @Test
+  public void onlyDaysWithLineItemsShouldBePosted() {
+    Simulator sim = Simulator.create(START);
+    AssetAccount account = BalanceSheet.create(sim).createAssetAccount("Savings");
+    account.scheduleStartOfDay(START.plusDays(2), context -> account
+        .deposit(Transaction.create(sim, context.getDate(), "salary", Money.dollars(100))));
+    account.schedule(START.plusDays(2), context -> account
+        .withdraw(Transaction.create(sim, context.getDate(), "rent", Money.dollars(30))));
+    account.schedule(START.plusDays(40), context -> account
+        .deposit(Transaction.create(sim, context.getDate(), "salary", Money.dollars(100))));
+    sim.runUntil(START.plusMonths(3));
+
+    // An accrual on a quiet day would record a row, and both items of day 2 share one row.
+    LedgerHistory history = account.getLedger().getHistory();
+    Truth.assertThat(history.size()).isEqualTo(2);
+    Truth.assertThat(history.getDate(0)).isEqualTo(START.plusDays(2));
+    Truth.assertThat(history.getNetChange(0).toPrimitive())
+        .isEqualTo(Money.dollars(70).toPrimitive());
+    Truth.assertThat(history.getDate(1)).isEqualTo(START.plusDays(40));
+    Truth.assertThat(history.getClose(1).toPrimitive())
+        .isEqualTo(Money.dollars(170).toPrimitive());
+  }
+
+  @Test
+  public void balancesShouldMatchPostingEveryDay() {
+    BalanceSheet skipping = simulate(false);
+    BalanceSheet everyDay = simulate(true);
+    for (String name : new String[] {"Monthly", "Average"}) {
+      Account skipped = skipping.get(name);
+      Account daily = everyDay.get(name);
+      Truth.assertThat(skipped.getPostedBalance().toPrimitive())
+          .isEqualTo(daily.getPostedBalance().toPrimitive());
+      LocalDate end = START.plusMonths(6).plusDays(1);
+      Truth.assertThat(skipped.getLedger().getCumulativeBalance(end).toPrimitive())
+          .isEqualTo(daily.getLedger().getCumulativeBalance(end).toPrimitive());
+      // Every day the skipping ledger posted closes with the balance of the daily ledger.
+      LedgerHistory posted = skipped.getLedger().getHistory();
+      LedgerHistory reference = daily.getLedger().getHistory();
+      Truth.assertThat(posted.size()).isLessThan(reference.size());
+      int j = 0;
+      for (int i = 0; i < posted.size(); i++) {
+        while (!reference.getDate(j).equals(posted.getDate(i))) {
+          j++;
+        }
+        Truth.assertThat(posted.getClose(i).toPrimitive())
+            .isEqualTo(reference.getClose(j).toPrimitive());
+      }
+    }
+  }
+
+  /**
+   * Runs two interest accounts with irregular deposits for six months. Posting every day
+   * deposits nothing into each account daily, which makes its ledger close every day.
+   */
+  private static BalanceSheet simulate(boolean postEveryDay) {
+    Simulator sim = Simulator.create(START);
+    BalanceSheet sheet = BalanceSheet.create(sim);
+    AssetAccount monthly = sheet.createAssetAccount("Monthly");
+    monthly.actOn(new Interest(0.05, Method.MONTHLY_BALANCE));
+    AssetAccount average = sheet.createAssetAccount("Average");
+    average.actOn(new Interest(0.05, Method.AVERAGE_DAILY_BALANCE));
+    for (AssetAccount account : new AssetAccount[] {monthly, average}) {
+      for (int day = 3; day < 180; day += 17) {
+        long dollars = 100 + day;
+        account.schedule(START.plusDays(day), context -> account.deposit(
+            Transaction.create(sim, context.getDate(), "deposit", Money.dollars(dollars))));
+      }
+    }
+    if (postEveryDay) {
+      new DailyCloser(sim, monthly, average);
+    }
+    sim.runUntil(START.plusMonths(6));
+    return sheet;
+  }
+
+  private static class DailyCloser extends Actor<DailyCloser> {
+    private final AssetAccount[] accounts;
+
+    DailyCloser(Simulation sim, AssetAccount... accounts) {
+      super(sim);
+      this.accounts = accounts;
+    }
+
+    @Override
+    public void onRegister(LocalDate date) {
+      onSchedule().starting(date).runDaily().schedule(context -> {
+        for (AssetAccount account : context.getActor().accounts) {
+          account.deposit(Transaction.create(
+              context.getSimulation(), context.getDate(), "nothing", Money.zero()));
+        }
+      });
+    }
+  }
+}
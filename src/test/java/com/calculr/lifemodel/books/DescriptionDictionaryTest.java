@@ -0,0 +1,62 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Money;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class DescriptionDictionaryTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void internShouldShareEachDistinctText() {
+    DescriptionDictionary descriptions = DescriptionDictionary.of(Simulator.create(START));
+    Description salary = descriptions.intern("Salary");
+
+    Truth.assertThat(descriptions.intern("Salary")).isSameInstanceAs(salary);
+    Truth.assertThat(descriptions.intern("Rent")).isNotSameInstanceAs(salary);
+    Truth.assertThat(salary.getText()).isEqualTo("Salary");
+  }
+
+  @Test
+  public void templatesShouldBeInternedByArgument() {
+    DescriptionDictionary descriptions = DescriptionDictionary.of(Simulator.create(START));
+    Description home = descriptions.intern("%s Payment", "Home");
+
+    Truth.assertThat(descriptions.intern("%s Payment", "Home")).isSameInstanceAs(home);
+    Truth.assertThat(descriptions.intern("%s Payment", "Card")).isNotSameInstanceAs(home);
+    // Fixed text is interned apart from templates, even when the formatted text is the same.
+    Truth.assertThat(descriptions.intern("Home Payment")).isNotSameInstanceAs(home);
+    Truth.assertThat(home.getText()).isEqualTo("Home Payment");
+    Truth.assertThat(home.toString()).isEqualTo("Home Payment");
+  }
+
+  @Test
+  public void codesShouldFollowTheOrderOfFirstUse() {
+    Simulator sim = Simulator.create(START);
+    DescriptionDictionary descriptions = DescriptionDictionary.of(sim);
+    Description deposit = descriptions.intern("Deposit");
+    Description payment = descriptions.intern("%s Payment", "Home");
+    descriptions.intern("Deposit");
+    Description card = descriptions.intern("%s Payment", "Card");
+
+    Truth.assertThat(deposit.getCode()).isEqualTo(0);
+    Truth.assertThat(payment.getCode()).isEqualTo(1);
+    Truth.assertThat(card.getCode()).isEqualTo(2);
+    Truth.assertThat(descriptions.size()).isEqualTo(3);
+    Truth.assertThat(descriptions.get(1)).isSameInstanceAs(payment);
+    Truth.assertThat(DescriptionDictionary.of(sim)).isSameInstanceAs(descriptions);
+
+    Transaction first = Transaction.create(sim, START, "Deposit", Money.dollars(10));
+    Transaction second = Transaction.create(sim, START, "Deposit", Money.dollars(20));
+    Truth.assertThat(first.getDescriptionCode()).isEqualTo(deposit.getCode());
+    Truth.assertThat(second.getDescriptionCode()).isEqualTo(deposit.getCode());
+    Truth.assertThat(second.getDescription()).isEqualTo("Deposit");
+  }
+}
@@ -0,0 +1,57 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.books.RetentionPolicy.Rollup;
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Money;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class JournalTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void rolledUpJournalShouldKeepExactBalance() {
+    Simulator sim = Simulator.create(START);
+    Journal full = Journal.create();
+    Journal rolled = Journal.create()
+        .setRetentionPolicy(RetentionPolicy.keepDays(30, Rollup.MONTHLY));
+    for (int day = 0; day < 365; day++) {
+      LocalDate date = START.plusDays(day);
+      for (Journal journal : new Journal[] {full, rolled}) {
+        journal.withdraw(Transaction.create(sim, date, "Purchase", Money.dollarsCents(12, 34)));
+        journal.deposit(Transaction.create(sim, date, "Refund", Money.dollarsCents(0, 7)));
+      }
+    }
+    Truth.assertThat(rolled.getBalance().toString()).isEqualTo(full.getBalance().toString());
+    Truth.assertThat(full.getDetailCount()).isEqualTo(730);
+    Truth.assertThat(rolled.getDetailCount()).isEqualTo(62);
+  }
+
+  @Test
+  public void summariesShouldStayBoundedOverALongHorizon() {
+    Simulator sim = Simulator.create(START);
+    Journal full = Journal.create();
+    Journal rolled = Journal.create()
+        .setRetentionPolicy(RetentionPolicy.keepDays(30, Rollup.MONTHLY, 12));
+    int maximumSummaries = 0;
+    for (int day = 0; day < 50 * 365; day++) {
+      LocalDate date = START.plusDays(day);
+      for (Journal journal : new Journal[] {full, rolled}) {
+        journal.withdraw(Transaction.create(sim, date, "Purchase", Money.dollarsCents(12, 34)));
+        journal.deposit(Transaction.create(sim, date, "Refund", Money.dollarsCents(0, 7)));
+      }
+      maximumSummaries = Math.max(maximumSummaries, rolled.getSummaryCount());
+    }
+
+    // Twelve months of two summaries each, and one total of each carried forward.
+    Truth.assertThat(maximumSummaries).isEqualTo(26);
+    Truth.assertThat(rolled.getBalance().toString()).isEqualTo(full.getBalance().toString());
+    Truth.assertThat(rolled.toString()).contains("earlier");
+  }
+}
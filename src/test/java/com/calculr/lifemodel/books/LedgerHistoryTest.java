@@ -0,0 +1,48 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.books.HistoryPolicy.Resolution;
+import com.calculr.lifemodel.finance.Money;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class LedgerHistoryTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void olderDaysShouldFoldIntoMonthlyPeriods() {
+    LedgerHistory history = new LedgerHistory();
+    history.setPolicy(HistoryPolicy.keepDaily(10, Resolution.MONTHLY));
+    long balance = 0;
+    for (int day = 0; day < 90; day++) {
+      long change = Money.dollars(day % 2 == 0 ? 100 : -60).toPrimitive();
+      balance += change;
+      history.record(START.plusDays(day), change, balance);
+    }
+
+    // January and February are folded, and the first part of March is folded into March.
+    Truth.assertThat(history.size()).isEqualTo(3 + 11);
+    Truth.assertThat(history.isPeriod(0)).isTrue();
+    Truth.assertThat(history.getDate(1)).isEqualTo(LocalDate.of(2020, 2, 1));
+    Truth.assertThat(history.getOpen(0).toPrimitive()).isEqualTo(0L);
+    Truth.assertThat(history.getMin(0).toPrimitive()).isEqualTo(0L);
+    Truth.assertThat(history.getNetChange(0).toPrimitive())
+        .isEqualTo(Money.dollars(16 * 100 - 15 * 60).toPrimitive());
+    Truth.assertThat(history.getClose(0).toPrimitive())
+        .isEqualTo(history.getOpen(1).toPrimitive());
+    Truth.assertThat(history.getMax(1).toPrimitive())
+        .isEqualTo(history.getClose(1).toPrimitive() + Money.dollars(60).toPrimitive());
+
+    long net = 0;
+    for (int i = 0; i < history.size(); i++) {
+      net += history.getNetChange(i).toPrimitive();
+    }
+    Truth.assertThat(net).isEqualTo(balance);
+    Truth.assertThat(history.getClose(history.size() - 1).toPrimitive()).isEqualTo(balance);
+  }
+}
@@ -0,0 +1,80 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.engine.Metric;
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.AmortizationSchedule;
+import com.calculr.lifemodel.finance.Money;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class MortgageTest {
+  private static final LocalDate CLOSING = LocalDate.of(2020, 3, 16);
+
+  @Test
+  public void scheduleShouldMatchSimulatedLoan() {
+    assertSchedulesMatch(CLOSING);
+  }
+
+  @Test
+  public void scheduleShouldMatchSimulatedLoanBuiltBeforeClosing() {
+    // The simulated loan accrues interest from the closing date, not from the day it is built.
+    assertSchedulesMatch(CLOSING.minusDays(45));
+  }
+
+  private static void assertSchedulesMatch(LocalDate buildDate) {
+    List<Long> simulated = new ArrayList<>();
+    Simulator simulatedSim = simulate(buildDate, false, simulated);
+    List<Long> analytic = new ArrayList<>();
+    Simulator analyticSim = simulate(buildDate, true, analytic);
+
+    long cent = Money.dollarsCents(0, 1).toPrimitive();
+    Truth.assertThat(analytic).hasSize(simulated.size());
+    for (int month = 0; month < simulated.size(); month++) {
+      // Each month rounds its interest, where the schedule rounds the closed-form balance.
+      Truth.assertThat((double) analytic.get(month))
+          .isWithin(cent).of(simulated.get(month));
+    }
+    Truth.assertThat((double) total(analyticSim)).isWithin(cent).of(total(simulatedSim));
+  }
+
+  private static Simulator simulate(LocalDate buildDate, boolean analytic, List<Long> balances) {
+    Simulator sim = Simulator.create(buildDate);
+    Mortgage mortgage = build(sim, analytic);
+    mortgage.getAsset().onSchedule().starting(CLOSING.plusMonths(1).plusDays(25)).runMonthly()
+        .schedule(context -> balances.add(mortgage.getLoan().getBalance().toPrimitive()));
+    sim.runUntil(CLOSING.plusYears(31));
+    return sim;
+  }
+
+  private static Mortgage build(Simulator sim, boolean analytic) {
+    BalanceSheet sheet = BalanceSheet.create(sim);
+    AssetAccount dummy = sheet.createDummyAccount();
+    Mortgage.MortgageBuilder builder = sheet.createMortgage(new BlindPayer(sim, dummy), "Home",
+            Money.dollars(400000))
+        .setClosingDate(CLOSING)
+        .setRate(0.0425)
+        .setDownPayment(0.2, dummy)
+        .setFixed(30);
+    if (analytic) {
+      builder.useAnalyticSchedule();
+    }
+    return builder.build();
+  }
+
+  private static long total(Simulator sim) {
+    for (Metric<?> metric : sim.getMetrics()) {
+      if (metric.getName().equals("Mortgage <Home> total payment")) {
+        return ((Money) metric.getValue()).toPrimitive();
+      }
+    }
+    throw new AssertionError();
+  }
+}
@@ -0,0 +1,134 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.engine.Actor;
+import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Money;
+import com.calculr.lifemodel.finance.MoneyMetric;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class ParallelLaneTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+  private static final int ACCOUNTS = 40;
+
+  @Test
+  public void parallelLanesShouldMatchSerialRun() {
+    long[] serial = simulate(1);
+    long[] parallel = simulate(4);
+    Truth.assertThat(parallel).isEqualTo(serial);
+  }
+
+  @Test
+  public void endOfDayLanesShouldSeeEarlierPostings() {
+    List<List<Long>> serial = simulateEndOfDay(1);
+    List<List<Long>> parallel = simulateEndOfDay(4);
+    Truth.assertThat(parallel).isEqualTo(serial);
+  }
+
+  /**
+   * Returns the posted balances read at the end of each day by readers sharing an account
+   * with an end of day depositor. Deposits at the end of the day are posted by an immediate
+   * task of the ledger, which a later task of the same lane must see.
+   */
+  private static List<List<Long>> simulateEndOfDay(int parallelism) {
+    Simulator sim = Simulator.create(START).setParallelism(parallelism);
+    BalanceSheet sheet = BalanceSheet.create(sim);
+    MoneyMetric deposits = MoneyMetric.sum("Deposits");
+    List<List<Long>> balances = new ArrayList<>();
+    for (int i = 0; i < ACCOUNTS / 4; i++) {
+      AssetAccount account = sheet.createAssetAccount("Checking " + i);
+      List<Long> seen = new ArrayList<>();
+      new Reader(sim, account, seen);
+      new Depositor(sim, account, Money.dollars(100 + i), deposits, true);
+      new Reader(sim, account, seen);
+      balances.add(seen);
+    }
+    sim.runUntil(START.plusMonths(2));
+    return balances;
+  }
+
+  /**
+   * Returns the balance of every account, followed by the balance of all assets and the sum of
+   * all deposits.
+   */
+  private static long[] simulate(int parallelism) {
+    Simulator sim = Simulator.create(START).setParallelism(parallelism);
+    BalanceSheet sheet = BalanceSheet.create(sim);
+    MoneyMetric deposits = MoneyMetric.sum("Deposits");
+    List<AssetAccount> accounts = new ArrayList<>();
+    for (int i = 0; i < ACCOUNTS; i++) {
+      AssetAccount account = sheet.createInterestAccount("Savings " + i, 0.01 * (i % 7));
+      // Every third depositor shares its account with the previous one, and must wait for it.
+      AssetAccount target = i % 3 == 2 ? accounts.get(i - 1) : account;
+      new Depositor(sim, target, Money.dollars(100 + i), deposits, false);
+      accounts.add(account);
+    }
+    sim.runUntil(START.plusYears(2));
+
+    long[] balances = new long[ACCOUNTS + 2];
+    for (int i = 0; i < ACCOUNTS; i++) {
+      balances[i] = accounts.get(i).getPostedBalance().toPrimitive();
+    }
+    balances[ACCOUNTS] = sheet.get(BalanceSheet.ALL_ASSETS).getPostedBalance().toPrimitive();
+    balances[ACCOUNTS + 1] = deposits.getValue().toPrimitive();
+    return balances;
+  }
+
+  private static class Depositor extends Actor<Depositor> {
+    private final AssetAccount account;
+    private final Money amount;
+    private final MoneyMetric deposits;
+    private final boolean endOfDay;
+
+    Depositor(Simulation sim, AssetAccount account, Money amount, MoneyMetric deposits,
+        boolean endOfDay) {
+      super(sim);
+      this.account = account;
+      this.amount = amount;
+      this.deposits = deposits;
+      this.endOfDay = endOfDay;
+      setFootprint(account.getPostingFootprint());
+    }
+
+    @Override
+    public void onRegister(LocalDate date) {
+      ScheduleRun run = endOfDay
+          ? onSchedule().starting(date).runDaily().atEndOfDay()
+          : onSchedule().starting(date).runWeekly();
+      run.schedule(context -> {
+        // The deposit grows with the balance, so the order of conflicting deposits matters.
+        Money deposit = amount.add(context.getActor().account.getBalance().scale(0.001));
+        context.getActor().account.deposit(
+            Transaction.create(context.getSimulation(), context.getDate(), "Deposit", deposit));
+        context.updateMetric(deposits, deposit);
+      });
+    }
+  }
+
+  private static class Reader extends Actor<Reader> {
+    private final AssetAccount account;
+    private final List<Long> seen;
+
+    Reader(Simulation sim, AssetAccount account, List<Long> seen) {
+      super(sim);
+      this.account = account;
+      this.seen = seen;
+      setFootprint(account.getPostingFootprint());
+    }
+
+    @Override
+    public void onRegister(LocalDate date) {
+      onSchedule().starting(date).runDaily().atEndOfDay().schedule(
+          context -> seen.add(account.getPostedBalance().toPrimitive()));
+    }
+  }
+}
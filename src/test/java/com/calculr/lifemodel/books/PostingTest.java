@@ -0,0 +1,112 @@
+package com.calculr.lifemodel.books;
+
+import static org.junit.Assert.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Money;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class PostingTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void balancedPostingShouldApplyEveryLeg() {
+    Simulator sim = Simulator.create(START);
+    BalanceSheet sheet = BalanceSheet.create(sim);
+    AssetAccount checking = sheet.createAssetAccount("Checking");
+    LiabilityAccount loan = sheet.createLiabilityAccount("Loan");
+    LiabilityAccount card = sheet.createLiabilityAccount("Card");
+
+    Transaction transaction = Posting.create(sim, START, "Transfer")
+        .withdraw(checking, Money.dollars(300))
+        .deposit(loan, Money.dollars(200))
+        .deposit(card, Money.dollars(150))
+        .withdraw(card, Money.dollars(50))
+        .post();
+
+    Truth.assertThat(transaction.getAmount().toPrimitive())
+        .isEqualTo(Money.dollars(300).toPrimitive());
+    Truth.assertThat(checking.getJournal().getBalance().toPrimitive())
+        .isEqualTo(Money.dollars(-300).toPrimitive());
+    Truth.assertThat(loan.getJournal().getBalance().toPrimitive())
+        .isEqualTo(Money.dollars(200).toPrimitive());
+    Truth.assertThat(card.getJournal().getBalance().toPrimitive())
+        .isEqualTo(Money.dollars(100).toPrimitive());
+    Truth.assertThat(card.getJournal().getDetailCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void unbalancedPostingShouldNotApplyAnyLeg() {
+    Simulator sim = Simulator.create(START);
+    BalanceSheet sheet = BalanceSheet.create(sim);
+    AssetAccount checking = sheet.createAssetAccount("Checking");
+    LiabilityAccount loan = sheet.createLiabilityAccount("Loan");
+
+    Posting posting = Posting.create(sim, START, "Payment")
+        .withdraw(checking, Money.dollars(100))
+        .deposit(loan, Money.dollars(99));
+
+    assertThrows(IllegalStateException.class, posting::post);
+    Truth.assertThat(checking.getJournal().getDetailCount()).isEqualTo(0);
+    Truth.assertThat(loan.getJournal().getDetailCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void failingPostingShouldLeaveEveryBalanceUnchanged() {
+    Simulator sim = Simulator.create(START);
+    BalanceSheet sheet = BalanceSheet.create(sim);
+    AssetAccount checking = sheet.createAssetAccount("Checking");
+    AssetAccount savings = sheet.createAssetAccount("Savings");
+    LiabilityAccount loan = sheet.createLiabilityAccount("Loan");
+    VirtualAccount all = sheet.createVirtualAccount("All", checking, savings);
+
+    Posting toVirtual =
+        Posting.create(sim, START, "Transfer").withdraw(checking, Money.dollars(100));
+    assertThrows(IllegalArgumentException.class,
+        () -> toVirtual.deposit(all, Money.dollars(100)));
+
+    Posting toClosed = Posting.create(sim, START, "Payment")
+        .withdraw(checking, Money.dollars(100))
+        .deposit(savings, Money.dollars(50))
+        .deposit(loan, Money.dollars(50));
+    loan.close();
+    assertThrows(IllegalArgumentException.class, toClosed::post);
+
+    Truth.assertThat(checking.getJournal().getDetailCount()).isEqualTo(0);
+    Truth.assertThat(savings.getJournal().getDetailCount()).isEqualTo(0);
+    Truth.assertThat(loan.getJournal().getDetailCount()).isEqualTo(0);
+    Truth.assertThat(all.getBalance().toPrimitive()).isEqualTo(0);
+    Truth.assertThat(checking.getBalance().toPrimitive()).isEqualTo(0);
+  }
+
+  @Test
+  public void consumersShouldReceiveEveryLegTogether() {
+    Simulator sim = Simulator.create(START);
+    BalanceSheet sheet = BalanceSheet.create(sim);
+    AssetAccount checking = sheet.createAssetAccount("Checking");
+    AssetAccount savings = sheet.createAssetAccount("Savings");
+    // A consumer shared by both journals sees the other leg already posted.
+    List<Long> seen = new ArrayList<>();
+    Consumer<LineItem> rollup = item -> seen.add(
+        checking.getJournal().getBalance().add(savings.getJournal().getBalance()).toPrimitive());
+    checking.getJournal().registerLineItemConsumer(rollup);
+    savings.getJournal().registerLineItemConsumer(rollup);
+
+    Posting.create(sim, START, "Transfer")
+        .withdraw(checking, Money.dollars(100))
+        .deposit(savings, Money.dollars(100))
+        .post();
+
+    Truth.assertThat(seen).containsExactly(0L, 0L);
+  }
+}
@@ -0,0 +1,28 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Money;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class RecordTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void globalIdsShouldStayPositiveAndDistinctForTheLargestIds() {
+    Simulator largest = Simulator.create(START, Simulator.FIRST_AUTOMATIC_ID - 1);
+    Simulator previous = Simulator.create(START, Simulator.FIRST_AUTOMATIC_ID - 2);
+    Transaction first = Transaction.create(largest, START, "deposit", Money.dollars(1));
+    Transaction second = Transaction.create(previous, START, "deposit", Money.dollars(1));
+
+    Truth.assertThat(first.getGlobalId()).isGreaterThan(0L);
+    Truth.assertThat(first.getId()).isEqualTo(second.getId());
+    Truth.assertThat(first.getGlobalId()).isNotEqualTo(second.getGlobalId());
+  }
+}
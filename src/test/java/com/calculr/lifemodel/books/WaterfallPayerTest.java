@@ -0,0 +1,105 @@
+package com.calculr.lifemodel.books;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.books.WaterfallPayer.Strategy;
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Bill;
+import com.calculr.lifemodel.finance.Money;
+import com.calculr.lifemodel.finance.Payee;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class WaterfallPayerTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void avalancheShouldPayTheHighestRateAfterTheMinimums() {
+    Truth.assertThat(settle(Strategy.AVALANCHE)).asList().containsExactly(100L, 300L, 100L)
+        .inOrder();
+  }
+
+  @Test
+  public void snowballShouldPayTheSmallestLiabilityAfterTheMinimums() {
+    Truth.assertThat(settle(Strategy.SNOWBALL)).asList().containsExactly(150L, 100L, 250L)
+        .inOrder();
+  }
+
+  /**
+   * Returns the dollars paid to three bills, issued and due on different days, from $500 of
+   * cash, which covers every minimum of $100 but not every period payment of $300.
+   */
+  private static long[] settle(Strategy strategy) {
+    Simulator sim = Simulator.create(START);
+    AssetAccount cash = BalanceSheet.create(sim).createCashAccount();
+    cash.deposit(Transaction.create(sim, START, "Opening", Money.dollars(500)));
+    WaterfallPayer payer = WaterfallPayer.newBuilder(sim, cash).setStrategy(strategy).build();
+
+    Payee[] payees = {
+        new FixedPayee("Car", 0.05, Money.dollars(1000), cash),
+        new FixedPayee("Card", 0.20, Money.dollars(5000), cash),
+        new FixedPayee("Store", 0.10, Money.dollars(250), cash)};
+    int[] gracePeriods = {10, 20, 15};
+    Bill[] bills = new Bill[payees.length];
+    for (int i = 0; i < payees.length; i++) {
+      int index = i;
+      payer.schedule(START.plusDays(i), context -> bills[index] =
+          Bill.issue(sim, payees[index], payer, gracePeriods[index]));
+    }
+    sim.runUntil(START.plusDays(30));
+
+    long[] paid = new long[bills.length];
+    for (int i = 0; i < bills.length; i++) {
+      paid[i] = bills[i].getAmountPaid().toPrimitive() / Money.dollars(1).toPrimitive();
+    }
+    return paid;
+  }
+
+  private static class FixedPayee implements Payee {
+    private final String name;
+    private final double rate;
+    private final Money liability;
+    private final AssetAccount account;
+
+    FixedPayee(String name, double rate, Money liability, AssetAccount account) {
+      this.name = name;
+      this.rate = rate;
+      this.liability = liability;
+      this.account = account;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public Money getMinimumPayment() {
+      return Money.dollars(100);
+    }
+
+    @Override
+    public Money getPeriodPayment() {
+      return Money.dollars(300);
+    }
+
+    @Override
+    public Money getTotalLiability() {
+      return liability;
+    }
+
+    @Override
+    public double getInterestRate() {
+      return rate;
+    }
+
+    @Override
+    public void remit(AssetAccount from, Transaction transaction) {
+      from.withdraw(transaction);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.calculr.lifemodel.cohort;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.books.AssetAccount;
+import com.calculr.lifemodel.books.BalanceSheet;
+import com.calculr.lifemodel.books.Transaction;
+import com.calculr.lifemodel.engine.Simulator;
+import com.calculr.lifemodel.finance.Money;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class CohortTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+  private static final double[] RATES = {0.05, 0.0213, -0.01};
+
+  @Test
+  public void cohortRowsShouldMatchInterestAccounts() {
+    Simulator sim = Simulator.create(START);
+    BalanceSheet sheet = BalanceSheet.create(sim);
+    AssetAccount[] accounts = new AssetAccount[RATES.length];
+    for (int i = 0; i < RATES.length; i++) {
+      AssetAccount account = sheet.createInterestAccount("Savings " + i, RATES[i]);
+      account.onSchedule().starting(START).runMonthly().schedule(context -> account.deposit(
+          Transaction.create(sim, context.getDate(), "Salary", Money.dollarsCents(1234, 56))));
+      accounts[i] = account;
+    }
+
+    Cohort cohort = Cohort.newBuilder(sim, "Households", RATES.length)
+        .addAsset("Savings")
+        .addRate("Rate", 0)
+        .build();
+    System.arraycopy(RATES, 0, cohort.getRates("Rate"), 0, RATES.length);
+    cohort.onSchedule().starting(START).runMonthly()
+        .schedule(CohortRules.deposit("Savings", Money.dollarsCents(1234, 56)));
+    cohort.onSchedule().starting(START.plusMonths(1)).runMonthly().atStartOfDay()
+        .schedule(CohortRules.compound("Savings", "Rate", 12));
+
+    sim.runUntil(START.plusYears(10).minusDays(1));
+
+    for (int i = 0; i < RATES.length; i++) {
+      Truth.assertThat(cohort.getBalance("Savings", i).toPrimitive())
+          .isEqualTo(accounts[i].getBalance().toPrimitive());
+    }
+  }
+
+  @Test
+  public void liabilitiesShouldOnlyAccrueWhileOwed() {
+    Simulator sim = Simulator.create(START);
+    Cohort cohort = Cohort.newBuilder(sim, "Borrowers", 2)
+        .addLiability("Loan")
+        .addRate("Rate", 0.12)
+        .build();
+    cohort.setBalance("Loan", 0, Money.dollars(-1000));
+    cohort.setBalance("Loan", 1, Money.dollars(500));
+    cohort.onSchedule().starting(START.plusMonths(1)).runMonthly().atStartOfDay()
+        .schedule(CohortRules.compound("Loan", "Rate", 12));
+
+    sim.runUntil(START.plusMonths(1));
+
+    Truth.assertThat(cohort.getBalance("Loan", 0).toPrimitive())
+        .isEqualTo(Money.dollars(-1010).toPrimitive());
+    Truth.assertThat(cohort.getBalance("Loan", 1).toPrimitive())
+        .isEqualTo(Money.dollars(500).toPrimitive());
+    Truth.assertThat(cohort.sum("Loan").toPrimitive())
+        .isEqualTo(Money.dollars(-510).toPrimitive());
+  }
+
+  @Test
+  public void paymentsShouldStopOncePaidOff() {
+    Simulator sim = Simulator.create(START);
+    Cohort cohort = Cohort.newBuilder(sim, "Variants", 3)
+        .addAsset("Checking")
+        .addLiability("Loan")
+        .addAmount("Payment")
+        .build();
+    VariantSweep sweep = VariantSweep.of(cohort, "small", "large", "none");
+    cohort.fillBalance("Checking", Money.dollars(1000));
+    cohort.fillBalance("Payment", Money.dollars(100));
+    sweep.set("small", "Loan", Money.dollars(-150)).set("large", "Loan", Money.dollars(-1000));
+    cohort.onSchedule().starting(START).runMonthly().stopAfter(3)
+        .schedule(CohortRules.payDown("Checking", "Loan", "Payment"));
+    cohort.schedule(START.plusMonths(4), CohortRules.transfer(
+        "Checking", "Loan", "Payment", Mask.owing("Loan").and(Mask.rows(1))));
+
+    sim.runUntil(START.plusMonths(5));
+
+    Truth.assertThat(sweep.get("small", "Checking").toPrimitive())
+        .isEqualTo(Money.dollars(850).toPrimitive());
+    Truth.assertThat(sweep.get("small", "Loan").sign()).isEqualTo(0);
+    Truth.assertThat(sweep.get("large", "Loan").toPrimitive())
+        .isEqualTo(Money.dollars(-600).toPrimitive());
+    Truth.assertThat(sweep.get("none", "Checking").toPrimitive())
+        .isEqualTo(Money.dollars(1000).toPrimitive());
+  }
+}
@@ -0,0 +1,108 @@
+package com.calculr.lifemodel.engine;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.engine.parameter.SampledParameter;
+import com.calculr.lifemodel.finance.Money;
+import com.calculr.lifemodel.finance.MoneyMetric;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class MonteCarloExperimentTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+  private static final int REPLICAS = 400;
+
+  /**
+   * Reports exp(Z/4) dollars, whose expected value is exp(1/32), and Z itself as a control.
+   */
+  private static final Trial LOGNORMAL = new Trial() {
+    @Override
+    public String getTrialName() {
+      return "Lognormal";
+    }
+
+    @Override
+    public void run(LocalDate startDate, Simulation sim) {
+      double z = RandomStream.of(sim).nextGaussian();
+      sim.update(MoneyMetric.last("Value"), Money.dollars(1000).scale(Math.exp(z / 4)));
+      sim.update(MoneyMetric.last("Draw"), Money.dollars(1000).scale(z));
+    }
+  };
+
+  private static Estimate value(MonteCarloExperiment experiment) {
+    Map<String, Estimate> estimates = experiment.setSeed(17).run(START);
+    Truth.assertThat(estimates.get("Value").getReplicas()).isEqualTo(REPLICAS);
+    return estimates.get("Value");
+  }
+
+  @Test
+  public void varianceReductionShouldShrinkTheStandardError() {
+    double expected = 1000 * Math.exp(1.0 / 32);
+    Estimate plain = value(MonteCarloExperiment.create(LOGNORMAL, REPLICAS));
+    Estimate antithetic =
+        value(MonteCarloExperiment.create(LOGNORMAL, REPLICAS).useAntitheticVariates());
+    Estimate stratified =
+        value(MonteCarloExperiment.create(LOGNORMAL, REPLICAS).useStratifiedSampling(100));
+    Estimate control = value(MonteCarloExperiment.create(LOGNORMAL, REPLICAS)
+        .addControlVariate("Value", "Draw", 0));
+
+    for (Estimate estimate : new Estimate[] {plain, antithetic, stratified, control}) {
+      Truth.assertThat(estimate.getMean())
+          .isWithin(4 * estimate.getStandardError()).of(expected);
+    }
+    Truth.assertThat(antithetic.getStandardError()).isLessThan(plain.getStandardError());
+    Truth.assertThat(control.getStandardError()).isLessThan(plain.getStandardError());
+    Truth.assertThat(stratified.getStandardError())
+        .isLessThan(plain.getStandardError() / 5);
+  }
+
+  @Test
+  public void quasiRandomSamplingShouldConvergeFaster() {
+    Trial monthly = new Trial() {
+      @Override
+      public String getTrialName() {
+        return "Monthly rates";
+      }
+
+      @Override
+      public void run(LocalDate startDate, Simulation sim) {
+        SampledParameter rate = SampledParameter.gaussian(sim, "Rate", 12, 0.04, 0.01);
+        double growth = 1;
+        for (int month = 0; month < 12; month++) {
+          growth *= 1 + rate.getMonth(month) / 12;
+        }
+        sim.update(MoneyMetric.last("Value"), Money.dollars(1000).scale(growth));
+      }
+    };
+    double expected = 1000 * Math.pow(1 + 0.04 / 12, 12);
+    Estimate plain = value(MonteCarloExperiment.create(monthly, REPLICAS));
+    Estimate quasiRandom =
+        value(MonteCarloExperiment.create(monthly, REPLICAS).useQuasiRandom(4));
+
+    Truth.assertThat(quasiRandom.getMean())
+        .isWithin(4 * quasiRandom.getStandardError()).of(expected);
+    Truth.assertThat(quasiRandom.getStandardError())
+        .isLessThan(plain.getStandardError() / 5);
+  }
+
+  @Test
+  public void antitheticStreamsShouldNegateGaussianDraws() {
+    RandomStream stream = RandomStream.seeded(3);
+    RandomStream antithetic = RandomStream.antithetic(3);
+    for (int i = 0; i < 1000; i++) {
+      Truth.assertThat(antithetic.nextGaussian()).isEqualTo(-stream.nextGaussian());
+    }
+  }
+
+  @Test
+  public void normalQuantileShouldMatchKnownValues() {
+    Truth.assertThat(RandomStream.normalQuantile(0.5)).isEqualTo(0.0);
+    Truth.assertThat(RandomStream.normalQuantile(0.975)).isWithin(1e-8).of(1.959963985);
+    Truth.assertThat(RandomStream.normalQuantile(0.001)).isWithin(1e-8).of(-3.090232306);
+  }
+}
@@ -0,0 +1,127 @@
+package com.calculr.lifemodel.engine;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class OptimisticSimulatorTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+  private static final int PARTITIONS = 4;
+
+  @Test
+  public void optimisticRunsShouldMatchLockstepRun() {
+    long[] lockstep = simulate(1, false).states;
+    for (int window : new int[] {7, 90, 400}) {
+      Truth.assertThat(simulate(window, false).states).isEqualTo(lockstep);
+      Truth.assertThat(simulate(window, true).states).isEqualTo(lockstep);
+    }
+  }
+
+  @Test
+  public void checkpointedRollbacksShouldReplayAtMostOneWindow() {
+    int window = 30;
+    HouseholdModel model = simulate(window, true);
+    Truth.assertThat(model.sim.getRollbackCount()).isGreaterThan(0L);
+    Truth.assertThat(model.sim.getReplayedDays())
+        .isAtMost(model.sim.getRollbackCount() * window);
+  }
+
+  @Test
+  public void globalVirtualTimeShouldReachTheFinalDate() {
+    OptimisticSimulator sim = OptimisticSimulator.create(START, 2, 1, (partition, index) -> {
+      new Household(partition, null, index, 2);
+      return (date, payload) -> { };
+    });
+    sim.runUntil(START.plusMonths(3));
+    Truth.assertThat(sim.getGlobalVirtualTime()).isEqualTo(START.plusMonths(3));
+  }
+
+  /**
+   * Runs the households for a year, each partition running a window ahead of the others.
+   */
+  private static HouseholdModel simulate(int window, boolean checkpoint) {
+    HouseholdModel model = checkpoint ? new CheckpointingHouseholdModel() : new HouseholdModel();
+    model.sim = OptimisticSimulator.create(START, PARTITIONS, 1, model);
+    model.holder[0] = model.sim;
+    model.sim.setWindow(window).runUntil(START.plusYears(1));
+    for (int i = 0; i < PARTITIONS; i++) {
+      model.states[i] = model.households[i].state;
+    }
+    return model;
+  }
+
+  private static class HouseholdModel implements OptimisticSimulator.Model {
+    final Household[] households = new Household[PARTITIONS];
+    private final long[] states = new long[PARTITIONS];
+    private final OptimisticSimulator[] holder = new OptimisticSimulator[1];
+    private OptimisticSimulator sim;
+
+    @Override
+    public OptimisticSimulator.Receiver build(Simulator partition, int index) {
+      return create(partition, index, index);
+    }
+
+    OptimisticSimulator.Receiver create(Simulator partition, int index, long state) {
+      Household household = new Household(partition, holder, index, PARTITIONS);
+      household.state = state;
+      households[index] = household;
+      return (date, payload) -> household.scheduleStartOfDay(date,
+          context -> context.getActor().mix((Long) payload));
+    }
+  }
+
+  private static class CheckpointingHouseholdModel extends HouseholdModel
+      implements OptimisticSimulator.CheckpointingModel {
+
+    @Override
+    public Object checkpoint(Simulator partition, int index) {
+      return households[index].state;
+    }
+
+    @Override
+    public OptimisticSimulator.Receiver restore(Simulator partition, int index, Object state) {
+      return create(partition, index, (Long) state);
+    }
+  }
+
+  private static class Household extends Actor<Household> {
+    private final OptimisticSimulator[] sim;
+    private final int index;
+    private final int partitions;
+    private long state;
+
+    Household(Simulation partition, OptimisticSimulator[] sim, int index, int partitions) {
+      super(partition);
+      this.sim = sim;
+      this.index = index;
+      this.partitions = partitions;
+      this.state = index;
+    }
+
+    void mix(long value) {
+      state = state * 31 + value;
+    }
+
+    @Override
+    public void onRegister(LocalDate date) {
+      onSchedule().starting(date).runDaily().schedule(context -> {
+        Household household = context.getActor();
+        // Partitions run at different speeds, so the faster ones receive stragglers.
+        for (int i = 0; i < household.index * 2_000; i++) {
+          household.state ^= household.state >>> 7;
+        }
+        household.mix(context.getDate().getDayOfYear());
+        int day = context.getDate().getDayOfMonth();
+        if (household.sim != null && day % (household.index + 3) == 0) {
+          int recipient = (household.index + 1) % household.partitions;
+          household.sim[0].send(context.getSimulation(), recipient, household.state);
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.calculr.lifemodel.engine;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class PartitionedSimulatorTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void messagesShouldArriveTheDayAfterTheBarrier() {
+    PartitionedSimulator sim = PartitionedSimulator.create(START, 2, 1);
+    Inbox inbox = new Inbox(sim.getPartition(1));
+    new Sender(sim, 0, inbox, START.plusDays(3));
+    sim.runUntil(START.plusDays(10));
+
+    Truth.assertThat(inbox.received).containsExactly(START.plusDays(4) + " from 0");
+  }
+
+  @Test
+  public void deliveryOrderShouldNotDependOnThreads() {
+    List<String> first = exchange();
+    for (int i = 0; i < 5; i++) {
+      Truth.assertThat(exchange()).containsExactlyElementsIn(first).inOrder();
+    }
+  }
+
+  private static List<String> exchange() {
+    PartitionedSimulator sim = PartitionedSimulator.create(START, 4, 1);
+    Inbox inbox = new Inbox(sim.getPartition(0));
+    for (int i = 0; i < 4; i++) {
+      for (int day = 0; day < 20; day += i + 1) {
+        new Sender(sim, i, inbox, START.plusDays(day));
+      }
+    }
+    sim.runUntil(START.plusMonths(1));
+    return inbox.received;
+  }
+
+  private static class Inbox extends Actor<Inbox> {
+    private final List<String> received = new ArrayList<>();
+
+    Inbox(Simulation sim) {
+      super(sim);
+    }
+
+    @Override
+    public void onRegister(LocalDate date) {
+      // Only receives messages.
+    }
+  }
+
+  private static class Sender extends Actor<Sender> {
+    private final PartitionedSimulator partitions;
+    private final int partition;
+    private final Inbox inbox;
+    private final LocalDate date;
+
+    Sender(PartitionedSimulator partitions, int partition, Inbox inbox, LocalDate date) {
+      super(partitions.getPartition(partition));
+      this.partitions = partitions;
+      this.partition = partition;
+      this.inbox = inbox;
+      this.date = date;
+    }
+
+    @Override
+    public void onRegister(LocalDate registered) {
+      schedule(date, context -> partitions.send(context.getSimulation(), inbox,
+          received -> received.getActor().received.add(
+              received.getDate() + " from " + partition)));
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.calculr.lifemodel.engine;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class QuantileSketchTest {
+
+  @Test
+  public void quantilesShouldBeWithinRelativeAccuracy() {
+    QuantileSketch sketch = QuantileSketch.create(0.01);
+    for (int i = 1; i <= 1000; i++) {
+      sketch.add(i);
+    }
+    Truth.assertThat(sketch.getCount()).isEqualTo(1000L);
+    Truth.assertThat(sketch.getQuantile(0.5)).isWithin(5.01).of(500);
+    Truth.assertThat(sketch.getQuantile(0.95)).isWithin(9.51).of(950);
+    Truth.assertThat(sketch.getQuantile(0)).isWithin(0.01).of(1);
+  }
+
+  @Test
+  public void negativeValuesShouldBeOrderedBeforePositiveValues() {
+    QuantileSketch sketch = QuantileSketch.create(0.01);
+    sketch.add(-200);
+    sketch.add(-100);
+    sketch.add(0);
+    sketch.add(100);
+    sketch.add(200);
+    Truth.assertThat(sketch.getQuantile(0)).isWithin(2.01).of(-200);
+    Truth.assertThat(sketch.getQuantile(0.25)).isWithin(1.01).of(-100);
+    Truth.assertThat(sketch.getQuantile(0.5)).isEqualTo(0.0);
+    Truth.assertThat(sketch.getQuantile(1)).isWithin(2.01).of(200);
+  }
+
+  @Test
+  public void mergedSketchesShouldMatchSingleSketch() {
+    Random random = new Random(42);
+    QuantileSketch all = QuantileSketch.create(0.01);
+    QuantileSketch first = QuantileSketch.create(0.01);
+    QuantileSketch second = QuantileSketch.create(0.01);
+    for (int i = 0; i < 10_000; i++) {
+      double value = random.nextGaussian() * 1_000_000;
+      all.add(value);
+      (i % 2 == 0 ? first : second).add(value);
+    }
+    first.merge(second);
+    Truth.assertThat(first.getCount()).isEqualTo(all.getCount());
+    for (double q : new double[] {0.05, 0.25, 0.5, 0.75, 0.95}) {
+      Truth.assertThat(first.getQuantile(q)).isEqualTo(all.getQuantile(q));
+    }
+  }
+}
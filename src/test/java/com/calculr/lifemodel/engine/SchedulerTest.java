@@ -0,0 +1,106 @@
+package com.calculr.lifemodel.engine;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class SchedulerTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void cancelledTasksShouldBeSkipped() {
+    Simulator sim = Simulator.create(START);
+    Recorder recorder = new Recorder(sim);
+    recorder.schedule(START, context -> {
+      ScheduleHandle daily = recorder.onSchedule().starting(START.plusDays(1)).runDaily()
+          .schedule(context2 -> recorder.record("daily"));
+      ScheduleHandle once = recorder.schedule(START.plusDays(5),
+          context2 -> recorder.record("once"));
+      recorder.scheduleStartOfDay(START.plusDays(3), context2 -> {
+        daily.cancel();
+        once.cancel();
+      });
+    });
+    sim.runUntil(START.plusDays(10));
+
+    Truth.assertThat(recorder.seen)
+        .containsExactly("daily " + START.plusDays(1), "daily " + START.plusDays(2)).inOrder();
+  }
+
+  @Test
+  public void retiredActorsShouldBeSkipped() {
+    Simulator sim = Simulator.create(START);
+    Recorder recorder = new Recorder(sim);
+    recorder.schedule(START, context -> {
+      recorder.onSchedule().starting(START.plusDays(1)).runDaily()
+          .schedule(context2 -> recorder.record("daily"));
+      recorder.schedule(START.plusDays(5), context2 -> recorder.record("once"));
+    });
+    Recorder retirer = new Recorder(sim);
+    List<ScheduleHandle> late = new ArrayList<>();
+    retirer.scheduleStartOfDay(START.plusDays(2), context -> {
+      recorder.retire();
+      late.add(recorder.schedule(START.plusDays(3), context2 -> recorder.record("late")));
+    });
+    sim.runUntil(START.plusDays(10));
+
+    Truth.assertThat(recorder.seen)
+        .containsExactly("daily " + START.plusDays(1), "retired " + START.plusDays(2)).inOrder();
+    Truth.assertThat(late).containsExactly(ScheduleHandle.CANCELLED);
+  }
+
+  @Test
+  public void horizonShouldDropTasksAfterTheFinalDate() {
+    Simulator sim = Simulator.create(START);
+    Recorder recorder = new Recorder(sim);
+    List<ScheduleHandle> handles = new ArrayList<>();
+    recorder.schedule(START.plusDays(20), context -> recorder.record("beyond"));
+    recorder.onSchedule().starting(START.plusDays(1)).runWeekly()
+        .schedule(context -> recorder.record("weekly"));
+    recorder.schedule(START.plusDays(5), context -> {
+      recorder.record("once");
+      handles.add(recorder.schedule(START.plusDays(11), context2 -> recorder.record("late")));
+      handles.add(recorder.schedule(START.plusDays(10), context2 -> recorder.record("last")));
+    });
+    sim.runUntil(START.plusDays(10));
+
+    Truth.assertThat(recorder.seen).containsExactly("weekly " + START.plusDays(1),
+        "once " + START.plusDays(5), "weekly " + START.plusDays(8), "last " + START.plusDays(10))
+        .inOrder();
+    Truth.assertThat(handles.get(0)).isSameInstanceAs(ScheduleHandle.CANCELLED);
+    Truth.assertThat(handles.get(1).isCancelled()).isFalse();
+    // Neither the task scheduled beyond the horizon nor the next weekly task remains queued.
+    Truth.assertThat(sim.getScheduler().getNextDate()).isNull();
+  }
+
+  private static class Recorder extends Actor<Recorder> {
+    private final Simulation sim;
+    private final List<String> seen = new ArrayList<>();
+
+    Recorder(Simulation sim) {
+      super(sim);
+      this.sim = sim;
+    }
+
+    @Override
+    public void onRegister(LocalDate date) {
+      // Tasks are scheduled by the test.
+    }
+
+    @Override
+    protected void onRetire(LocalDate date) {
+      seen.add("retired " + date);
+    }
+
+    void record(String name) {
+      seen.add(name + " " + sim.getCurrentDate());
+    }
+  }
+}
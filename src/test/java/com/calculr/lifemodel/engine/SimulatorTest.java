@@ -0,0 +1,108 @@
+package com.calculr.lifemodel.engine;
+
+import static org.junit.Assert.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class SimulatorTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void automaticIdsShouldNotCollideWithExplicitIds() {
+    Simulator explicit = Simulator.create(START, 1);
+    Simulator automatic = Simulator.create(START);
+
+    Truth.assertThat(explicit.getSimulationId()).isEqualTo(1);
+    Truth.assertThat(automatic.getSimulationId()).isAtLeast(Simulator.FIRST_AUTOMATIC_ID);
+    Truth.assertThat(Simulator.create(START).getSimulationId())
+        .isGreaterThan(automatic.getSimulationId());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void explicitIdsShouldNotEnterTheAutomaticRange() {
+    Simulator.create(START, Simulator.FIRST_AUTOMATIC_ID);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void explicitIdsShouldNotBeNegative() {
+    Simulator.create(START, -1);
+  }
+
+  @Test
+  public void automaticIdsShouldStopAtTheLargestId() {
+    AtomicLong counter = new AtomicLong(Simulator.MAX_ID);
+    Truth.assertThat(Simulator.nextAutomaticId(counter)).isEqualTo(Simulator.MAX_ID);
+    assertThrows(IllegalStateException.class, () -> Simulator.nextAutomaticId(counter));
+  }
+
+  @Test
+  public void throwPolicyShouldAbortWithTheFailure() {
+    Simulator sim = Simulator.create(START);
+    Reporter reporter = new Reporter(sim, 3);
+
+    IllegalStateException failure = assertThrows(IllegalStateException.class,
+        () -> sim.runUntil(START.plusDays(10)));
+    Truth.assertThat(failure).hasMessageThat().isEqualTo("Missed on " + START.plusDays(3));
+    Truth.assertThat(reporter.days).hasSize(4);
+    Truth.assertThat(sim.getOutcomes()).isEmpty();
+  }
+
+  @Test
+  public void continuePolicyShouldCountEveryOutcomeAndRetainTheEarliest() {
+    Simulator sim = Simulator.create(START).setOutcomePolicy(OutcomePolicy.CONTINUE)
+        .setRetainedOutcomes(2);
+    Reporter reporter = new Reporter(sim, 3);
+    sim.runUntil(START.plusDays(10));
+
+    Truth.assertThat(reporter.days).hasSize(11);
+    Truth.assertThat(sim.getOutcomeCount("Miss")).isEqualTo(8);
+    Truth.assertThat(sim.getOutcomeCounts()).containsExactly("Miss", 8L);
+    Truth.assertThat(sim.getOutcomes()).hasSize(2);
+    Truth.assertThat(sim.getOutcomes().iterator().next().getDate()).isEqualTo(START.plusDays(3));
+  }
+
+  @Test
+  public void stopPolicyShouldCompleteAtTheEndOfTheDay() {
+    Simulator sim = Simulator.create(START).setOutcomePolicy(OutcomePolicy.STOP);
+    Reporter reporter = new Reporter(sim, 3);
+    sim.runUntil(START.plusDays(10));
+
+    Truth.assertThat(reporter.days).hasSize(4);
+    Truth.assertThat(sim.getOutcomeCount("Miss")).isEqualTo(1);
+  }
+
+  /**
+   * Records each day it runs, and reports an outcome every day from a given day on.
+   */
+  private static class Reporter extends Actor<Reporter> {
+    private final int firstMiss;
+    private final List<LocalDate> days = new ArrayList<>();
+
+    Reporter(Simulation sim, int firstMiss) {
+      super(sim);
+      this.firstMiss = firstMiss;
+    }
+
+    @Override
+    public void onRegister(LocalDate date) {
+      onSchedule().starting(date).runDaily().schedule(context -> {
+        LocalDate today = context.getDate();
+        days.add(today);
+        if (days.size() > firstMiss) {
+          context.getSimulation().report(Outcome.of(today, "Miss", "Reporter", "Missed on %s",
+              today), () -> new IllegalStateException("Missed on " + today));
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.calculr.lifemodel.engine;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class SobolSequenceTest {
+  private static final int POINTS = 1 << 10;
+  private static final double HALF_CELL = 0.5 / (1L << 32);
+
+  @Test
+  public void firstPointsShouldMatchTheSequence() {
+    SobolSequence sobol = SobolSequence.create();
+    double[][] expected = {{0.5, 0.5, 0.5}, {0.25, 0.75, 0.75}, {0.75, 0.25, 0.25},
+        {0.125, 0.625, 0.375}};
+    for (int index = 1; index <= expected.length; index++) {
+      for (int dimension = 0; dimension < 3; dimension++) {
+        Truth.assertThat(sobol.get(index, dimension))
+            .isWithin(HALF_CELL).of(expected[index - 1][dimension]);
+      }
+    }
+  }
+
+  @Test
+  public void everyDimensionShouldBeStratified() {
+    for (SobolSequence sobol : new SobolSequence[] {
+        SobolSequence.create(), SobolSequence.scrambled(1), SobolSequence.scrambled(2)}) {
+      for (int dimension = 0; dimension < 200; dimension++) {
+        boolean[] seen = new boolean[POINTS];
+        for (int index = 0; index < POINTS; index++) {
+          int cell = (int) (sobol.get(index, dimension) * POINTS);
+          Truth.assertThat(seen[cell]).isFalse();
+          seen[cell] = true;
+        }
+      }
+    }
+  }
+
+  @Test
+  public void firstTwoDimensionsShouldFormANet() {
+    SobolSequence sobol = SobolSequence.scrambled(5);
+    for (int split = 0; split <= 10; split++) {
+      int rows = 1 << split;
+      int columns = POINTS / rows;
+      boolean[] seen = new boolean[POINTS];
+      for (int index = 0; index < POINTS; index++) {
+        int cell = (int) (sobol.get(index, 0) * rows) * columns
+            + (int) (sobol.get(index, 1) * columns);
+        Truth.assertThat(seen[cell]).isFalse();
+        seen[cell] = true;
+      }
+    }
+  }
+
+  @Test
+  public void scramblingShouldBeReproducible() {
+    SobolSequence first = SobolSequence.scrambled(9);
+    SobolSequence second = SobolSequence.scrambled(9);
+    SobolSequence other = SobolSequence.scrambled(10);
+    Truth.assertThat(second.get(37, 300)).isEqualTo(first.get(37, 300));
+    Truth.assertThat(other.get(37, 300)).isNotEqualTo(first.get(37, 300));
+  }
+
+  @Test
+  public void scramblingsOfConsecutiveSeedsShouldNotShareDimensions() {
+    // An experiment seeds its scramblings a gamma apart, the step between dimensions.
+    long gamma = 0x9e3779b97f4a7c15L;
+    SobolSequence first = SobolSequence.scrambled(9);
+    SobolSequence second = SobolSequence.scrambled(9 + gamma);
+    for (int dimension = 0; dimension < 20; dimension++) {
+      // The first point of a scrambled dimension is its digital shift.
+      Truth.assertThat(second.get(0, dimension)).isNotEqualTo(first.get(0, dimension + 1));
+    }
+  }
+
+  @Test
+  public void dimensionsShouldBeReadableInAnyOrder() {
+    SobolSequence first = SobolSequence.create();
+    first.get(3, 5);
+    SobolSequence second = SobolSequence.scrambled(1);
+    for (int dimension : new int[] {0, 1, 2, 4, 40, 7, 3}) {
+      Truth.assertThat(second.get(3, dimension)).isGreaterThan(0.0);
+      Truth.assertThat(first.get(3, dimension))
+          .isEqualTo(SobolSequence.create().get(3, dimension));
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.calculr.lifemodel.engine.parameter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.engine.Actor;
+import com.calculr.lifemodel.engine.Simulation;
+import com.calculr.lifemodel.engine.Simulator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class ScenarioPathsTest {
+    private static final LocalDate START = LocalDate.of(2020, 1, 15);
+    private static final List<String> VARIABLES = ImmutableList.of("Stocks", "Inflation");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void randomWalk(SplittableRandom random, double[][] values) {
+        for (double[] variable : values) {
+            double value = 100;
+            for (int month = 0; month < variable.length; month++) {
+                value += random.nextDouble() - 0.5;
+                variable[month] = value;
+            }
+        }
+    }
+
+    @Test
+    public void pathsShouldNotDependOnGenerationOrder() throws IOException {
+        Path file = folder.newFile("paths.bin").toPath();
+        ScenarioPaths generated = ScenarioPaths.generate(
+                file, START, VARIABLES, 64, 120, 42, ScenarioPathsTest::randomWalk);
+        ScenarioPaths regenerated = ScenarioPaths.generate(folder.newFile("again.bin").toPath(),
+                START, VARIABLES, 64, 120, 42, ScenarioPathsTest::randomWalk);
+        ScenarioPaths opened = ScenarioPaths.open(file);
+
+        Truth.assertThat(opened.getVariables()).isEqualTo(VARIABLES);
+        Truth.assertThat(opened.getStartDate()).isEqualTo(START);
+        for (int path = 0; path < 64; path++) {
+            for (int variable = 0; variable < VARIABLES.size(); variable++) {
+                for (int month = 0; month < 120; month++) {
+                    double expected = generated.get(path, variable, month);
+                    Truth.assertThat(regenerated.get(path, variable, month)).isEqualTo(expected);
+                    Truth.assertThat(opened.get(path, variable, month)).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void adjacentPathsShouldNotBeShiftedCopies() throws IOException {
+        ScenarioPaths scenarios = ScenarioPaths.generate(folder.newFile("paths.bin").toPath(),
+                START, VARIABLES, 16, 24, 42, ScenarioPathsTest::randomWalk);
+        for (int path = 0; path + 1 < 16; path++) {
+            // The steps of a random walk are its draws, so a shifted stream shows as shifted steps.
+            int shiftedSteps = 0;
+            for (int month = 1; month + 1 < 24; month++) {
+                double step = scenarios.get(path, 0, month + 1) - scenarios.get(path, 0, month);
+                double nextStep =
+                        scenarios.get(path + 1, 0, month) - scenarios.get(path + 1, 0, month - 1);
+                if (Math.abs(step - nextStep) < 1e-9) {
+                    shiftedSteps++;
+                }
+            }
+            Truth.assertThat(shiftedSteps).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void parameterShouldReadTheCurrentMonth() throws IOException {
+        ScenarioPaths scenarios = ScenarioPaths.generate(folder.newFile("paths.bin").toPath(),
+                START, VARIABLES, 4, 12, 7, ScenarioPathsTest::randomWalk);
+        Simulator sim = Simulator.create(START);
+        ScenarioParameter inflation = scenarios.getParameter(sim, "Inflation", 2);
+        Reader reader = new Reader(sim, inflation);
+        reader.schedule(START.plusMonths(3).withDayOfMonth(1), context -> reader.read());
+        reader.schedule(START.plusYears(2), context -> reader.read());
+
+        sim.runUntil(START.plusYears(2));
+
+        Truth.assertThat(reader.seen)
+                .containsExactly(scenarios.get(2, 1, 3), scenarios.get(2, 1, 11)).inOrder();
+        Truth.assertThat(inflation.getName()).isEqualTo("Inflation #2");
+    }
+
+    private static class Reader extends Actor<Reader> {
+        private final ScenarioParameter parameter;
+        private final List<Double> seen = new ArrayList<>();
+
+        Reader(Simulation sim, ScenarioParameter parameter) {
+            super(sim);
+            this.parameter = parameter;
+        }
+
+        @Override
+        public void onRegister(LocalDate date) {
+            // Reads are scheduled by the test.
+        }
+
+        void read() {
+            seen.add(parameter.get());
+        }
+    }
+}
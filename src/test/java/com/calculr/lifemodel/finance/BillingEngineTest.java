@@ -0,0 +1,88 @@
+package com.calculr.lifemodel.finance;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.books.AssetAccount;
+import com.calculr.lifemodel.books.BalanceSheet;
+import com.calculr.lifemodel.books.Transaction;
+import com.calculr.lifemodel.engine.OutcomePolicy;
+import com.calculr.lifemodel.engine.Simulator;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class BillingEngineTest {
+  private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void missedMinimumPaymentsShouldBeReportedOnTheDueDate() {
+    Simulator sim = Simulator.create(START).setOutcomePolicy(OutcomePolicy.CONTINUE);
+    AssetAccount cash = BalanceSheet.create(sim).createCashAccount();
+    List<Bill> notified = new ArrayList<>();
+    Payer payer = new Payer(sim) {
+      @Override
+      public void onBill(Payee payee, Bill bill) {
+        notified.add(bill);
+        if (payee.getName().equals("Paid")) {
+          schedule(bill.getDueDate(), context -> bill.pay(cash, Money.dollars(10)));
+        }
+      }
+
+      @Override
+      public void onRegister(LocalDate date) {
+      }
+    };
+    List<Bill> issued = new ArrayList<>();
+    payer.schedule(START, context -> {
+      for (int i = 0; i < 3; i++) {
+        issued.add(Bill.issue(sim, new FixedPayee("Paid"), payer, 10));
+        issued.add(Bill.issue(sim, new FixedPayee("Unpaid"), payer, 10));
+      }
+    });
+    sim.runUntil(START.plusDays(20));
+
+    Truth.assertThat(notified).containsExactlyElementsIn(issued).inOrder();
+    Truth.assertThat(sim.getOutcomeCount(Bill.PAYMENT_DEFAULT)).isEqualTo(3L);
+    Truth.assertThat(issued.get(0).getAmountPaid().toPrimitive())
+        .isEqualTo(Money.dollars(10).toPrimitive());
+    Truth.assertThat(issued.get(1).getAmountPaid().sign()).isEqualTo(0);
+    Truth.assertThat(BillingEngine.of(sim).getOutstandingCount()).isEqualTo(0);
+  }
+
+  private static class FixedPayee implements Payee {
+    private final String name;
+
+    FixedPayee(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public Money getMinimumPayment() {
+      return Money.dollars(10);
+    }
+
+    @Override
+    public Money getPeriodPayment() {
+      return Money.dollars(10);
+    }
+
+    @Override
+    public Money getTotalLiability() {
+      return Money.dollars(100);
+    }
+
+    @Override
+    public void remit(AssetAccount account, Transaction transaction) {
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.calculr.lifemodel.finance;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class CompoundingTablesTest {
+
+  @Test
+  public void repeatedRequestShouldHitTheSameTable() {
+    long hits = CompoundingTables.getHitCount();
+    long misses = CompoundingTables.getMissCount();
+
+    CompoundingTable first = CompoundingTables.get(0.0123, 24);
+    CompoundingTable second = CompoundingTables.get(0.0123, 24);
+    CompoundingTables.get(0.0123, 36);
+
+    Truth.assertThat(second).isSameInstanceAs(first);
+    Truth.assertThat(CompoundingTables.getMissCount() - misses).isEqualTo(2);
+    Truth.assertThat(CompoundingTables.getHitCount() - hits).isEqualTo(1);
+  }
+
+  @Test
+  public void leastRecentlyUsedTablesShouldBeEvicted() {
+    CompoundingTable recent = CompoundingTables.get(0.0456, 12);
+    CompoundingTable stale = CompoundingTables.get(0.0789, 12);
+    long evictions = CompoundingTables.getStats().evictionCount();
+    for (int i = 0; i < 4 * CompoundingTables.MAXIMUM_SIZE; i++) {
+      CompoundingTables.get(0.5 + i * 1e-6, 12);
+      // Reading a table keeps it among the most recently used.
+      Truth.assertThat(CompoundingTables.get(0.0456, 12)).isSameInstanceAs(recent);
+    }
+
+    Truth.assertThat(CompoundingTables.size()).isAtMost(CompoundingTables.MAXIMUM_SIZE);
+    Truth.assertThat(CompoundingTables.getStats().evictionCount() - evictions)
+        .isAtLeast(3L * CompoundingTables.MAXIMUM_SIZE);
+    long misses = CompoundingTables.getMissCount();
+    Truth.assertThat(CompoundingTables.get(0.0789, 12)).isNotSameInstanceAs(stale);
+    Truth.assertThat(CompoundingTables.getMissCount() - misses).isEqualTo(1);
+  }
+
+  @Test
+  public void growthShouldCompoundEachPeriod() {
+    CompoundingTable table = CompoundingTables.get(0.004, 360);
+    double growth = 1;
+    for (int k = 1; k <= 360; k++) {
+      growth *= 1.004;
+      Truth.assertThat(table.getGrowth(k)).isEqualTo(growth);
+    }
+    double total = Math.pow(1.004, 360);
+    Truth.assertThat(table.getAmortizationFactor()).isEqualTo(0.004 * total / (total - 1));
+  }
+}
@@ -0,0 +1,74 @@
+package com.calculr.lifemodel.finance;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.calculr.lifemodel.books.Mortgage;
+import com.google.common.truth.Truth;
+
+@RunWith(JUnit4.class)
+public class LoanPoolTest {
+
+  @Test
+  public void loansShouldAmortizeLikeMortgages() {
+    Money principal = Money.dollars(250_000);
+    LoanPool pool = LoanPool.newBuilder().addLoan(principal, 0.045, 360).build();
+    Truth.assertThat(pool.getPayment(0).toPrimitive())
+        .isEqualTo(Mortgage.amortizationPayment(principal, 30, 0.045).toPrimitive());
+
+    LoanPoolCashFlows flows = pool.project(360, 1);
+    long repaid = 0;
+    for (int month = 0; month < flows.size(); month++) {
+      repaid += flows.getScheduledPrincipal(month).toPrimitive();
+      Truth.assertThat(flows.getPrepayments(month).toPrimitive()).isEqualTo(0L);
+    }
+    Truth.assertThat(repaid).isEqualTo(principal.toPrimitive());
+    Truth.assertThat(flows.getBalance(358).sign()).isEqualTo(1);
+    Truth.assertThat(flows.getActiveLoans(359)).isEqualTo(0);
+    Truth.assertThat(flows.getInterest(0).toPrimitive())
+        .isEqualTo(principal.scale(0.045 / 12).toPrimitive());
+  }
+
+  @Test
+  public void prepaymentsShouldFollowTheSingleMonthlyMortality() {
+    LoanPool.LoanPoolBuilder builder = LoanPool.newBuilder()
+        .setPrepayment(LoanPool.Curve.constant(0.2))
+        .setDefaults(LoanPool.Curve.constant(0.02));
+    for (int i = 0; i < 100_000; i++) {
+      builder.addLoan(Money.dollars(100_000), 0.05, 360);
+    }
+    LoanPool pool = builder.build();
+    LoanPoolCashFlows flows = pool.project(12, 42);
+
+    double smm = 1 - Math.pow(0.8, 1.0 / 12);
+    double mdr = 1 - Math.pow(0.98, 1.0 / 12);
+    int terminated = 100_000 - flows.getActiveLoans(0);
+    Truth.assertThat((double) terminated).isWithin(300).of(100_000 * (mdr + (1 - mdr) * smm));
+    Truth.assertThat(Money.ratio(flows.getDefaults(0), Money.dollars(100_000)))
+        .isWithin(100).of(100_000 * mdr);
+
+    LoanPoolCashFlows again = pool.project(12, 42);
+    for (int month = 0; month < 12; month++) {
+      Truth.assertThat(again.getCashFlow(month).toPrimitive())
+          .isEqualTo(flows.getCashFlow(month).toPrimitive());
+    }
+  }
+
+  @Test
+  public void prepaymentsShouldOnlyApplyToSurvivingLoans() {
+    // At high rates, an unconditional SMM would terminate about 980 more loans a month.
+    LoanPool.LoanPoolBuilder builder = LoanPool.newBuilder()
+        .setPrepayment(LoanPool.Curve.constant(0.9))
+        .setDefaults(LoanPool.Curve.constant(0.5));
+    for (int i = 0; i < 100_000; i++) {
+      builder.addLoan(Money.dollars(100_000), 0.05, 360);
+    }
+    LoanPoolCashFlows flows = builder.build().project(1, 7);
+
+    double smm = 1 - Math.pow(0.1, 1.0 / 12);
+    double mdr = 1 - Math.pow(0.5, 1.0 / 12);
+    int terminated = 100_000 - flows.getActiveLoans(0);
+    Truth.assertThat((double) terminated).isWithin(400).of(100_000 * (mdr + (1 - mdr) * smm));
+  }
+}